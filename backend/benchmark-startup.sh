@@ -0,0 +1,87 @@
+#!/bin/bash
+
+# Compares startup of the plain jar with the prod build (AOT, AppCDS archive, lazy init): the time from
+# launching the JVM to the first successful /api/health, and the resident memory once the backend is idle.
+# Linux only (reads /proc). Build both first: mvn -Pprod clean package -DskipTests
+#
+# Usage: ./benchmark-startup.sh [runs per variant, default 5] [port, default 18080]
+# IDLE_SECONDS (default 10) sets how long the backend idles before its RSS is read.
+
+RUNS=${1:-5}
+PORT=${2:-18080}
+IDLE_SECONDS=${IDLE_SECONDS:-10}
+
+FAT_JAR=$(ls target/incident-backend-*.jar 2>/dev/null | grep -v -e '\.original$' -e '-app\.jar$' | head -n 1)
+APP_JAR=$(ls target/app/incident-backend-*-app.jar 2>/dev/null | head -n 1)
+if [ -z "$FAT_JAR" ] || [ -z "$APP_JAR" ] || [ ! -f target/app/application.jsa ]; then
+    echo "❌ Build first: mvn -Pprod clean package -DskipTests"
+    exit 1
+fi
+
+WORK=$(mktemp -d)
+PID=""
+trap '[ -n "$PID" ] && kill "$PID" 2>/dev/null; rm -rf "$WORK"' EXIT
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the backend with the given command, appends "<ms until healthy> <idle RSS in MB>" to $RESULTS and stops it
+measure() {
+    rm -rf "$WORK/data"
+    local start
+    start=$(now_ms)
+    "$@" --server.port="$PORT" \
+        --reports.store.directory="$WORK/data/reports" \
+        --blobs.directory="$WORK/data/blobs" \
+        --tracing.export.file="$WORK/data/spans.ndjson" \
+        --classifier.embedding.enabled=false \
+        > "$WORK/backend.log" 2>&1 &
+    PID=$!
+    until curl -fs -o /dev/null "http://localhost:$PORT/api/health"; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+            echo "❌ Backend exited during startup:" >&2
+            tail -n 20 "$WORK/backend.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    local ready_ms=$(( $(now_ms) - start ))
+    sleep "$IDLE_SECONDS"
+    local rss_kb
+    rss_kb=$(awk '/^VmRSS:/ { print $2 }' "/proc/$PID/status")
+    kill "$PID"
+    wait "$PID" 2>/dev/null
+    PID=""
+    echo "$ready_ms $(( rss_kb / 1024 ))" >> "$RESULTS"
+    echo "  run: $ready_ms ms to healthy, $(( rss_kb / 1024 )) MB idle RSS"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : int((values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+run_variant() {
+    local name=$1
+    shift
+    echo "$name"
+    RESULTS="$WORK/$name.results"
+    for ((i = 1; i <= RUNS; i++)); do
+        measure "$@"
+    done
+}
+
+echo "⏱️  $RUNS starts per variant on port $PORT, $IDLE_SECONDS s idle before reading RSS ($(java -version 2>&1 | head -n 1))"
+run_variant baseline java -jar "$FAT_JAR"
+# The archive only matches the class path it was recorded with, so start from target/app as the build did
+cd target/app || exit 1
+run_variant prod java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -jar "$(basename "$APP_JAR")" --spring.profiles.active=prod
+
+echo ""
+printf "%-10s %18s %18s\n" "variant" "healthy p50 ms" "idle RSS p50 MB"
+for name in baseline prod; do
+    printf "%-10s %18s %18s\n" "$name" \
+        "$(cut -d' ' -f1 "$WORK/$name.results" | median)" \
+        "$(cut -d' ' -f2 "$WORK/$name.results" | median)"
+done
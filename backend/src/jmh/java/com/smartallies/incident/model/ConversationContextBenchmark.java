@@ -0,0 +1,61 @@
+package com.smartallies.incident.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Field reads and writes on a session's context, for a key with its own slot and for an overflow key.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversationContextBenchmark {
+
+    private ConversationContext context;
+
+    @Setup
+    public void setUp() {
+        context = ConversationContext.builder().sessionId("session-1").build();
+        context.updateField("what", "Water leaking from the ceiling");
+        context.updateField("where", "Floor 3, next to the elevators");
+        context.updateField("reporter_phone", "+41 79 000 00 00");
+    }
+
+    @Benchmark
+    public void updateKnownField() {
+        context.updateField("when", "This morning");
+    }
+
+    @Benchmark
+    public void updateOverflowField() {
+        context.updateField("reporter_phone", "+41 79 111 11 11");
+    }
+
+    @Benchmark
+    public boolean hasKnownField() {
+        return context.hasField("where");
+    }
+
+    @Benchmark
+    public boolean hasMissingField() {
+        return context.hasField("who");
+    }
+
+    @Benchmark
+    public boolean hasOverflowField() {
+        return context.hasField("reporter_phone");
+    }
+}
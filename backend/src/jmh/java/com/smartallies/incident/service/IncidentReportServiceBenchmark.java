@@ -0,0 +1,109 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.SessionConfig;
+import com.smartallies.incident.dto.IncidentReportResponse;
+import com.smartallies.incident.dto.SubmitReportRequest;
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.WorkflowState;
+import com.smartallies.incident.repository.InMemoryReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report submission from a session's context, through the session lock, into the in-memory store,
+ * and report retrieval, which is a store lookup plus {@code mapToResponse}. The store is recreated
+ * every iteration so its growth does not skew later iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncidentReportServiceBenchmark {
+
+    private static final String SESSION_ID = "session-1";
+
+    private IncidentReportService reportService;
+    private SubmitReportRequest request;
+    private String storedReportId;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        SessionConfig sessionConfig = new SessionConfig() {
+            @Override
+            public Duration getIdleTtl() {
+                return Duration.ofMinutes(30);
+            }
+
+            @Override
+            public Duration getEmergencyMaxAge() {
+                return Duration.ofHours(24);
+            }
+
+            @Override
+            public int getWheelSlots() {
+                return 60;
+            }
+
+            @Override
+            public int getMaxSessions() {
+                return 10_000;
+            }
+
+            @Override
+            public Duration getTurnLockTimeout() {
+                return Duration.ofSeconds(60);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ConversationContextService contextService =
+                new ConversationContextService(new SessionRegistry(sessionConfig, meterRegistry));
+        reportService = new IncidentReportService(
+                new InMemoryReportRepository(),
+                contextService,
+                null,
+                new SessionLocks(sessionConfig, meterRegistry),
+                event -> { },
+                new TraceSpans(Tracer.NOOP),
+                new StaticListableBeanFactory().getBeanProvider(ReportHandoff.class));
+
+        ConversationContext context = contextService.getOrCreateContext(SESSION_ID);
+        context.setWorkflowState(WorkflowState.REPORT_READY);
+        context.setIncidentType(IncidentType.FACILITY);
+        context.setInitialMessage("Water is leaking from the ceiling next to the elevators on floor 3");
+        context.updateField("what", "Water leaking from the ceiling");
+        context.updateField("where", "Floor 3, next to the elevators");
+        context.updateField("summary", "Ceiling leak on floor 3 next to the elevators, floor is wet and slippery.");
+
+        request = SubmitReportRequest.builder().sessionId(SESSION_ID).anonymous(true).build();
+        storedReportId = reportService.submitReport(request).getReportId();
+    }
+
+    @Benchmark
+    public IncidentReportResponse submitReport() {
+        return reportService.submitReport(request);
+    }
+
+    @Benchmark
+    public Optional<IncidentReportResponse> getReport() {
+        return reportService.getReport(storedReportId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.LlmConfig;
+import com.smartallies.incident.model.LlmOutputs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything {@link LlmService#generateStructured} does around the model call: schema lookup,
+ * coalescing, the concurrency limiter, call metrics, mapping the JSON onto the output record and, when streaming,
+ * forwarding the "message" field. The model is a stub answering instantly with a canned document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredOutputBenchmark {
+
+    private static final String HUMAN_DETAILS = """
+            {"extractedFields":{"what":"Repeated comments about my appearance","when":"Every Monday stand-up since March",\
+            "where":"Meeting room 4B","who":"My team lead"},\
+            "message":"Thank you for sharing this. Could you tell me whether anyone else witnessed these comments?",\
+            "allFieldsCollected":true}""";
+    private static final String CLASSIFICATION = """
+            {"type":"FACILITY","confidence":0.92,"reasoning":"The user describes a broken elevator in the building."}""";
+    private static final int STREAM_CHUNK_CHARS = 6;
+
+    private LlmService llmService;
+    private String prompt;
+
+    @Setup
+    public void setUp() {
+        LlmConfig llmConfig = new LlmConfig() {
+            @Override
+            public int getMaxInFlightCalls() {
+                return 64;
+            }
+
+            @Override
+            public Duration getQueueTimeout() {
+                return Duration.ofSeconds(30);
+            }
+
+            @Override
+            public StructuredOutputFormat getStructuredOutputFormat() {
+                return StructuredOutputFormat.SCHEMA;
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OllamaGenerateClient cannedModel = (call, tokenSink) -> {
+            String response = call.prompt().startsWith("classify") ? CLASSIFICATION : HUMAN_DETAILS;
+            if (tokenSink != null) {
+                for (int start = 0; start < response.length(); start += STREAM_CHUNK_CHARS) {
+                    tokenSink.accept(response.substring(start, Math.min(response.length(), start + STREAM_CHUNK_CHARS)));
+                }
+            }
+            return new OllamaGenerateClient.GenerateResult(response, null, 0, 0);
+        };
+        TraceSpans traceSpans = new TraceSpans(Tracer.NOOP);
+        llmService = new LlmService(null, null, null,
+                new LlmConcurrencyLimiter(llmConfig, meterRegistry),
+                new LlmRequestCoalescer(meterRegistry),
+                cannedModel,
+                llmConfig,
+                new LlmCallMetrics(meterRegistry, traceSpans),
+                traceSpans);
+        prompt = "details: the user reported repeated comments about their appearance";
+    }
+
+    @Benchmark
+    public LlmOutputs.Classification classification() {
+        return llmService.generateStructured("classify: the elevator is broken", LlmOutputs.Classification.class, null, null);
+    }
+
+    @Benchmark
+    public LlmOutputs.HumanDetails humanDetails() {
+        return llmService.generateStructured(prompt, LlmOutputs.HumanDetails.class, null, null);
+    }
+
+    @Benchmark
+    public LlmOutputs.HumanDetails humanDetailsStreamed(Blackhole blackhole) {
+        return llmService.generateStructured(prompt, LlmOutputs.HumanDetails.class, "message", blackhole::consume);
+    }
+}
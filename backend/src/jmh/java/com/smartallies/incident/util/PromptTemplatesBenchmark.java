@@ -0,0 +1,69 @@
+package com.smartallies.incident.util;
+
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.IncidentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The prompt builders called on every chat turn, with realistic message and field sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptTemplatesBenchmark {
+
+    private static final String INITIAL_MESSAGE =
+            "My team lead keeps making comments about my appearance in our Monday stand-ups, "
+                    + "and yesterday he did it again in front of a new colleague. I don't know what to do.";
+    private static final String USER_MESSAGE = "It happened in meeting room 4B, most Mondays since March.";
+
+    private Map<String, String> collectedFields;
+
+    @Setup
+    public void setUp() {
+        ConversationContext context = ConversationContext.builder().build();
+        context.updateField("what", "Repeated comments about appearance");
+        context.updateField("when", "Monday stand-ups since March");
+        collectedFields = context.getCollectedFields();
+    }
+
+    @Benchmark
+    public String classificationPrompt() {
+        return PromptTemplates.buildClassificationPrompt(INITIAL_MESSAGE, false);
+    }
+
+    @Benchmark
+    public String detailsCollectionPrompt() {
+        return PromptTemplates.buildDetailsCollectionPrompt(IncidentType.HUMAN, INITIAL_MESSAGE, collectedFields, USER_MESSAGE);
+    }
+
+    @Benchmark
+    public String reportSummaryPrompt() {
+        return PromptTemplates.buildReportSummaryPrompt(IncidentType.HUMAN, INITIAL_MESSAGE, collectedFields);
+    }
+
+    @Benchmark
+    public String hrPartnerSystemPrompt() {
+        return PromptTemplates.buildHRPartnerSystemPrompt("Sarah Mitchell", INITIAL_MESSAGE);
+    }
+
+    @Benchmark
+    public String samaritanSystemPrompt() {
+        return PromptTemplates.buildSamaritanSystemPrompt("James Anderson", "Floor 3, near the elevators", INITIAL_MESSAGE);
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartallies.incident.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * Every latency of one endpoint or flow, kept whole so percentiles are exact rather than bucketed.
+ */
+final class LatencyStats {
+
+    private long[] samples = new long[256];
+    private int count;
+    private long errors;
+
+    synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors);
+    }
+
+    record Snapshot(long[] sorted, long errors) {
+
+        long successes() {
+            return sorted.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        double maxMillis() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+        }
+    }
+}
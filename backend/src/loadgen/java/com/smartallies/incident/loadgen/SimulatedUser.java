@@ -0,0 +1,168 @@
+package com.smartallies.incident.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.smartallies.incident.dto.ChatRequest;
+import com.smartallies.incident.dto.ConnectHRRequest;
+import com.smartallies.incident.dto.ConnectSamaritanRequest;
+import com.smartallies.incident.dto.HRChatRequest;
+import com.smartallies.incident.dto.SamaritanChatRequest;
+import com.smartallies.incident.dto.SubmitReportRequest;
+import com.smartallies.incident.loadgen.WorkflowClient.UnexpectedResponseException;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.WorkflowState;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One employee going through a whole report, turn by turn, with a think time before every message:
+ * HUMAN ends in an HR partner chat, FACILITY in a submitted report and EMERGENCY in a Samaritan chat.
+ * Every response is checked against the workflow state the real frontend would expect.
+ */
+final class SimulatedUser {
+
+    private static final int CLOSING_ATTEMPTS = 3;
+
+    private static final List<String> HUMAN_OPENERS = List.of(
+            "My manager keeps making inappropriate comments about my appearance in meetings",
+            "A colleague has been bullying me in our team meetings for weeks",
+            "My supervisor takes credit for my work and humiliates me in front of the others",
+            "Someone on my team keeps insulting my work and shouting at me");
+    private static final List<String> FACILITY_OPENERS = List.of(
+            "There is water leaking from the ceiling in the big meeting room",
+            "The elevator in building B is stuck again",
+            "The toilet on the second floor is clogged",
+            "The air conditioning in the open space is not working and it is very hot");
+    private static final List<String> EMERGENCY_OPENERS = List.of(
+            "Someone collapsed in the cafeteria and is not responding",
+            "There is smoke coming from the server room",
+            "A colleague is having a seizure at their desk",
+            "A person is having trouble breathing in the meeting room");
+    private static final List<String> HR_MESSAGES = List.of(
+            "It has been going on since March, mostly in the Monday stand-up",
+            "Two colleagues were there as well but nobody said anything",
+            "I am worried this will affect my performance review",
+            "I would prefer that my team lead does not know I reported it");
+    private static final List<String> SAMARITAN_MESSAGES = List.of(
+            "She is lying on the floor, her eyes are closed",
+            "She is breathing but very slowly",
+            "Nobody else is with us, I am alone with her",
+            "I have turned her on her side like you said");
+
+    private final WorkflowClient client;
+    private final Duration meanThinkTime;
+    private final int chatTurns;
+    private final String sessionId = UUID.randomUUID().toString();
+
+    SimulatedUser(WorkflowClient client, Duration meanThinkTime, int chatTurns) {
+        this.client = client;
+        this.meanThinkTime = meanThinkTime;
+        this.chatTurns = chatTurns;
+    }
+
+    void run(IncidentType scenario) throws InterruptedException {
+        switch (scenario) {
+            case HUMAN -> reportToHR();
+            case FACILITY -> reportFacilityIssue();
+            case EMERGENCY -> reportEmergency();
+        }
+    }
+
+    private void reportToHR() throws InterruptedException {
+        open(HUMAN_OPENERS, IncidentType.HUMAN);
+        chat("Yes", WorkflowState.AWAITING_REPORT_CONFIRMATION);
+        chat("Yes, help me report this", WorkflowState.COLLECTING_DETAILS);
+        chat("It was my team lead, in meeting room 4B during last Monday's stand-up", WorkflowState.AWAITING_HR_DECISION);
+        chat("Connect to HR Partner", WorkflowState.HR_CONNECTED);
+
+        think();
+        client.post("/api/hr/connect", ConnectHRRequest.builder().sessionId(sessionId).build());
+        converse("HR", HR_MESSAGES, "Thank you, that's all I needed. Bye.", message -> client.post("/api/hr/chat",
+                HRChatRequest.builder().sessionId(sessionId).message(message).build()));
+    }
+
+    private void reportFacilityIssue() throws InterruptedException {
+        open(FACILITY_OPENERS, IncidentType.FACILITY);
+        chat("Yes", WorkflowState.COLLECTING_DETAILS);
+        chat("It's on the third floor, right next to the elevators", WorkflowState.REPORT_READY);
+
+        think();
+        JsonNode report = client.post("/api/reports/submit",
+                SubmitReportRequest.builder().sessionId(sessionId).anonymous(true).build());
+        if (report.path("reportId").asText().isEmpty()) {
+            throw new UnexpectedResponseException("report submission returned no report id");
+        }
+    }
+
+    private void reportEmergency() throws InterruptedException {
+        open(EMERGENCY_OPENERS, IncidentType.EMERGENCY);
+        chat("We are on floor 3, in meeting room 3B", WorkflowState.EMERGENCY_ACTIVE);
+        chat("Yes, that's where we are", WorkflowState.EMERGENCY_LOCATION_COLLECTED);
+
+        think();
+        client.post("/api/samaritan/connect", ConnectSamaritanRequest.builder().sessionId(sessionId).build());
+        converse("Samaritan", SAMARITAN_MESSAGES, "Thank you, the paramedics are here now. Bye.",
+                message -> client.post("/api/samaritan/chat",
+                        SamaritanChatRequest.builder().sessionId(sessionId).message(message).build()));
+    }
+
+    private void open(List<String> openers, IncidentType expectedType) throws InterruptedException {
+        String opener = openers.get(ThreadLocalRandom.current().nextInt(openers.size()));
+        WorkflowState expectedState = expectedType == IncidentType.EMERGENCY
+                ? WorkflowState.EMERGENCY_ACTIVE
+                : WorkflowState.AWAITING_CLASSIFICATION_CONFIRMATION;
+        JsonNode response = chat(opener, expectedState);
+        if (!expectedType.name().equals(response.path("incidentType").asText())) {
+            throw new UnexpectedResponseException(
+                    "classified as " + response.path("incidentType").asText() + " instead of " + expectedType);
+        }
+    }
+
+    private JsonNode chat(String message, WorkflowState expectedState) throws InterruptedException {
+        think();
+        JsonNode response = client.post("/api/chat",
+                ChatRequest.builder().sessionId(sessionId).message(message).build());
+        String state = response.path("workflowState").asText();
+        if (!expectedState.name().equals(state)) {
+            throw new UnexpectedResponseException("chat reached " + state + " instead of " + expectedState);
+        }
+        return response;
+    }
+
+    /**
+     * Sends the scripted messages, then says goodbye until the partner ends the session.
+     */
+    private void converse(String partner, List<String> messages, String goodbye, PartnerTurn turn)
+            throws InterruptedException {
+        for (int i = 0; i < chatTurns; i++) {
+            think();
+            if (turn.send(messages.get(i % messages.size())).path("sessionEnded").asBoolean()) {
+                return;
+            }
+        }
+        for (int attempt = 0; attempt < CLOSING_ATTEMPTS; attempt++) {
+            think();
+            if (turn.send(goodbye).path("sessionEnded").asBoolean()) {
+                return;
+            }
+        }
+        throw new UnexpectedResponseException(partner + " session did not end after the user said goodbye");
+    }
+
+    // Exponentially distributed, like the gaps between independent users' messages
+    private void think() throws InterruptedException {
+        long meanNanos = meanThinkTime.toNanos();
+        if (meanNanos > 0) {
+            double uniform = ThreadLocalRandom.current().nextDouble();
+            Thread.sleep(Duration.ofNanos((long) (-meanNanos * Math.log(1 - uniform))));
+        }
+    }
+
+    @FunctionalInterface
+    private interface PartnerTurn {
+
+        JsonNode send(String message) throws InterruptedException;
+    }
+}
@@ -0,0 +1,79 @@
+package com.smartallies.incident.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON calls to the backend, timed per endpoint. Responses are read as trees because several response
+ * DTOs have no constructor Jackson could deserialize them with.
+ */
+final class WorkflowClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, LatencyStats> endpointStats = new ConcurrentHashMap<>();
+    private final URI baseUri;
+    private final Duration requestTimeout;
+
+    WorkflowClient(URI baseUri, Duration requestTimeout) {
+        this.baseUri = baseUri;
+        this.requestTimeout = requestTimeout;
+    }
+
+    JsonNode post(String path, Object body) throws InterruptedException {
+        String endpoint = "POST " + path;
+        LatencyStats stats = endpointStats.computeIfAbsent(endpoint, key -> new LatencyStats());
+        HttpResponse<byte[]> response;
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            stats.recordError();
+            throw new UnexpectedResponseException(endpoint + " failed: " + e.getClass().getSimpleName());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (response.statusCode() >= 400) {
+            stats.recordError();
+            throw new UnexpectedResponseException(endpoint + " returned " + response.statusCode());
+        }
+        stats.record(elapsed);
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new UnexpectedResponseException(endpoint + " returned a body that is not JSON");
+        }
+    }
+
+    Map<String, LatencyStats> endpointStats() {
+        return endpointStats;
+    }
+
+    /**
+     * A response that ends the simulated user's flow. Messages are kept free of per-session values so
+     * the report can group failures by message.
+     */
+    static final class UnexpectedResponseException extends RuntimeException {
+
+        UnexpectedResponseException(String message) {
+            super(message);
+        }
+    }
+}
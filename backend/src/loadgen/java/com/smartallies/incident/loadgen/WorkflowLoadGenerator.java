@@ -0,0 +1,183 @@
+package com.smartallies.incident.loadgen;
+
+import com.smartallies.incident.model.IncidentType;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives simulated users through the whole chat workflow of a running backend over HTTP, each on its own
+ * virtual thread, and prints latency percentiles and throughput per endpoint plus completion per flow.
+ * Meant to run against a backend started with the {@code fake-llm} profile, so the numbers are the
+ * backend's own rather than the model host's:
+ * <pre>
+ * mvn -Ploadgen test-compile exec:exec -Dloadgen.args="--users 5000 --ramp-up 60s"
+ * </pre>
+ * Options: {@code --base-url}, {@code --users}, {@code --concurrency} (users active at once),
+ * {@code --ramp-up}, {@code --think-time} (mean, exponentially distributed), {@code --chat-turns}
+ * (HR and Samaritan messages before saying goodbye), {@code --mix} (human:facility:emergency weights)
+ * and {@code --request-timeout}. Exits with status 1 when any flow failed.
+ */
+public final class WorkflowLoadGenerator {
+
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(10);
+
+    private WorkflowLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        URI baseUri = URI.create(options.getOrDefault("base-url", "http://localhost:8080"));
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(users)));
+        Duration rampUp = parseDuration(options.getOrDefault("ramp-up", "30s"));
+        Duration thinkTime = parseDuration(options.getOrDefault("think-time", "1s"));
+        int chatTurns = Integer.parseInt(options.getOrDefault("chat-turns", "3"));
+        Map<IncidentType, Integer> mix = parseMix(options.getOrDefault("mix", "40:40:20"));
+        Duration requestTimeout = parseDuration(options.getOrDefault("request-timeout", "3m"));
+
+        System.out.printf("%d users against %s, at most %d at once, ramp-up %s, think time %s, mix %s%n",
+                users, baseUri, concurrency, rampUp, thinkTime, mix);
+
+        WorkflowClient client = new WorkflowClient(baseUri, requestTimeout);
+        Map<IncidentType, LatencyStats> flowStats = new EnumMap<>(IncidentType.class);
+        mix.keySet().forEach(type -> flowStats.put(type, new LatencyStats()));
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        Semaphore activeUsers = new Semaphore(concurrency);
+        AtomicInteger finishedUsers = new AtomicInteger();
+        long startInterval = users > 1 ? rampUp.toNanos() / (users - 1) : 0;
+
+        long start = System.nanoTime();
+        Thread progress = Thread.ofVirtual().start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(PROGRESS_INTERVAL);
+                    System.out.printf("  %.0f s: %d of %d users finished, %d active%n",
+                            (System.nanoTime() - start) / 1e9, finishedUsers.get(), users,
+                            concurrency - activeUsers.availablePermits());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                if (i > 0 && startInterval > 0) {
+                    Thread.sleep(Duration.ofNanos(startInterval));
+                }
+                activeUsers.acquire();
+                IncidentType scenario = pickScenario(mix);
+                executor.execute(() -> {
+                    long flowStart = System.nanoTime();
+                    try {
+                        new SimulatedUser(client, thinkTime, chatTurns).run(scenario);
+                        flowStats.get(scenario).record(System.nanoTime() - flowStart);
+                    } catch (RuntimeException e) {
+                        flowStats.get(scenario).recordError();
+                        failures.computeIfAbsent(scenario + ": " + e.getMessage(), key -> new LongAdder()).increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finishedUsers.incrementAndGet();
+                        activeUsers.release();
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        progress.interrupt();
+
+        System.out.printf("%nFinished in %.1f s%n%n", elapsedSeconds);
+        System.out.printf("%-28s %9s %7s %8s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        new TreeMap<>(client.endpointStats()).forEach((endpoint, stats) -> {
+            LatencyStats.Snapshot snapshot = stats.snapshot();
+            System.out.printf("%-28s %9d %7d %8.1f %9.1f %9.1f %9.1f %9.1f%n", endpoint,
+                    snapshot.successes() + snapshot.errors(), snapshot.errors(),
+                    snapshot.successes() / elapsedSeconds, snapshot.percentileMillis(0.50),
+                    snapshot.percentileMillis(0.90), snapshot.percentileMillis(0.99), snapshot.maxMillis());
+        });
+
+        System.out.printf("%n%-28s %9s %7s %8s %9s %9s%n",
+                "flow", "completed", "failed", "flows/s", "p50 s", "p99 s");
+        long failedFlows = 0;
+        for (Map.Entry<IncidentType, LatencyStats> entry : flowStats.entrySet()) {
+            LatencyStats.Snapshot snapshot = entry.getValue().snapshot();
+            failedFlows += snapshot.errors();
+            System.out.printf("%-28s %9d %7d %8.2f %9.1f %9.1f%n", entry.getKey(),
+                    snapshot.successes(), snapshot.errors(), snapshot.successes() / elapsedSeconds,
+                    snapshot.percentileMillis(0.50) / 1000, snapshot.percentileMillis(0.99) / 1000);
+        }
+
+        if (!failures.isEmpty()) {
+            System.out.printf("%nFailures%n");
+            new TreeMap<>(failures).forEach((reason, count) -> System.out.printf("%7d  %s%n", count.sum(), reason));
+        }
+        System.exit(failedFlows > 0 ? 1 : 0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --option value pairs, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+
+    // "500ms", "30s", "2m", or an ISO-8601 duration
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+
+    private static Map<IncidentType, Integer> parseMix(String value) {
+        String[] weights = value.split(":");
+        if (weights.length != 3) {
+            throw new IllegalArgumentException("--mix takes human:facility:emergency weights, got " + value);
+        }
+        Map<IncidentType, Integer> mix = new EnumMap<>(IncidentType.class);
+        mix.put(IncidentType.HUMAN, Integer.parseInt(weights[0]));
+        mix.put(IncidentType.FACILITY, Integer.parseInt(weights[1]));
+        mix.put(IncidentType.EMERGENCY, Integer.parseInt(weights[2]));
+        mix.values().removeIf(weight -> weight <= 0);
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    private static IncidentType pickScenario(Map<IncidentType, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<IncidentType, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+}
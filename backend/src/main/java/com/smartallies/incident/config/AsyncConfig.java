@@ -0,0 +1,20 @@
+package com.smartallies.incident.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Virtual threads: chat tasks spend nearly all their time blocked on Ollama HTTP calls,
+     * and how many of those run at once is bounded by {@code LlmConcurrencyLimiter}, not by this pool.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService chatTaskExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("chat-task-", 0).factory());
+    }
+}
@@ -0,0 +1,25 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Set;
+
+@Getter
+@Configuration
+public class BlobStoreConfig {
+
+    /** Directory of the uploaded blobs, fanned out by the first two hex digits of their hash. */
+    @Value("${blobs.directory:./data/blobs}")
+    private String directory;
+
+    /** Largest blob accepted, also for images still sent inline as data URLs. */
+    @Value("${blobs.max-size:10MB}")
+    private DataSize maxSize;
+
+    /** Content types accepted for upload. */
+    @Value("${blobs.allowed-content-types:image/jpeg,image/png,image/gif,image/webp,image/heic}")
+    private Set<String> allowedContentTypes;
+}
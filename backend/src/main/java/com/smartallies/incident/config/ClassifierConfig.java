@@ -0,0 +1,31 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+@Getter
+@Configuration
+public class ClassifierConfig {
+
+    /** Classify initial messages by embedding similarity first and ask the LLM only when unsure. */
+    @Value("${classifier.embedding.enabled:true}")
+    private boolean embeddingEnabled;
+
+    /** Share of the softmax over centroid similarities the best type needs to skip the LLM. */
+    @Value("${classifier.embedding.min-confidence:0.85}")
+    private double minConfidence;
+
+    /** Share of the softmax EMERGENCY may have before another embedding verdict is checked by the LLM. */
+    @Value("${classifier.embedding.max-emergency-share:0.01}")
+    private double maxEmergencyShare;
+
+    /** Labelled example messages the centroids are built from at startup. */
+    @Value("${classifier.embedding.examples:classpath:classifier/incident-examples.json}")
+    private Resource examples;
+
+    /** Add the initial message of every submitted report to the centroid of its confirmed type; off unless reviewed. */
+    @Value("${classifier.embedding.learn-from-reports:false}")
+    private boolean learnFromReports;
+}
@@ -0,0 +1,69 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+@Getter
+@Configuration
+public class ClusterConfig {
+
+    /** Shards sessions across {@code cluster.nodes}; off runs a single stand-alone node. */
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    /** Base URL under which the other nodes reach this one; must be one of {@code cluster.nodes}. */
+    @Value("${cluster.self:http://localhost:${server.port:8080}}")
+    private String self;
+
+    /** Base URLs of all nodes of the cluster, this one included. */
+    @Value("${cluster.nodes:}")
+    private List<String> nodes;
+
+    /**
+     * Node that stores the reports of the whole cluster and serves the report API; defaults to the first of
+     * {@code cluster.nodes}. Reports cannot be submitted or read while it is down.
+     */
+    @Value("${cluster.report-node:}")
+    private String reportNode;
+
+    /** Points per node on the hash ring; more points spread the sessions more evenly. */
+    @Value("${cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    /** How often each node checks which of the other nodes are up. */
+    @Value("${cluster.probe-interval:2s}")
+    private Duration probeInterval;
+
+    /** Consecutive failed probes after which a node leaves the ring. */
+    @Value("${cluster.failure-threshold:3}")
+    private int failureThreshold;
+
+    /** Longest a forwarded request may take, streamed replies included. */
+    @Value("${cluster.forward-timeout:3m}")
+    private Duration forwardTimeout;
+
+    /** Largest request body read to find the session id; larger requests are handled locally. */
+    @Value("${cluster.max-routed-body:64KB}")
+    private DataSize maxRoutedBody;
+
+    /** Sent with node-to-node calls and required on the internal endpoints; cluster mode does not start without it. */
+    @Value("${cluster.shared-secret:}")
+    private String sharedSecret;
+
+    @Bean
+    @ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+    public HttpClient clusterHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+}
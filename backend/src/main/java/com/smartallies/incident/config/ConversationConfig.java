@@ -0,0 +1,42 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class ConversationConfig {
+
+    /**
+     * PIPELINED runs HR/Samaritan conclusion detection on the history so far while the
+     * partner reply is generated; SERIAL waits for the reply and then judges it.
+     */
+    @Value("${chat.conclusion-detection.mode:PIPELINED}")
+    private ConclusionDetectionMode conclusionDetectionMode;
+
+    /** HR/Samaritan turns kept verbatim after a compaction; older turns are folded into the summary. */
+    @Value("${chat.history.verbatim-turns:8}")
+    private int historyVerbatimTurns;
+
+    /** Verbatim turn count that triggers a background compaction down to {@code historyVerbatimTurns}. */
+    @Value("${chat.history.compaction-threshold-turns:16}")
+    private int historyCompactionThresholdTurns;
+
+    /** Context window of the chat model, in tokens. */
+    @Value("${chat.history.context-window-tokens:4096}")
+    private int contextWindowTokens;
+
+    /** Part of the context window kept free for the model's reply. */
+    @Value("${chat.history.reply-reserve-tokens:512}")
+    private int replyReserveTokens;
+
+    public boolean isPipelinedConclusionDetection() {
+        return conclusionDetectionMode == ConclusionDetectionMode.PIPELINED;
+    }
+
+    public enum ConclusionDetectionMode {
+        SERIAL,
+        PIPELINED
+    }
+}
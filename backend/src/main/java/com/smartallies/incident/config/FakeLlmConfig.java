@@ -0,0 +1,41 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of the stand-in model used by the {@code fake-llm} profile, for load tests without an Ollama host.
+ */
+@Getter
+@Configuration
+@Profile("fake-llm")
+public class FakeLlmConfig {
+
+    /** Median time before the first token, the stand-in for prompt evaluation. */
+    @Value("${fake-llm.first-token-latency.median:400ms}")
+    private Duration firstTokenLatencyMedian;
+
+    /** 99th percentile of the time to first token; with the median it fixes a log-normal distribution. */
+    @Value("${fake-llm.first-token-latency.p99:2s}")
+    private Duration firstTokenLatencyP99;
+
+    /** Generation speed after the first token, at about four characters per token. */
+    @Value("${fake-llm.tokens-per-second:40}")
+    private double tokensPerSecond;
+
+    /** Share of model calls that fail after their time to first token, between 0 and 1. */
+    @Value("${fake-llm.failure-rate:0}")
+    private double failureRate;
+
+    /** Length of the hashed bag-of-words embedding vectors. */
+    @Value("${fake-llm.embedding.dimensions:384}")
+    private int embeddingDimensions;
+
+    /** Time one embedding call takes, whatever the number of texts. */
+    @Value("${fake-llm.embedding.latency:15ms}")
+    private Duration embeddingLatency;
+}
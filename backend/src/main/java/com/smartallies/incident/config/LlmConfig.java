@@ -0,0 +1,51 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Configuration
+public class LlmConfig {
+
+    /** Model calls allowed in flight at once; size this to what the Ollama host can serve in parallel. */
+    @Value("${llm.concurrency.max-in-flight:4}")
+    private int maxInFlightCalls;
+
+    /** How long a call may wait for a free slot before it is rejected. */
+    @Value("${llm.concurrency.queue-timeout:30s}")
+    private Duration queueTimeout;
+
+    /** How long opening a connection to the Ollama generate API may take. */
+    @Value("${llm.http.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    /** Longest silence allowed while waiting for the next part of an Ollama response, model loading included. */
+    @Value("${llm.http.read-timeout:2m}")
+    private Duration readTimeout;
+
+    /**
+     * Session-affine HR/Samaritan replies: continue from the Ollama context of the previous turn
+     * and send only the new message, instead of re-sending the whole conversation.
+     */
+    @Value("${llm.session-cache.enabled:true}")
+    private boolean sessionCacheEnabled;
+
+    /** How long Ollama keeps the model (and its prompt cache) loaded between turns. */
+    @Value("${llm.session-cache.keep-alive:30m}")
+    private String sessionCacheKeepAlive;
+
+    /**
+     * How structured calls constrain the model: SCHEMA sends the JSON schema of the expected record
+     * (Ollama 0.5+), JSON only forces syntactically valid JSON for older servers.
+     */
+    @Value("${llm.structured-output.format:SCHEMA}")
+    private StructuredOutputFormat structuredOutputFormat;
+
+    public enum StructuredOutputFormat {
+        SCHEMA,
+        JSON
+    }
+}
@@ -0,0 +1,28 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Configuration
+public class ReportEventsConfig {
+
+    /** Most recent report events kept for subscribers that resume with a Last-Event-ID. */
+    @Value("${reports.events.replay-buffer:10000}")
+    private int replayBuffer;
+
+    /** A subscription is closed after this long and the client reconnects, resuming where it was. */
+    @Value("${reports.events.subscription-timeout:30m}")
+    private Duration subscriptionTimeout;
+
+    /** Idle subscriptions get a comment this often, so proxies keep them open and dead ones are noticed. */
+    @Value("${reports.events.heartbeat-interval:30s}")
+    private Duration heartbeatInterval;
+
+    /** Events a slow subscriber may fall behind by before it is disconnected to resume later. */
+    @Value("${reports.events.max-pending-per-subscriber:256}")
+    private int maxPendingPerSubscriber;
+}
@@ -0,0 +1,22 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Configuration
+public class ReportStoreConfig {
+
+    /** Directory of the report log segments and snapshot. */
+    @Value("${reports.store.directory:./data/reports}")
+    private String directory;
+
+    /** Records appended after which the log is compacted into a new snapshot. */
+    @Value("${reports.store.snapshot-every-records:100000}")
+    private int snapshotEveryRecords;
+
+    /** Most writes made durable by a single fsync. */
+    @Value("${reports.store.max-commit-batch:1024}")
+    private int maxCommitBatch;
+}
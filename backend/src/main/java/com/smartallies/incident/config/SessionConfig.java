@@ -0,0 +1,41 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Configuration
+public class SessionConfig {
+
+    /** Sessions untouched for this long are evicted, unless they are an active emergency. */
+    @Value("${session.idle-ttl:30m}")
+    private Duration idleTtl;
+
+    /** Active emergencies are kept past the idle TTL only until they are this old, so abandoned ones still go. */
+    @Value("${session.emergency-max-age:24h}")
+    private Duration emergencyMaxAge;
+
+    /** Slots of the expiry timer wheel; the wheel turns once per idle TTL. */
+    @Value("${session.wheel-slots:60}")
+    private int wheelSlots;
+
+    /** Upper bound on live sessions; beyond it the least valuable sessions are evicted first. */
+    @Value("${session.max-sessions:10000}")
+    private int maxSessions;
+
+    /** Upper bound on the estimated heap held by all sessions together. */
+    @Value("${session.max-memory:256MB}")
+    private DataSize maxMemory;
+
+    /** Longest a turn waits for the previous turn of the same session before it is rejected. */
+    @Value("${session.turn-lock-timeout:60s}")
+    private Duration turnLockTimeout;
+
+    /** Live sessions are written here on shutdown and restored on startup; empty disables it. */
+    @Value("${session.snapshot-file:./data/sessions.snapshot}")
+    private String snapshotFile;
+}
@@ -0,0 +1,58 @@
+package com.smartallies.incident.config;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.LlmOutputs;
+import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.repository.ReportRepository;
+import com.smartallies.incident.service.ChatOrchestrationService;
+import com.smartallies.incident.service.ClusterMembership;
+import com.smartallies.incident.service.SessionRegistry;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Startup of the {@code prod} profile, which turns on {@code spring.main.lazy-initialization} and is built
+ * ahead of time with {@code mvn -Pprod package}.
+ */
+@Configuration
+@ImportRuntimeHints(StartupConfig.LlmRuntimeHints.class)
+public class StartupConfig {
+
+    /**
+     * Beans still created at startup under lazy initialization: the report store replays its log, the session
+     * registry starts expiring sessions, cluster membership starts probing, and the chat path brings up the
+     * Ollama clients so the first turn does not pay for them.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                ReportRepository.class,
+                SessionRegistry.class,
+                ClusterMembership.class,
+                ChatOrchestrationService.class);
+    }
+
+    /**
+     * Types only reached by reflection: structured outputs are mapped by Jackson and turned into JSON
+     * schemas by Spring AI's {@code BeanOutputConverter}, and reports are read back from the store's log.
+     */
+    static class LlmRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> output : LlmOutputs.class.getDeclaredClasses()) {
+                hints.reflection().registerType(output, MemberCategory.values());
+            }
+            hints.reflection().registerType(IncidentReport.class, MemberCategory.values());
+            hints.reflection().registerType(IncidentType.class, MemberCategory.values());
+            hints.reflection().registerType(ReportStatus.class, MemberCategory.values());
+            hints.resources().registerPattern("classifier/*.json");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartallies.incident.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Configuration
+public class TracingConfig {
+
+    /** File the finished spans are appended to, one JSON object per line. */
+    @Value("${tracing.export.file:./data/traces/spans.ndjson}")
+    private String file;
+
+    /** Size past which the span file is rolled over to {@code <file>.1}, replacing the previous one. */
+    @Value("${tracing.export.max-file-size:64MB}")
+    private DataSize maxFileSize;
+}
@@ -0,0 +1,63 @@
+package com.smartallies.incident.controller;
+
+import com.smartallies.incident.service.BlobStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class BlobController {
+
+    // A blob's content never changes under its hash
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final BlobStore blobStore;
+
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, String>> upload(@RequestParam("file") MultipartFile file) {
+        log.info("Received upload of {} bytes ({})", file.getSize(), file.getContentType());
+
+        try (InputStream content = file.getInputStream()) {
+            BlobStore.Blob blob = blobStore.store(content, file.getContentType());
+            return ResponseEntity.ok(Map.of(
+                    "id", blob.id(),
+                    "url", BlobStore.referenceOf(blob.id())
+            ));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected upload: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Error reading upload", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Serves a blob. Range requests and If-None-Match are answered by Spring MVC
+     * from the resource body and the ETag.
+     */
+    @GetMapping("/blobs/{id}")
+    public ResponseEntity<Resource> getBlob(@PathVariable String id) {
+        return blobStore.find(id)
+                .map(blob -> ResponseEntity.ok()
+                        .eTag(blob.id())
+                        .cacheControl(IMMUTABLE)
+                        .contentType(MediaType.parseMediaType(blob.contentType()))
+                        .body((Resource) new FileSystemResource(blob.path())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
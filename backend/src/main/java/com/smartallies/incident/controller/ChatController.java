@@ -3,11 +3,17 @@ package com.smartallies.incident.controller;
 import com.smartallies.incident.dto.ChatRequest;
 import com.smartallies.incident.dto.ChatResponse;
 import com.smartallies.incident.service.ChatOrchestrationService;
+import com.smartallies.incident.service.ChatStreamService;
+import com.smartallies.incident.service.LlmCapacityExceededException;
+import com.smartallies.incident.service.SessionBusyException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -16,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 public class ChatController {
 
     private final ChatOrchestrationService orchestrationService;
+    private final ChatStreamService chatStreamService;
 
     @PostMapping("/chat")
     public ResponseEntity<ChatResponse> chat(@Valid @RequestBody ChatRequest request) {
@@ -24,6 +31,18 @@ public class ChatController {
         try {
             ChatResponse response = orchestrationService.processMessage(request);
             return ResponseEntity.ok(response);
+        } catch (LlmCapacityExceededException e) {
+            log.warn("LLM capacity exhausted for session: {}", request.getSessionId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ChatResponse.builder()
+                            .message("We're experiencing high demand right now. Please try again in a moment.")
+                            .build());
+        } catch (SessionBusyException e) {
+            log.warn("Previous turn still running for session: {}", request.getSessionId());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ChatResponse.builder()
+                            .message(e.getMessage())
+                            .build());
         } catch (Exception e) {
             log.error("Error processing chat request", e);
             return ResponseEntity.internalServerError()
@@ -33,6 +52,14 @@ public class ChatController {
         }
     }
 
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@Valid @RequestBody ChatRequest request) {
+        log.info("Received streaming chat request from session: {}", request.getSessionId());
+
+        return chatStreamService.stream(request.getSessionId(),
+                tokenSink -> orchestrationService.processMessage(request, tokenSink));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Incident Reporting Backend is running");
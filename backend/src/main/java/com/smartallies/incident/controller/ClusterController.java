@@ -0,0 +1,64 @@
+package com.smartallies.incident.controller;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.service.ClusterMembership;
+import com.smartallies.incident.service.IncidentReportService;
+import com.smartallies.incident.service.SessionHandoff;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Node-to-node endpoints of cluster mode. Pushing a session or a report requires {@code cluster.shared-secret}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/cluster")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private final ClusterMembership membership;
+    private final SessionHandoff sessionHandoff;
+    private final IncidentReportService reportService;
+
+    @PostMapping("/sessions")
+    public ResponseEntity<Map<String, Boolean>> receiveSession(
+            @RequestHeader(value = SessionHandoff.SECRET_HEADER, required = false) String secret,
+            @RequestBody SessionSnapshot snapshot) {
+        if (!sessionHandoff.isTrusted(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        log.info("Receiving session {} from another node", snapshot.sessionId());
+
+        return ResponseEntity.ok(Map.of("adopted", sessionHandoff.accept(snapshot)));
+    }
+
+    @PostMapping("/reports")
+    public ResponseEntity<Void> receiveReport(
+            @RequestHeader(value = SessionHandoff.SECRET_HEADER, required = false) String secret,
+            @RequestBody IncidentReport report) {
+        if (!sessionHandoff.isTrusted(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!membership.isSelf(membership.reportNode())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        log.info("Storing report {} submitted on another node", report.getReportId());
+
+        reportService.storeSubmittedReport(report);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/ring")
+    public ResponseEntity<Map<String, List<String>>> ring() {
+        return ResponseEntity.ok(Map.of("nodes", membership.ring().nodes()));
+    }
+}
@@ -0,0 +1,364 @@
+package com.smartallies.incident.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.smartallies.incident.config.ClusterConfig;
+import com.smartallies.incident.service.BlobStore;
+import com.smartallies.incident.service.ClusterMembership;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends every session-bound API request to the node that owns the session on the hash ring.
+ *
+ * <p>The session id comes from the {@code X-Session-Id} header or else from the {@code sessionId}
+ * field of a JSON body. A request for another node's session is replayed there over HTTP and its
+ * response, streamed replies included, is copied back. Requests without a session id, requests that
+ * were already forwarded once and requests whose owner cannot be reached are handled locally.
+ *
+ * <p>The report API other than submitting is served by {@code cluster.report-node}, and fails with 503
+ * while it is down. Images stay on the node that stored them: a blob this node does not have is asked
+ * for on the other nodes of the ring.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterRoutingFilter extends OncePerRequestFilter {
+
+    static final String SESSION_HEADER = "X-Session-Id";
+    static final String FORWARDED_HEADER = "X-Cluster-Forwarded-By";
+
+    private static final String REPORTS_PATH = "/api/reports";
+    private static final String BLOBS_PATH = "/api/blobs/";
+    // Report endpoints that work on a session, routed to its owner like the chat endpoints
+    private static final Set<String> SESSION_REPORT_PATHS = Set.of("/api/reports/submit", "/api/reports/facility-details");
+
+    // Managed by the HTTP client or meaningless on another hop
+    private static final Set<String> HOP_BY_HOP_HEADERS = caseInsensitive(
+            "connection", "content-length", "expect", "host", "keep-alive", "proxy-connection",
+            "te", "trailer", "transfer-encoding", "upgrade");
+
+    private final ClusterConfig clusterConfig;
+    private final ClusterMembership membership;
+    private final BlobStore blobStore;
+    private final HttpClient clusterHttpClient;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Timer forwardedRequests;
+    private final Counter failedForwards;
+
+    public ClusterRoutingFilter(
+            ClusterConfig clusterConfig,
+            ClusterMembership membership,
+            BlobStore blobStore,
+            HttpClient clusterHttpClient,
+            MeterRegistry meterRegistry) {
+        this.clusterConfig = clusterConfig;
+        this.membership = membership;
+        this.blobStore = blobStore;
+        this.clusterHttpClient = clusterHttpClient;
+        this.forwardedRequests = Timer.builder("cluster.forward")
+                .description("Requests replayed on the node owning their session, report or blob, until the response is copied back")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.failedForwards = Counter.builder("cluster.forward.failures")
+                .description("Requests handled locally or refused because the node owning them could not be reached")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || request.getHeader(FORWARDED_HEADER) != null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        if (path.startsWith(BLOBS_PATH) && "GET".equals(request.getMethod())) {
+            routeBlobRead(path.substring(BLOBS_PATH.length()), request, response, chain);
+        } else if ((path.equals(REPORTS_PATH) || path.startsWith(REPORTS_PATH + "/"))
+                && !SESSION_REPORT_PATHS.contains(path)) {
+            routeToReportNode(request, response, chain);
+        } else {
+            routeBySession(request, response, chain);
+        }
+    }
+
+    private void routeBySession(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = readRoutableBody(request);
+        HttpServletRequest local = body == null ? request : new BufferedBodyRequest(request, body);
+
+        String sessionId = request.getHeader(SESSION_HEADER);
+        if (sessionId == null && body != null) {
+            sessionId = sessionIdFromJson(body);
+        }
+        boolean bodyLeftUnread = body == null
+                && (request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null);
+        String owner = sessionId == null ? null : membership.ownerOf(sessionId);
+        if (owner == null || membership.isSelf(owner) || bodyLeftUnread) {
+            chain.doFilter(local, response);
+            return;
+        }
+
+        long forwardStart = System.nanoTime();
+        HttpResponse<InputStream> forwarded;
+        try {
+            forwarded = send(forwardRequest(request, bodyOf(body), owner), owner);
+        } catch (IOException e) {
+            failedForwards.increment();
+            log.warn("Could not forward session {} to {}, handling it here: {}", sessionId, owner, e.getMessage());
+            chain.doFilter(local, response);
+            return;
+        }
+
+        log.debug("Forwarded {} {} for session {} to {}", request.getMethod(), request.getRequestURI(), sessionId, owner);
+        copyResponse(forwarded, response);
+        forwardedRequests.record(System.nanoTime() - forwardStart, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reports live only on the report node, so another node answering from its own store would be wrong.
+     */
+    private void routeToReportNode(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String reportNode = membership.reportNode();
+        if (membership.isSelf(reportNode)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long forwardStart = System.nanoTime();
+        HttpResponse<InputStream> forwarded;
+        try {
+            forwarded = send(forwardRequest(request, streamedBodyOf(request), reportNode), reportNode);
+        } catch (IOException e) {
+            failedForwards.increment();
+            log.warn("Could not forward {} {} to report node {}: {}",
+                    request.getMethod(), request.getRequestURI(), reportNode, e.getMessage());
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Report node is not reachable");
+            return;
+        }
+
+        copyResponse(forwarded, response);
+        forwardedRequests.record(System.nanoTime() - forwardStart, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A blob is immutable under its hash, so any node that has it can serve it.
+     */
+    private void routeBlobRead(String blobId, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (blobStore.find(blobId).isPresent()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        for (String node : membership.ring().nodes()) {
+            if (membership.isSelf(node)) {
+                continue;
+            }
+            long forwardStart = System.nanoTime();
+            HttpResponse<InputStream> forwarded;
+            try {
+                forwarded = send(forwardRequest(request, HttpRequest.BodyPublishers.noBody(), node), node);
+            } catch (IOException e) {
+                failedForwards.increment();
+                log.debug("Could not ask {} for blob {}: {}", node, blobId, e.getMessage());
+                continue;
+            }
+            if (forwarded.statusCode() == HttpServletResponse.SC_NOT_FOUND) {
+                forwarded.body().close();
+                continue;
+            }
+            copyResponse(forwarded, response);
+            forwardedRequests.record(System.nanoTime() - forwardStart, TimeUnit.NANOSECONDS);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest forward, String node) throws ServletException, IOException {
+        try {
+            return clusterHttpClient.send(forward, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while forwarding to " + node, e);
+        }
+    }
+
+    /**
+     * @return the JSON body when it is small enough to route on, otherwise null and the body is left unread
+     */
+    private byte[] readRoutableBody(HttpServletRequest request) throws IOException {
+        long length = request.getContentLengthLong();
+        if (length <= 0 || length > clusterConfig.getMaxRoutedBody().toBytes()
+                || request.getContentType() == null
+                || !MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON)) {
+            return null;
+        }
+        return request.getInputStream().readNBytes((int) length);
+    }
+
+    private String sessionIdFromJson(byte[] body) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("sessionId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            log.debug("Request body is not a JSON object, handling it locally");
+        }
+        return null;
+    }
+
+    private static HttpRequest.BodyPublisher bodyOf(byte[] body) {
+        return body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body);
+    }
+
+    // Report imports are NDJSON of any size, so the body is passed on as it arrives
+    private static HttpRequest.BodyPublisher streamedBodyOf(HttpServletRequest request) {
+        if (request.getContentLengthLong() <= 0 && request.getHeader("Transfer-Encoding") == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        return HttpRequest.BodyPublishers.ofInputStream(() -> {
+            try {
+                return request.getInputStream();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private HttpRequest forwardRequest(HttpServletRequest request, HttpRequest.BodyPublisher body, String owner) {
+        String query = request.getQueryString();
+        HttpRequest.Builder forward = HttpRequest.newBuilder(
+                        URI.create(owner + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .timeout(clusterConfig.getForwardTimeout())
+                .method(request.getMethod(), body);
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    forward.header(name, value);
+                }
+            }
+        }
+        return forward.header(FORWARDED_HEADER, clusterConfig.getSelf()).build();
+    }
+
+    // Flushes after every read, so server-sent events reach the client as the owner sends them
+    private void copyResponse(HttpResponse<InputStream> forwarded, HttpServletResponse response) throws IOException {
+        response.setStatus(forwarded.statusCode());
+        forwarded.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+
+        try (InputStream in = forwarded.body()) {
+            OutputStream out = response.getOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        }
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(List.of(names));
+        return set;
+    }
+
+    /**
+     * Replays a body the filter already read to the rest of the chain.
+     */
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Buffered request bodies are read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
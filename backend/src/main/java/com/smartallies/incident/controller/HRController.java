@@ -4,12 +4,15 @@ import com.smartallies.incident.dto.ConnectHRRequest;
 import com.smartallies.incident.dto.ConnectHRResponse;
 import com.smartallies.incident.dto.HRChatRequest;
 import com.smartallies.incident.dto.HRChatResponse;
+import com.smartallies.incident.service.ChatStreamService;
 import com.smartallies.incident.service.HRPartnerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 public class HRController {
 
     private final HRPartnerService hrPartnerService;
+    private final ChatStreamService chatStreamService;
 
     @PostMapping("/connect")
     public ResponseEntity<ConnectHRResponse> connectToHR(
@@ -39,4 +43,17 @@ public class HRController {
         );
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatWithHRStream(
+            @Valid @RequestBody HRChatRequest request) {
+        log.info("Streaming HR chat message for session: {}", request.getSessionId());
+
+        return chatStreamService.stream(request.getSessionId(),
+                tokenSink -> hrPartnerService.sendMessageToHR(
+                        request.getSessionId(),
+                        request.getMessage(),
+                        tokenSink
+                ));
+    }
 }
@@ -3,14 +3,29 @@ package com.smartallies.incident.controller;
 import com.smartallies.incident.dto.IncidentReportResponse;
 import com.smartallies.incident.dto.FacilityDetailsRequest;
 import com.smartallies.incident.dto.FacilityDetailsResponse;
+import com.smartallies.incident.dto.ReportImportResponse;
+import com.smartallies.incident.dto.ReportPageResponse;
 import com.smartallies.incident.dto.SubmitReportRequest;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportQuery;
 import com.smartallies.incident.model.ReportStatus;
 import com.smartallies.incident.service.IncidentReportService;
+import com.smartallies.incident.service.ReportEventBroadcaster;
+import com.smartallies.incident.service.ReportTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Slf4j
 @RestController
@@ -19,6 +34,8 @@ import org.springframework.web.bind.annotation.*;
 public class ReportController {
 
     private final IncidentReportService reportService;
+    private final ReportEventBroadcaster reportEventBroadcaster;
+    private final ReportTransferService reportTransferService;
 
     @PostMapping("/submit")
     public ResponseEntity<IncidentReportResponse> submitReport(
@@ -29,6 +46,57 @@ public class ReportController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping
+    public ResponseEntity<ReportPageResponse> listReports(
+            @RequestParam(required = false) ReportStatus status,
+            @RequestParam(required = false) IncidentType incidentType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedTo,
+            @RequestParam(required = false) Boolean anonymous,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        ReportQuery query = new ReportQuery(status, incidentType, submittedFrom, submittedTo, anonymous, cursor, limit);
+        try {
+            return ResponseEntity.ok(reportService.listReports(query));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected report listing: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Streams every matching report as NDJSON, newest first, without holding them in memory.
+     */
+    @GetMapping("/export")
+    public void exportReports(
+            @RequestParam(required = false) ReportStatus status,
+            @RequestParam(required = false) IncidentType incidentType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime submittedTo,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports.ndjson\"");
+        reportTransferService.exportReports(status, incidentType, submittedFrom, submittedTo, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ReportImportResponse> importReports(HttpServletRequest request) throws IOException {
+        log.info("Importing reports");
+        return ResponseEntity.ok(reportTransferService.importReports(request.getInputStream()));
+    }
+
+    /**
+     * Server-sent "submitted" and "status" events for one report, or for all reports without a
+     * reportId. Browsers resume with the Last-Event-ID header when they reconnect.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents(
+            @RequestParam(required = false) String reportId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return reportEventBroadcaster.subscribe(reportId, lastEventId);
+    }
+
     @GetMapping("/{reportId}")
     public ResponseEntity<IncidentReportResponse> getReport(@PathVariable String reportId) {
         log.info("Retrieving report: {}", reportId);
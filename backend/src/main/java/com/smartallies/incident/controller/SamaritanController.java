@@ -4,12 +4,15 @@ import com.smartallies.incident.dto.ConnectSamaritanRequest;
 import com.smartallies.incident.dto.ConnectSamaritanResponse;
 import com.smartallies.incident.dto.SamaritanChatRequest;
 import com.smartallies.incident.dto.SamaritanChatResponse;
+import com.smartallies.incident.service.ChatStreamService;
 import com.smartallies.incident.service.SamaritanService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -18,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 public class SamaritanController {
 
     private final SamaritanService samaritanService;
+    private final ChatStreamService chatStreamService;
 
     @PostMapping("/connect")
     public ResponseEntity<ConnectSamaritanResponse> connectToSamaritan(
@@ -39,4 +43,17 @@ public class SamaritanController {
         );
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatWithSamaritanStream(
+            @Valid @RequestBody SamaritanChatRequest request) {
+        log.info("Streaming Samaritan chat message for session: {}", request.getSessionId());
+
+        return chatStreamService.stream(request.getSessionId(),
+                tokenSink -> samaritanService.sendMessageToSamaritan(
+                        request.getSessionId(),
+                        request.getMessage(),
+                        tokenSink
+                ));
+    }
 }
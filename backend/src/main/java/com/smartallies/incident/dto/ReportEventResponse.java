@@ -0,0 +1,23 @@
+package com.smartallies.incident.dto;
+
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportEventResponse {
+
+    private String reportId;
+    private IncidentType incidentType;
+    private ReportStatus status;
+    private ReportStatus previousStatus;
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,19 @@
+package com.smartallies.incident.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportImportResponse {
+
+    private long imported;
+    private long rejected;
+    private List<String> errors;
+}
@@ -0,0 +1,18 @@
+package com.smartallies.incident.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportPageResponse {
+
+    private List<IncidentReportResponse> reports;
+    private String nextCursor;
+}
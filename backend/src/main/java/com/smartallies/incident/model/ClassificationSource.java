@@ -0,0 +1,7 @@
+package com.smartallies.incident.model;
+
+public enum ClassificationSource {
+    TRIAGE,
+    EMBEDDING,
+    LLM
+}
@@ -0,0 +1,8 @@
+package com.smartallies.incident.model;
+
+import com.smartallies.incident.util.ConsistentHashRing;
+
+/**
+ * Published when a node joins or leaves the cluster, so sessions can move to their new owners.
+ */
+public record ClusterRingChangedEvent(ConsistentHashRing previous, ConsistentHashRing current) {}
@@ -0,0 +1,221 @@
+package com.smartallies.incident.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Fields collected for an incident. The keys the workflow knows sit in one array slot per
+ * {@link Field}; any other key goes to an overflow map created on first use. Most sessions only
+ * have known keys, so they cost one small array instead of a hash table with an entry per field.
+ *
+ * <p>Iteration follows the {@link Field} order, then the overflow keys. A null value removes the key.
+ * Like {@link HashMap}, this class is not thread-safe; session locks serialize its writers. Only
+ * {@link #textLength()} may be read while a writer is busy.
+ */
+public final class CollectedFields extends AbstractMap<String, String> {
+
+    public enum Field {
+        WHAT("what"),
+        WHEN("when"),
+        WHERE("where"),
+        WHO("who"),
+        LOCATION("location"),
+        PERSON_NAME("personName"),
+        CONDITION("condition"),
+        SUMMARY("summary"),
+        TICKET_ID("ticketId"),
+        FACILITY_FLOOR("facility_floor"),
+        FACILITY_ADDITIONAL_DETAILS("facility_additional_details"),
+        FACILITY_ADDITIONAL_IMAGE("facility_additional_image");
+
+        private static final Map<String, Field> BY_KEY = new HashMap<>();
+
+        static {
+            for (Field field : values()) {
+                BY_KEY.put(field.key, field);
+            }
+        }
+
+        private final String key;
+
+        Field(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        static Field forKey(Object key) {
+            return BY_KEY.get(key);
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private final String[] slots = new String[FIELDS.length];
+    private Map<String, String> overflow;
+    private int filledSlots;
+    private volatile int textLength;
+
+    @Override
+    public String get(Object key) {
+        Field field = Field.forKey(key);
+        if (field != null) {
+            return slots[field.ordinal()];
+        }
+        return overflow == null ? null : overflow.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        if (value == null) {
+            return remove(key);
+        }
+        Field field = Field.forKey(key);
+        String previous;
+        if (field != null) {
+            previous = slots[field.ordinal()];
+            slots[field.ordinal()] = value;
+            if (previous == null) {
+                filledSlots++;
+            }
+        } else {
+            if (overflow == null) {
+                overflow = new HashMap<>(4);
+            }
+            previous = overflow.put(key, value);
+        }
+        textLength += entryLength(key, value) - entryLength(key, previous);
+        return previous;
+    }
+
+    @Override
+    public String remove(Object key) {
+        Field field = Field.forKey(key);
+        String previous;
+        if (field != null) {
+            previous = slots[field.ordinal()];
+            slots[field.ordinal()] = null;
+            if (previous != null) {
+                filledSlots--;
+            }
+        } else {
+            previous = overflow == null ? null : overflow.remove(key);
+        }
+        if (previous != null) {
+            textLength -= entryLength((String) key, previous);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, null);
+        filledSlots = 0;
+        overflow = null;
+        textLength = 0;
+    }
+
+    /**
+     * Characters of all keys and values, kept up to date by every write, so the session registry can
+     * estimate a session's size without iterating the fields under a concurrent writer.
+     */
+    public int textLength() {
+        return textLength;
+    }
+
+    @Override
+    public int size() {
+        return filledSlots + (overflow == null ? 0 : overflow.size());
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CollectedFields.this.size();
+            }
+        };
+    }
+
+    private static int entryLength(String key, String value) {
+        return value == null ? 0 : key.length() + value.length();
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private int nextSlot = nextFilledSlot(0);
+        private Iterator<Entry<String, String>> overflowEntries;
+        private String lastSlotKey;
+        private Entry<String, String> lastOverflowEntry;
+
+        @Override
+        public boolean hasNext() {
+            if (nextSlot < slots.length) {
+                return true;
+            }
+            if (overflowEntries == null && overflow != null) {
+                overflowEntries = overflow.entrySet().iterator();
+            }
+            return overflowEntries != null && overflowEntries.hasNext();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (nextSlot < slots.length) {
+                Field field = FIELDS[nextSlot];
+                Entry<String, String> entry = new SimpleImmutableEntry<>(field.key(), slots[nextSlot]);
+                lastSlotKey = field.key();
+                nextSlot = nextFilledSlot(nextSlot + 1);
+                return entry;
+            }
+            lastSlotKey = null;
+            lastOverflowEntry = overflowEntries.next();
+            return lastOverflowEntry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastSlotKey != null) {
+                CollectedFields.this.remove(lastSlotKey);
+                lastSlotKey = null;
+            } else if (lastOverflowEntry != null) {
+                textLength -= entryLength(lastOverflowEntry.getKey(), lastOverflowEntry.getValue());
+                overflowEntries.remove();
+                lastOverflowEntry = null;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+
+        private int nextFilledSlot(int from) {
+            int slot = from;
+            while (slot < slots.length && slots[slot] == null) {
+                slot++;
+            }
+            return slot;
+        }
+    }
+}
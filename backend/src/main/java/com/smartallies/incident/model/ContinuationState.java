@@ -0,0 +1,24 @@
+package com.smartallies.incident.model;
+
+import com.smartallies.incident.util.TokenEstimator;
+
+import java.util.List;
+
+/**
+ * Ollama context of the last HR/Samaritan reply of a session, which the next turn continues from.
+ *
+ * @param coveredTurns number of conversation turns the context already contains
+ * @param lastReply    raw reply of the last turn, to detect replies that were trimmed afterwards
+ */
+public record ContinuationState(List<Integer> context, int coveredTurns, String lastReply) {
+
+    /**
+     * @param promptTokenBudget tokens the context and the new message may take together, the window minus the reply reserve
+     */
+    public boolean continues(List<ConversationTurn> earlierTurns, String userMessage, int promptTokenBudget) {
+        return context.size() + TokenEstimator.estimateTokens(userMessage) <= promptTokenBudget
+                && earlierTurns.size() == coveredTurns
+                && !earlierTurns.isEmpty()
+                && earlierTurns.get(earlierTurns.size() - 1).text().equals(lastReply);
+    }
+}
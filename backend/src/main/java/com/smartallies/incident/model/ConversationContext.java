@@ -5,10 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,20 +17,22 @@ public class ConversationContext {
     private String initialMessage;
     private String imageUrl;
     private Double classificationConfidence;
+    private ClassificationSource classificationSource;
     private boolean hrDecisionMade;
     
     @Builder.Default
-    private Map<String, String> collectedFields = new HashMap<>();
+    private CollectedFields collectedFields = new CollectedFields();
     
+    // Epoch millis: a LocalDateTime costs three objects per timestamp
     @Builder.Default
-    private LocalDateTime createdAt = LocalDateTime.now();
+    private long createdAtMillis = System.currentTimeMillis();
     
     @Builder.Default
-    private LocalDateTime updatedAt = LocalDateTime.now();
+    private long updatedAtMillis = System.currentTimeMillis();
     
     public void updateField(String fieldName, String value) {
         collectedFields.put(fieldName, value);
-        updatedAt = LocalDateTime.now();
+        updatedAtMillis = System.currentTimeMillis();
     }
     
     public String getField(String fieldName) {
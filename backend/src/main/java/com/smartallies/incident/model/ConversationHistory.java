@@ -0,0 +1,116 @@
+package com.smartallies.incident.model;
+
+import com.smartallies.incident.util.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * HR/Samaritan conversation of one session: the most recent turns verbatim, each with
+ * its token estimate, and a running summary of the older turns that were compacted away.
+ * All methods are synchronized because compaction runs in the background.
+ */
+public class ConversationHistory {
+
+    private final List<StoredTurn> verbatimTurns = new ArrayList<>();
+    private String summary = "";
+    private int summarizedTurnCount;
+    private boolean compactionRunning;
+
+    public synchronized void addTurn(ConversationTurn turn) {
+        verbatimTurns.add(new StoredTurn(turn, TokenEstimator.estimateTokens(turn.text())));
+    }
+
+    /**
+     * @return number of turns in the whole conversation, including the summarized ones
+     */
+    public synchronized int totalTurnCount() {
+        return summarizedTurnCount + verbatimTurns.size();
+    }
+
+    public synchronized String getSummary() {
+        return summary;
+    }
+
+    public synchronized List<ConversationTurn> recentTurns(int maxTurns) {
+        return verbatimTurns.subList(Math.max(0, verbatimTurns.size() - maxTurns), verbatimTurns.size())
+                .stream()
+                .map(StoredTurn::turn)
+                .toList();
+    }
+
+    /**
+     * @return the newest turns whose combined token estimate fits the budget, oldest first
+     */
+    public synchronized List<ConversationTurn> recentTurnsWithinBudget(int tokenBudget) {
+        int usedTokens = 0;
+        int firstIncluded = verbatimTurns.size();
+        while (firstIncluded > 0) {
+            int turnTokens = verbatimTurns.get(firstIncluded - 1).tokens();
+            if (usedTokens + turnTokens > tokenBudget) {
+                break;
+            }
+            usedTokens += turnTokens;
+            firstIncluded--;
+        }
+        return verbatimTurns.subList(firstIncluded, verbatimTurns.size()).stream()
+                .map(StoredTurn::turn)
+                .toList();
+    }
+
+    public synchronized int estimatedTokens() {
+        return TokenEstimator.estimateTokens(summary)
+                + verbatimTurns.stream().mapToInt(StoredTurn::tokens).sum();
+    }
+
+    /**
+     * Claims the turns to fold into the summary, leaving the newest {@code keepVerbatimTurns} untouched.
+     *
+     * @return the turns to summarize, or empty when compaction is running or not needed
+     */
+    public synchronized Optional<List<ConversationTurn>> startCompaction(int keepVerbatimTurns, int thresholdTurns) {
+        if (compactionRunning || verbatimTurns.size() <= thresholdTurns) {
+            return Optional.empty();
+        }
+        compactionRunning = true;
+        return Optional.of(verbatimTurns.subList(0, verbatimTurns.size() - keepVerbatimTurns).stream()
+                .map(StoredTurn::turn)
+                .toList());
+    }
+
+    /**
+     * Replaces the oldest {@code foldedTurnCount} turns with the updated summary. Turns are only ever
+     * appended at the end, so the claimed turns are still the oldest ones.
+     */
+    public synchronized void completeCompaction(String updatedSummary, int foldedTurnCount) {
+        verbatimTurns.subList(0, foldedTurnCount).clear();
+        summary = updatedSummary;
+        summarizedTurnCount += foldedTurnCount;
+        compactionRunning = false;
+    }
+
+    public synchronized void abortCompaction() {
+        compactionRunning = false;
+    }
+
+    /**
+     * Copy of the history for handing the session to another node. A compaction still running
+     * is left out; its turns are still verbatim in the copy.
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(summary, summarizedTurnCount, verbatimTurns.stream().map(StoredTurn::turn).toList());
+    }
+
+    public static ConversationHistory restore(Snapshot snapshot) {
+        ConversationHistory history = new ConversationHistory();
+        history.summary = snapshot.summary();
+        history.summarizedTurnCount = snapshot.summarizedTurnCount();
+        snapshot.turns().forEach(history::addTurn);
+        return history;
+    }
+
+    public record Snapshot(String summary, int summarizedTurnCount, List<ConversationTurn> turns) {}
+
+    private record StoredTurn(ConversationTurn turn, int tokens) {}
+}
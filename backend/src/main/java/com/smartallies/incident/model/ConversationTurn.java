@@ -0,0 +1,17 @@
+package com.smartallies.incident.model;
+
+public record ConversationTurn(Speaker speaker, String text) {
+
+    public enum Speaker {
+        USER,
+        PARTNER
+    }
+
+    public static ConversationTurn fromUser(String text) {
+        return new ConversationTurn(Speaker.USER, text);
+    }
+
+    public static ConversationTurn fromPartner(String text) {
+        return new ConversationTurn(Speaker.PARTNER, text);
+    }
+}
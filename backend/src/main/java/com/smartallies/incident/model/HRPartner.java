@@ -0,0 +1,28 @@
+package com.smartallies.incident.model;
+
+/**
+ * The HR partners a user can be connected to. Sessions reference a constant instead of copying
+ * the name and image URL.
+ */
+public enum HRPartner {
+    SARAH_MITCHELL("Sarah Mitchell", "https://i.pravatar.cc/150?img=1"),
+    MICHAEL_CHEN("Michael Chen", "https://i.pravatar.cc/150?img=12"),
+    EMILY_RODRIGUEZ("Emily Rodriguez", "https://i.pravatar.cc/150?img=5"),
+    DAVID_KIM("David Kim", "https://i.pravatar.cc/150?img=8");
+
+    private final String displayName;
+    private final String image;
+
+    HRPartner(String displayName, String image) {
+        this.displayName = displayName;
+        this.image = image;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public String image() {
+        return image;
+    }
+}
@@ -1,12 +1,11 @@
 package com.smartallies.incident.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,11 +13,24 @@ import java.time.LocalDateTime;
 public class HRSession {
     
     private String sessionId;
-    private String hrPartnerName;
-    private String hrPartnerImage;
-    private String hrPartnerId;
+    private HRPartner partner;
     private boolean isActive;
-    private LocalDateTime startedAt;
-    private LocalDateTime endedAt;
+    private long startedAtMillis;
+    private long endedAtMillis;
     private String ticketId;
+
+    @JsonIgnore
+    public String getHrPartnerName() {
+        return partner == null ? null : partner.displayName();
+    }
+
+    @JsonIgnore
+    public String getHrPartnerImage() {
+        return partner == null ? null : partner.image();
+    }
+
+    @JsonIgnore
+    public String getHrPartnerId() {
+        return partner == null ? null : partner.name();
+    }
 }
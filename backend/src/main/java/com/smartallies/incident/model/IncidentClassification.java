@@ -14,4 +14,5 @@ public class IncidentClassification {
     private IncidentType type;
     private Double confidence;
     private String reasoning;
+    private ClassificationSource source;
 }
@@ -0,0 +1,6 @@
+package com.smartallies.incident.model;
+
+/**
+ * Published once a report has been stored, for consumers that react to new reports.
+ */
+public record IncidentReportSubmittedEvent(IncidentReport report) {}
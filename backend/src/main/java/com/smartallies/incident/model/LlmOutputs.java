@@ -0,0 +1,96 @@
+package com.smartallies.incident.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Typed results of the structured LLM calls. Each record doubles as the JSON schema
+ * the model's output is constrained to, so field names must match the prompts.
+ */
+public final class LlmOutputs {
+
+    private LlmOutputs() {
+    }
+
+    public record Classification(IncidentType type, double confidence, String reasoning) {}
+
+    public record Affirmative(boolean affirmative) {}
+
+    public record ReportSummary(String summary) {}
+
+    public record ConversationConclusion(boolean concluded, String reasoning) {}
+
+    public record EmergencyResolution(boolean resolved, String reasoning) {}
+
+    /**
+     * Result of a details-collection turn: the fields the model could extract and its reply to the user.
+     */
+    public interface DetailsExtraction {
+
+        String message();
+
+        Map<String, String> extractedFieldValues();
+    }
+
+    public record HumanDetails(HumanFields extractedFields, String message, boolean allFieldsCollected)
+            implements DetailsExtraction {
+
+        @Override
+        public Map<String, String> extractedFieldValues() {
+            return extractedFields == null ? Map.of() : presentValues(
+                    "what", extractedFields.what(),
+                    "when", extractedFields.when(),
+                    "where", extractedFields.where(),
+                    "who", extractedFields.who());
+        }
+    }
+
+    public record HumanFields(String what, String when, String where, String who) {}
+
+    public record FacilityDetails(FacilityFields extractedFields, String message, boolean allFieldsCollected)
+            implements DetailsExtraction {
+
+        @Override
+        public Map<String, String> extractedFieldValues() {
+            return extractedFields == null ? Map.of() : presentValues(
+                    "what", extractedFields.what(),
+                    "where", extractedFields.where());
+        }
+    }
+
+    public record FacilityFields(String what, String where) {}
+
+    public record EmergencyDetails(EmergencyFields extractedFields, String message, boolean hasLocation)
+            implements DetailsExtraction {
+
+        @Override
+        public Map<String, String> extractedFieldValues() {
+            return extractedFields == null ? Map.of() : presentValues(
+                    "location", extractedFields.location(),
+                    "personName", extractedFields.personName(),
+                    "condition", extractedFields.condition());
+        }
+    }
+
+    public record EmergencyFields(String location, String personName, String condition) {}
+
+    public static Class<? extends DetailsExtraction> detailsOutputFor(IncidentType type) {
+        return switch (type) {
+            case HUMAN -> HumanDetails.class;
+            case FACILITY -> FacilityDetails.class;
+            case EMERGENCY -> EmergencyDetails.class;
+        };
+    }
+
+    // Models still write the string "null" for unknown values now and then
+    private static Map<String, String> presentValues(String... keysAndValues) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            String value = keysAndValues[i + 1];
+            if (value != null && !value.isBlank() && !value.equals("null")) {
+                values.put(keysAndValues[i], value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartallies.incident.model;
+
+import java.util.List;
+
+/**
+ * One page of a report listing; {@code nextCursor} is null on the last page.
+ */
+public record ReportPage(List<IncidentReport> reports, String nextCursor) {
+}
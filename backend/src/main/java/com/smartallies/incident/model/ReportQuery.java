@@ -0,0 +1,17 @@
+package com.smartallies.incident.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of a report listing; a null filter matches every report. Submission time bounds are inclusive.
+ * Results are ordered newest first, and {@code cursor} continues after the last report of the previous page.
+ */
+public record ReportQuery(
+        ReportStatus status,
+        IncidentType incidentType,
+        LocalDateTime submittedFrom,
+        LocalDateTime submittedTo,
+        Boolean anonymous,
+        String cursor,
+        int limit) {
+}
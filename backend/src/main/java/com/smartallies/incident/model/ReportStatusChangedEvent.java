@@ -0,0 +1,6 @@
+package com.smartallies.incident.model;
+
+/**
+ * Published once a status change of a report has been stored.
+ */
+public record ReportStatusChangedEvent(IncidentReport report, ReportStatus previousStatus) {}
@@ -0,0 +1,27 @@
+package com.smartallies.incident.model;
+
+/**
+ * The first-aid volunteers a user can be connected to in an emergency.
+ */
+public enum SamaritanPartner {
+    JAMES_ANDERSON("James Anderson", "https://i.pravatar.cc/150?img=15"),
+    LISA_THOMPSON("Lisa Thompson", "https://i.pravatar.cc/150?img=9"),
+    ROBERT_MARTINEZ("Robert Martinez", "https://i.pravatar.cc/150?img=13"),
+    ANNA_WILLIAMS("Anna Williams", "https://i.pravatar.cc/150?img=20");
+
+    private final String displayName;
+    private final String image;
+
+    SamaritanPartner(String displayName, String image) {
+        this.displayName = displayName;
+        this.image = image;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    public String image() {
+        return image;
+    }
+}
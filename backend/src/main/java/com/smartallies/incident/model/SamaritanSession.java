@@ -1,20 +1,36 @@
 package com.smartallies.incident.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
-
-import java.time.LocalDateTime;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class SamaritanSession {
     private String sessionId;
-    private String samaritanName;
-    private String samaritanImage;
-    private String samaritanId;
+    private SamaritanPartner partner;
     private boolean isActive;
-    private LocalDateTime startedAt;
-    private LocalDateTime endedAt;
+    private long startedAtMillis;
+    private long endedAtMillis;
     private String ticketId;
     private String emergencyLocation;
+
+    @JsonIgnore
+    public String getSamaritanName() {
+        return partner == null ? null : partner.displayName();
+    }
+
+    @JsonIgnore
+    public String getSamaritanImage() {
+        return partner == null ? null : partner.image();
+    }
+
+    @JsonIgnore
+    public String getSamaritanId() {
+        return partner == null ? null : partner.name();
+    }
 }
@@ -0,0 +1,14 @@
+package com.smartallies.incident.model;
+
+/**
+ * Serializable copy of a {@link SessionState}, used to hand a session to another node.
+ */
+public record SessionSnapshot(
+        String sessionId,
+        ConversationContext context,
+        HRSession hrSession,
+        ConversationHistory.Snapshot hrHistory,
+        SamaritanSession samaritanSession,
+        ConversationHistory.Snapshot samaritanHistory,
+        ContinuationState continuation) {
+}
@@ -0,0 +1,100 @@
+package com.smartallies.incident.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Everything the backend holds for one chat session. Owned by the session registry,
+ * so evicting a session releases all of it at once.
+ */
+@Getter
+@Setter
+public class SessionState {
+
+    // Rough per-object overheads, used only to keep the registry's memory estimate in the right range
+    private static final int BASE_BYTES = 512;
+    private static final int BYTES_PER_CHAR = 2;
+    private static final int BYTES_PER_CONTEXT_TOKEN = 20;
+    private static final int BYTES_PER_HISTORY_TOKEN = 4 * BYTES_PER_CHAR;
+
+    private final String sessionId;
+    private volatile long lastAccessNanos;
+
+    private volatile ConversationContext context;
+    private volatile HRSession hrSession;
+    private volatile ConversationHistory hrHistory;
+    private volatile SamaritanSession samaritanSession;
+    private volatile ConversationHistory samaritanHistory;
+    private volatile ContinuationState continuation;
+
+    public SessionState(String sessionId, long nowNanos) {
+        this.sessionId = sessionId;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    public SessionSnapshot toSnapshot() {
+        ConversationHistory currentHrHistory = hrHistory;
+        ConversationHistory currentSamaritanHistory = samaritanHistory;
+        return new SessionSnapshot(sessionId, context, hrSession,
+                currentHrHistory == null ? null : currentHrHistory.snapshot(),
+                samaritanSession,
+                currentSamaritanHistory == null ? null : currentSamaritanHistory.snapshot(),
+                continuation);
+    }
+
+    public static SessionState fromSnapshot(SessionSnapshot snapshot, long nowNanos) {
+        SessionState state = new SessionState(snapshot.sessionId(), nowNanos);
+        state.context = snapshot.context();
+        state.hrSession = snapshot.hrSession();
+        state.hrHistory = snapshot.hrHistory() == null ? null : ConversationHistory.restore(snapshot.hrHistory());
+        state.samaritanSession = snapshot.samaritanSession();
+        state.samaritanHistory = snapshot.samaritanHistory() == null
+                ? null
+                : ConversationHistory.restore(snapshot.samaritanHistory());
+        state.continuation = snapshot.continuation();
+        return state;
+    }
+
+    public WorkflowState getWorkflowState() {
+        ConversationContext currentContext = context;
+        return currentContext == null ? null : currentContext.getWorkflowState();
+    }
+
+    public boolean isActiveEmergency() {
+        WorkflowState state = getWorkflowState();
+        SamaritanSession samaritan = samaritanSession;
+        return state == WorkflowState.EMERGENCY_ACTIVE
+                || state == WorkflowState.EMERGENCY_LOCATION_COLLECTED
+                || state == WorkflowState.SAMARITAN_CONNECTED
+                || (samaritan != null && samaritan.isActive());
+    }
+
+    /**
+     * Re-estimates the heap held by this session. Collected fields are counted from their running
+     * text length, so this can run while the request thread writes them.
+     */
+    public long estimatedBytes() {
+        long bytes = BASE_BYTES;
+        ConversationContext currentContext = context;
+        if (currentContext != null) {
+            bytes += BYTES_PER_CHAR * ((long) length(currentContext.getInitialMessage())
+                    + length(currentContext.getImageUrl())
+                    + currentContext.getCollectedFields().textLength());
+        }
+        bytes += historyBytes(hrHistory) + historyBytes(samaritanHistory);
+        ContinuationState currentContinuation = continuation;
+        if (currentContinuation != null) {
+            bytes += (long) BYTES_PER_CONTEXT_TOKEN * currentContinuation.context().size()
+                    + BYTES_PER_CHAR * length(currentContinuation.lastReply());
+        }
+        return bytes;
+    }
+
+    private static long historyBytes(ConversationHistory history) {
+        return history == null ? 0 : (long) BYTES_PER_HISTORY_TOKEN * history.estimatedTokens();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
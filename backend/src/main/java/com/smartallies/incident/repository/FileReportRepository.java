@@ -0,0 +1,520 @@
+package com.smartallies.incident.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartallies.incident.config.ReportStoreConfig;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable report store on the local file system.
+ *
+ * <p>Every save is appended to the current log segment as a {@code [length][crc32][json]} frame.
+ * A single writer thread takes all saves queued while the previous fsync ran and commits them
+ * with one fsync, so throughput grows with concurrency instead of being bound by disk latency.
+ * Reports become visible to readers only after their frame is on disk. The frames of a commit that
+ * fails are cut off the segment before anything else is appended, and saves fail until that succeeds.
+ *
+ * <p>Every {@code reports.store.snapshot-every-records} appends the writer starts a new segment and
+ * a background thread writes a snapshot of all reports; once the snapshot is in place, the segments
+ * it covers are deleted. Recovery loads the snapshot and replays the newer segments, verifying and
+ * decoding frames in parallel chunks. A write torn by a crash is the last frame of the newest
+ * segment and is cut off; an older segment can only end in one after a failed commit that could
+ * not be cut off, and is left alone. Any bad frame before the end of a segment has acknowledged
+ * reports after it, so recovery fails instead and keeps a copy as {@code log-N.dat.corrupt}.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "reports.store.type", havingValue = "file", matchIfMissing = true)
+public class FileReportRepository implements ReportRepository {
+
+    private static final int SNAPSHOT_MAGIC = 0x52505331;
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+    private static final Pattern SEGMENT_FILE = Pattern.compile("log-(\\d{12})\\.dat");
+    private static final int FRAME_HEADER_BYTES = 8;
+    private static final int SNAPSHOT_HEADER_BYTES = 16;
+    private static final int RECOVERY_CHUNK_FRAMES = 10_000;
+
+    private final ReportStoreConfig config;
+    private final Path directory;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ReportIndex index = new ReportIndex();
+    private final BlockingQueue<PendingWrite> pendingWrites = new LinkedBlockingQueue<>();
+    private final ExecutorService snapshotWriter =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("report-snapshot").factory());
+
+    private final Timer commitTimer;
+    private final DistributionSummary commitBatchSize;
+
+    // Owned by the writer thread after open()
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentCommittedBytes;
+    private boolean segmentNeedsRepair;
+    private long appendedSinceSnapshot;
+
+    private Thread writerThread;
+    private volatile boolean closing;
+
+    public FileReportRepository(ReportStoreConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.directory = Path.of(config.getDirectory());
+        this.commitTimer = Timer.builder("reports.store.commit")
+                .description("Time to write and fsync one group of report saves")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.commitBatchSize = DistributionSummary.builder("reports.store.commit.batch.size")
+                .description("Report saves made durable by one fsync")
+                .register(meterRegistry);
+        Gauge.builder("reports.store.records", index, ReportIndex::size)
+                .description("Reports held by the store")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        long recoveryStart = System.nanoTime();
+
+        long coveredSegment = -1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            coveredSegment = loadSnapshot(snapshot);
+        }
+
+        List<Long> segmentNumbers = segmentNumbers();
+        long newestSegment = segmentNumbers.isEmpty() ? -1 : segmentNumbers.get(segmentNumbers.size() - 1);
+        for (long number : segmentNumbers) {
+            if (number > coveredSegment) {
+                replaySegment(segmentPath(number), number == newestSegment);
+            }
+        }
+        long lastSegment = Math.max(coveredSegment, newestSegment);
+
+        openSegment(lastSegment + 1);
+        log.info("Report store recovered {} reports from {} in {} ms", index.size(), directory,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoveryStart));
+
+        writerThread = Thread.ofPlatform().name("report-log-writer").start(this::writeLoop);
+    }
+
+    /**
+     * Stops accepting saves, commits the ones already queued and writes a final snapshot,
+     * so the next start only has to load that snapshot.
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        closing = true;
+        if (writerThread != null) {
+            writerThread.join();
+        }
+        PendingWrite leftover;
+        while ((leftover = pendingWrites.poll()) != null) {
+            leftover.committed().completeExceptionally(new IllegalStateException("Report store is shutting down"));
+        }
+        if (segment != null && segment.isOpen()) {
+            segment.close();
+        }
+        if (appendedSinceSnapshot > 0) {
+            snapshotWriter.execute(() -> writeSnapshot(List.copyOf(index.values()), segmentNumber));
+        }
+        snapshotWriter.shutdown();
+        snapshotWriter.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public IncidentReport save(IncidentReport report) {
+        saveAll(List.of(report));
+        return report;
+    }
+
+    /**
+     * Queues all reports before waiting, so they are committed together by as few fsyncs as
+     * {@code reports.store.max-commit-batch} allows.
+     */
+    @Override
+    public List<IncidentReport> saveAll(List<IncidentReport> reports) {
+        if (closing) {
+            throw new IllegalStateException("Report store is shutting down");
+        }
+
+        List<PendingWrite> writes = new ArrayList<>(reports.size());
+        for (IncidentReport report : reports) {
+            try {
+                writes.add(new PendingWrite(report, objectMapper.writeValueAsBytes(report), new CompletableFuture<>()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to serialize report " + report.getReportId(), e);
+            }
+        }
+        pendingWrites.addAll(writes);
+
+        for (PendingWrite write : writes) {
+            try {
+                write.committed().join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Failed to persist report " + write.report().getReportId(), e.getCause());
+            }
+        }
+        return reports;
+    }
+
+    @Override
+    public Optional<IncidentReport> findById(String reportId) {
+        return Optional.ofNullable(index.get(reportId));
+    }
+
+    @Override
+    public List<IncidentReport> findAll() {
+        return List.copyOf(index.values());
+    }
+
+    @Override
+    public long count() {
+        return index.size();
+    }
+
+    @Override
+    public ReportPage query(ReportQuery query) {
+        return index.query(query);
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(config.getMaxCommitBatch());
+        while (!closing || !pendingWrites.isEmpty()) {
+            try {
+                PendingWrite first = pendingWrites.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pendingWrites.drainTo(batch, config.getMaxCommitBatch() - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        if (segmentNeedsRepair && !repairSegment()) {
+            IOException unavailable = new IOException("Report log is not writable after a failed commit");
+            batch.forEach(write -> write.committed().completeExceptionally(unavailable));
+            return;
+        }
+
+        long commitStart = System.nanoTime();
+        int batchBytes = batch.stream().mapToInt(write -> FRAME_HEADER_BYTES + write.payload().length).sum();
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(batchBytes);
+            for (PendingWrite write : batch) {
+                buffer.putInt(write.payload().length).putInt(crc(write.payload())).put(write.payload());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            log.error("Failed to commit {} report writes", batch.size(), e);
+            batch.forEach(write -> write.committed().completeExceptionally(e));
+            segmentNeedsRepair = true;
+            repairSegment();
+            return;
+        }
+        segmentCommittedBytes += batchBytes;
+
+        batch.forEach(write -> index.put(write.report()));
+        batch.forEach(write -> write.committed().complete(null));
+        commitTimer.record(System.nanoTime() - commitStart, TimeUnit.NANOSECONDS);
+        commitBatchSize.record(batch.size());
+
+        appendedSinceSnapshot += batch.size();
+        if (appendedSinceSnapshot >= config.getSnapshotEveryRecords()) {
+            startSnapshot();
+        }
+    }
+
+    /**
+     * Cuts the frames of a failed commit off the segment, or if that fails too, moves on to a new segment.
+     * Recovery refuses a segment with a bad frame before its end, so nothing may be appended after one.
+     *
+     * @return whether the log can take new commits
+     */
+    private boolean repairSegment() {
+        try {
+            segment.truncate(segmentCommittedBytes);
+            segment.force(false);
+            segmentNeedsRepair = false;
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not truncate report log segment {} after a failed commit, rolling over", segmentNumber, e);
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.debug("Could not close damaged report log segment {}: {}", segmentNumber, e.getMessage());
+        }
+        try {
+            openSegment(segmentNumber + 1);
+            segmentNeedsRepair = false;
+            return true;
+        } catch (IOException e) {
+            log.error("Could not open a new report log segment, failing report saves until one opens", e);
+            return false;
+        }
+    }
+
+    private void startSnapshot() {
+        try {
+            long coveredSegment = segmentNumber;
+            segment.close();
+            openSegment(coveredSegment + 1);
+            appendedSinceSnapshot = 0;
+            List<IncidentReport> reports = List.copyOf(index.values());
+            snapshotWriter.execute(() -> writeSnapshot(reports, coveredSegment));
+        } catch (IOException e) {
+            log.error("Failed to roll report log segment", e);
+        }
+    }
+
+    /**
+     * Writes the reports as of the end of {@code coveredSegment}, then deletes that segment and all
+     * older ones. If this fails the segments stay, so the next snapshot or recovery still sees them.
+     */
+    private void writeSnapshot(List<IncidentReport> reports, long coveredSegment) {
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(coveredSegment);
+            out.writeInt(reports.size());
+            for (IncidentReport report : reports) {
+                byte[] payload = objectMapper.writeValueAsBytes(report);
+                out.writeInt(payload.length);
+                out.writeInt(crc(payload));
+                out.write(payload);
+            }
+            out.flush();
+            channel.force(true);
+        } catch (Exception e) {
+            log.error("Failed to write report snapshot covering segment {}", coveredSegment, e);
+            return;
+        }
+
+        try {
+            Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            for (long number : segmentNumbers()) {
+                if (number <= coveredSegment) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+            log.info("Report snapshot of {} reports written, log compacted up to segment {}", reports.size(), coveredSegment);
+        } catch (IOException e) {
+            log.error("Failed to install report snapshot covering segment {}", coveredSegment, e);
+        }
+    }
+
+    /**
+     * @return the last log segment the snapshot covers
+     */
+    private long loadSnapshot(Path snapshot) throws IOException {
+        long bytesLeft = Files.size(snapshot) - SNAPSHOT_HEADER_BYTES;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a report snapshot: " + snapshot);
+            }
+            long coveredSegment = in.readLong();
+            int remaining = in.readInt();
+            while (remaining > 0) {
+                List<byte[]> chunk = new ArrayList<>(Math.min(remaining, RECOVERY_CHUNK_FRAMES));
+                while (remaining > 0 && chunk.size() < RECOVERY_CHUNK_FRAMES) {
+                    byte[] payload = readFrame(in, bytesLeft);
+                    if (payload == null) {
+                        throw new IOException("Report snapshot is truncated or corrupt: " + snapshot);
+                    }
+                    chunk.add(payload);
+                    bytesLeft -= FRAME_HEADER_BYTES + payload.length;
+                    remaining--;
+                }
+                applyChunk(chunk);
+            }
+            return coveredSegment;
+        }
+    }
+
+    private void replaySegment(Path segmentPath, boolean newest) throws IOException {
+        long segmentBytes = Files.size(segmentPath);
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentPath), 1 << 16))) {
+            List<byte[]> chunk = new ArrayList<>(RECOVERY_CHUNK_FRAMES);
+            byte[] payload;
+            while ((payload = readFrame(in, segmentBytes - validBytes)) != null) {
+                chunk.add(payload);
+                validBytes += FRAME_HEADER_BYTES + payload.length;
+                if (chunk.size() == RECOVERY_CHUNK_FRAMES) {
+                    applyChunk(chunk);
+                    chunk = new ArrayList<>(RECOVERY_CHUNK_FRAMES);
+                }
+            }
+            applyChunk(chunk);
+        }
+
+        if (validBytes == segmentBytes) {
+            return;
+        }
+        if (isTornTail(segmentPath, validBytes, segmentBytes)) {
+            if (!newest) {
+                log.warn("Report log segment {} ends in a failed commit after {} bytes, ignoring it", segmentPath, validBytes);
+                return;
+            }
+            log.warn("Report log segment {} ends in an incomplete write, truncating it to {} bytes", segmentPath, validBytes);
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+                channel.force(true);
+            }
+            return;
+        }
+
+        Path copy = segmentPath.resolveSibling(segmentPath.getFileName() + ".corrupt");
+        Files.copy(segmentPath, copy, StandardCopyOption.REPLACE_EXISTING);
+        throw new IOException("Report log segment " + segmentPath + " is corrupt at byte " + validBytes
+                + " with durable reports after it; a copy is kept as " + copy
+                + ", repair or remove the segment to start the store");
+    }
+
+    /**
+     * @return whether the bad frame at {@code frameStart} is cut short by the end of the file or runs
+     *         exactly up to it, the two shapes an interrupted append leaves behind
+     */
+    private static boolean isTornTail(Path segmentPath, long frameStart, long segmentBytes) throws IOException {
+        long remaining = segmentBytes - frameStart;
+        if (remaining < FRAME_HEADER_BYTES) {
+            return true;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header, frameStart + header.position()) > 0) {
+                // Positional reads may return fewer bytes than asked for
+            }
+        }
+        int length = header.getInt(0);
+        return length >= 0 && FRAME_HEADER_BYTES + (long) length >= remaining;
+    }
+
+    /**
+     * Decodes a chunk of frames in parallel and applies them in log order, so later versions win.
+     */
+    private void applyChunk(List<byte[]> chunk) {
+        IncidentReport[] reports = new IncidentReport[chunk.size()];
+        IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+            try {
+                reports[i] = objectMapper.readValue(chunk.get(i), IncidentReport.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable report record", e);
+            }
+        });
+        for (IncidentReport report : reports) {
+            index.put(report);
+        }
+    }
+
+    /**
+     * @param bytesLeft bytes from the start of the frame to the end of the file; a corrupt length
+     *                  beyond them is caught before its payload is allocated
+     * @return the payload of the next frame, or null at the end of the data or at a torn or corrupt frame
+     */
+    private byte[] readFrame(DataInputStream in, long bytesLeft) throws IOException {
+        try {
+            int length = in.readInt();
+            int expectedCrc = in.readInt();
+            if (length < 0 || length > bytesLeft - FRAME_HEADER_BYTES) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return crc(payload) == expectedCrc ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentCommittedBytes = segment.size();
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_FILE.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("log-%012d.dat", number));
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record PendingWrite(IncidentReport report, byte[] payload, CompletableFuture<Void> committed) {}
+}
@@ -0,0 +1,46 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps reports in memory only; they are lost on restart. Meant for local development and tests.
+ */
+@Repository
+@ConditionalOnProperty(name = "reports.store.type", havingValue = "memory")
+public class InMemoryReportRepository implements ReportRepository {
+
+    private final ReportIndex reports = new ReportIndex();
+
+    @Override
+    public IncidentReport save(IncidentReport report) {
+        reports.put(report);
+        return report;
+    }
+
+    @Override
+    public Optional<IncidentReport> findById(String reportId) {
+        return Optional.ofNullable(reports.get(reportId));
+    }
+
+    @Override
+    public List<IncidentReport> findAll() {
+        return List.copyOf(reports.values());
+    }
+
+    @Override
+    public long count() {
+        return reports.size();
+    }
+
+    @Override
+    public ReportPage query(ReportQuery query) {
+        return reports.query(query);
+    }
+}
@@ -0,0 +1,185 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import com.smartallies.incident.model.ReportStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory view of the stored reports, shared by the repository implementations.
+ *
+ * <p>Besides the reports by id, every report is filed in the bucket of its (status, type, anonymous)
+ * combination, a skip list ordered newest first. A query merges the buckets its filters select and
+ * reads each of them from the cursor or the end of the time range onwards, so it touches only the
+ * reports it returns, whatever the size of the store. A report moves to another bucket when a
+ * save changes its status.
+ */
+class ReportIndex {
+
+    private static final Comparator<IndexKey> NEWEST_FIRST = Comparator
+            .comparing(IndexKey::submittedAt, Comparator.reverseOrder())
+            .thenComparing(IndexKey::reportId);
+    // Sorts before every report id submitted at the same time
+    private static final String LOWEST_ID = "";
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final Map<String, IncidentReport> reports = new ConcurrentHashMap<>();
+    private final Map<String, Posting> postings = new ConcurrentHashMap<>();
+    private final Map<Bucket, ConcurrentNavigableMap<IndexKey, Boolean>> buckets = new ConcurrentHashMap<>();
+
+    void put(IncidentReport report) {
+        Posting posting = new Posting(Bucket.of(report), new IndexKey(submittedAtOf(report), report.getReportId()));
+        // Reports are mutable and may already carry the new status, so the old bucket comes from the posting
+        postings.compute(report.getReportId(), (id, previous) -> {
+            if (previous != null && !previous.equals(posting)) {
+                bucket(previous.bucket()).remove(previous.key());
+            }
+            bucket(posting.bucket()).put(posting.key(), Boolean.TRUE);
+            reports.put(id, report);
+            return posting;
+        });
+    }
+
+    IncidentReport get(String reportId) {
+        return reports.get(reportId);
+    }
+
+    Collection<IncidentReport> values() {
+        return reports.values();
+    }
+
+    int size() {
+        return reports.size();
+    }
+
+    ReportPage query(ReportQuery query) {
+        IndexKey start = query.cursor() != null
+                ? decodeCursor(query.cursor())
+                : query.submittedTo() != null ? new IndexKey(query.submittedTo(), LOWEST_ID) : null;
+        boolean startInclusive = query.cursor() == null;
+
+        PriorityQueue<BucketCursor> heads = new PriorityQueue<>(Comparator.comparing(BucketCursor::head, NEWEST_FIRST));
+        buckets.forEach((bucket, keys) -> {
+            if (bucket.matches(query)) {
+                ConcurrentNavigableMap<IndexKey, Boolean> range = start == null ? keys : keys.tailMap(start, startInclusive);
+                BucketCursor cursor = new BucketCursor(bucket, range.keySet().iterator());
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+        });
+
+        List<IncidentReport> page = new ArrayList<>(query.limit());
+        IndexKey last = null;
+        while (!heads.isEmpty()) {
+            BucketCursor cursor = heads.poll();
+            IndexKey key = cursor.head();
+            if (query.submittedFrom() != null && key.submittedAt().isBefore(query.submittedFrom())) {
+                // Every remaining key of this bucket is older still
+                continue;
+            }
+            if (page.size() == query.limit()) {
+                return new ReportPage(page, encodeCursor(last));
+            }
+
+            // A concurrent save may have moved the report after its key was read, possibly into another
+            // bucket of this query; only the bucket it is filed in now may return it, or it would appear twice
+            Posting posting = postings.get(key.reportId());
+            IncidentReport report = reports.get(key.reportId());
+            if (report != null && posting != null
+                    && posting.bucket().equals(cursor.bucket()) && posting.key().equals(key)) {
+                page.add(report);
+                last = key;
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return new ReportPage(page, null);
+    }
+
+    private ConcurrentNavigableMap<IndexKey, Boolean> bucket(Bucket bucket) {
+        return buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>(NEWEST_FIRST));
+    }
+
+    private static LocalDateTime submittedAtOf(IncidentReport report) {
+        return report.getSubmittedAt() != null ? report.getSubmittedAt() : LocalDateTime.MIN;
+    }
+
+    private static String encodeCursor(IndexKey key) {
+        String cursor = key.submittedAt() + CURSOR_SEPARATOR + key.reportId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static IndexKey decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new IndexKey(LocalDateTime.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private record IndexKey(LocalDateTime submittedAt, String reportId) {}
+
+    private record Posting(Bucket bucket, IndexKey key) {}
+
+    private record Bucket(ReportStatus status, IncidentType incidentType, boolean anonymous) {
+
+        static Bucket of(IncidentReport report) {
+            return new Bucket(report.getStatus(), report.getIncidentType(), report.isAnonymous());
+        }
+
+        boolean matches(ReportQuery query) {
+            return (query.status() == null || query.status() == status)
+                    && (query.incidentType() == null || query.incidentType() == incidentType)
+                    && (query.anonymous() == null || query.anonymous() == anonymous);
+        }
+    }
+
+    private static final class BucketCursor {
+
+        private final Bucket bucket;
+        private final Iterator<IndexKey> keys;
+        private IndexKey head;
+
+        BucketCursor(Bucket bucket, Iterator<IndexKey> keys) {
+            this.bucket = bucket;
+            this.keys = keys;
+        }
+
+        Bucket bucket() {
+            return bucket;
+        }
+
+        boolean advance() {
+            head = keys.hasNext() ? keys.next() : null;
+            return head != null;
+        }
+
+        IndexKey head() {
+            return Objects.requireNonNull(head);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of submitted incident reports. Implementations are selected with {@code reports.store.type}.
+ */
+public interface ReportRepository {
+
+    /**
+     * Stores a new report, or a new version of an existing one. The report is durable once this returns.
+     */
+    IncidentReport save(IncidentReport report);
+
+    /**
+     * Stores many reports at once; all of them are durable once this returns.
+     */
+    default List<IncidentReport> saveAll(List<IncidentReport> reports) {
+        reports.forEach(this::save);
+        return reports;
+    }
+
+    Optional<IncidentReport> findById(String reportId);
+
+    List<IncidentReport> findAll();
+
+    /**
+     * Lists the reports matching the query's filters from its secondary indexes, newest first.
+     *
+     * @throws IllegalArgumentException when the query's cursor is not one returned by an earlier page
+     */
+    ReportPage query(ReportQuery query);
+
+    long count();
+}
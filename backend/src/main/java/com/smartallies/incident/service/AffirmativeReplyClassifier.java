@@ -0,0 +1,196 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Decides locally whether a short confirmation reply ("yes", "ok", "nope") is affirmative,
+ * so only genuinely ambiguous replies need an LLM round trip. Local verdicts are kept in a
+ * bounded LRU cache keyed by the normalised reply; LLM verdicts are not, since one wrong answer
+ * would otherwise be repeated for every later user sending the same reply.
+ */
+@Slf4j
+@Component
+public class AffirmativeReplyClassifier {
+
+    private static final int MAX_CACHED_REPLIES = 1_000;
+    private static final int MAX_LOCAL_REPLY_WORDS = 6;
+    private static final int NEGATION_LOOKBACK_WORDS = 2;
+
+    // Same vocabulary as the LLM affirmative prompt, plus a few common variants
+    private static final Set<String> AFFIRMATIVE_PHRASES = Set.of(
+            "yes", "yeah", "yep", "yup", "ya", "sure", "correct", "right", "agree", "proceed",
+            "go ahead", "confirm", "confirmed", "alright", "all right", "ok", "okay", "k", "fine",
+            "sounds good", "thats fine", "i would like to proceed", "lets go", "looks good", "all good",
+            "indeed", "exactly", "absolutely", "perfect", "that works", "works for me",
+            "of course", "definitely", "please do", "do it", "no problem", "no worries", "thumbs_up"
+    );
+
+    private static final Set<String> NEGATIVE_PHRASES = Set.of(
+            "no", "nope", "nah", "not really", "dont agree", "do not agree", "wrong", "change",
+            "another", "different", "disagree", "stop", "cancel", "thats not", "isnt correct",
+            "is not correct", "no thanks", "no thank you", "rather not", "thumbs_down"
+    );
+
+    private static final Set<String> HEDGE_PHRASES = Set.of(
+            "not sure", "maybe", "perhaps", "i guess", "dont know", "idk", "kind of", "sort of"
+    );
+
+    private static final Set<String> CONTRAST_WORDS = Set.of("but", "except", "however", "although", "though");
+
+    private static final Set<String> NEGATORS = Set.of(
+            "not", "never", "dont", "isnt", "arent", "wasnt", "doesnt", "cant", "cannot", "wont"
+    );
+
+    private static final int LONGEST_PHRASE_WORDS = longestPhraseWords();
+
+    private final Map<String, Boolean> verdictCache = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_CACHED_REPLIES;
+                }
+            });
+
+    private final Counter localHits;
+    private final Counter cacheHits;
+    private final Counter llmFallbacks;
+
+    public AffirmativeReplyClassifier(MeterRegistry meterRegistry) {
+        this.localHits = classificationCounter(meterRegistry, "local");
+        this.cacheHits = classificationCounter(meterRegistry, "cache");
+        this.llmFallbacks = classificationCounter(meterRegistry, "llm");
+    }
+
+    /**
+     * @return the verdict when it can be decided without the LLM, empty when the reply is ambiguous
+     */
+    public Optional<Boolean> classify(String userReply) {
+        String normalizedReply = normalize(userReply);
+
+        Boolean cachedVerdict = verdictCache.get(normalizedReply);
+        if (cachedVerdict != null) {
+            cacheHits.increment();
+            return Optional.of(cachedVerdict);
+        }
+
+        Optional<Boolean> localVerdict = classifyNormalized(normalizedReply);
+        if (localVerdict.isPresent()) {
+            localHits.increment();
+            verdictCache.put(normalizedReply, localVerdict.get());
+            log.debug("Affirmative reply '{}' classified locally as {}", normalizedReply, localVerdict.get());
+        } else {
+            llmFallbacks.increment();
+        }
+        return localVerdict;
+    }
+
+    String normalize(String userReply) {
+        String normalized = userReply.toLowerCase(Locale.ROOT)
+                .replace("👍", " thumbs_up ")
+                .replace("👎", " thumbs_down ")
+                .replace('’', '\'')
+                .replace("'", "")
+                .replaceAll("[^\\p{L}\\p{N}_\\s]", " ")
+                .replaceAll("(\\p{L})\\1{2,}", "$1")
+                .replaceAll("\\s+", " ");
+        return normalized.trim();
+    }
+
+    private Optional<Boolean> classifyNormalized(String normalizedReply) {
+        if (normalizedReply.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<String> words = Arrays.asList(normalizedReply.split(" "));
+        if (words.size() > MAX_LOCAL_REPLY_WORDS || words.stream().anyMatch(CONTRAST_WORDS::contains)) {
+            return Optional.empty();
+        }
+
+        boolean hasAffirmativeCue = false;
+        boolean hasNegativeCue = false;
+
+        for (PhraseMatch match : matchPhrases(words)) {
+            if (HEDGE_PHRASES.contains(match.phrase())) {
+                return Optional.empty();
+            }
+            boolean affirmative = AFFIRMATIVE_PHRASES.contains(match.phrase());
+            if (affirmative && isNegated(words, match.startIndex())) {
+                affirmative = false;
+            }
+            hasAffirmativeCue |= affirmative;
+            hasNegativeCue |= !affirmative;
+        }
+
+        if (hasAffirmativeCue == hasNegativeCue) {
+            return Optional.empty();
+        }
+        return Optional.of(hasAffirmativeCue);
+    }
+
+    /**
+     * Greedy longest-match so that e.g. "no problem" wins over "no" and "thats not" over "not".
+     */
+    private List<PhraseMatch> matchPhrases(List<String> words) {
+        List<PhraseMatch> matches = new ArrayList<>();
+        int index = 0;
+        while (index < words.size()) {
+            int matchedLength = 0;
+            for (int length = Math.min(LONGEST_PHRASE_WORDS, words.size() - index); length > 0; length--) {
+                String candidate = String.join(" ", words.subList(index, index + length));
+                if (isKnownPhrase(candidate)) {
+                    matches.add(new PhraseMatch(candidate, index));
+                    matchedLength = length;
+                    break;
+                }
+            }
+            index += Math.max(1, matchedLength);
+        }
+        return matches;
+    }
+
+    private boolean isNegated(List<String> words, int phraseStart) {
+        for (int i = Math.max(0, phraseStart - NEGATION_LOOKBACK_WORDS); i < phraseStart; i++) {
+            if (NEGATORS.contains(words.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isKnownPhrase(String candidate) {
+        return AFFIRMATIVE_PHRASES.contains(candidate)
+                || NEGATIVE_PHRASES.contains(candidate)
+                || HEDGE_PHRASES.contains(candidate);
+    }
+
+    private static int longestPhraseWords() {
+        return Stream.of(AFFIRMATIVE_PHRASES, NEGATIVE_PHRASES, HEDGE_PHRASES)
+                .flatMap(Set::stream)
+                .mapToInt(phrase -> phrase.split(" ").length)
+                .max()
+                .orElse(1);
+    }
+
+    private static Counter classificationCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("llm.affirmative.classifications")
+                .description("Affirmative reply classifications by the source that decided them")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record PhraseMatch(String phrase, int startIndex) {}
+}
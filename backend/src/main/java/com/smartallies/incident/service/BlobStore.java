@@ -0,0 +1,182 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.BlobStoreConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for uploaded images. A blob is named after the SHA-256 of its bytes,
+ * so uploading the same image twice stores it once. Sessions and reports keep only the short
+ * {@code /api/blobs/<hash>} reference instead of the image itself.
+ *
+ * <p>Uploads are streamed through the digest into a temporary file and then moved into place
+ * atomically, so a blob is either complete or absent.
+ */
+@Slf4j
+@Service
+public class BlobStore {
+
+    public static final String REFERENCE_PREFIX = "/api/blobs/";
+
+    private static final Pattern BLOB_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern DATA_URL = Pattern.compile("data:([\\w.+-]+/[\\w.+-]+)?(?:;[^,;]+=[^,;]*)*;base64,");
+    private static final String CONTENT_TYPE_SUFFIX = ".type";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final BlobStoreConfig config;
+    private final Path directory;
+    private final Path tempDirectory;
+    private final Counter storedBlobs;
+    private final Counter duplicateBlobs;
+    private final DistributionSummary blobSizes;
+
+    public BlobStore(BlobStoreConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.directory = Path.of(config.getDirectory());
+        this.tempDirectory = directory.resolve("tmp");
+        this.storedBlobs = Counter.builder("blobs.stored")
+                .description("Uploads stored as a new blob")
+                .tag("outcome", "new")
+                .register(meterRegistry);
+        this.duplicateBlobs = Counter.builder("blobs.stored")
+                .description("Uploads stored as a new blob")
+                .tag("outcome", "duplicate")
+                .register(meterRegistry);
+        this.blobSizes = DistributionSummary.builder("blobs.upload.size")
+                .description("Size of uploaded blobs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void prepareDirectories() throws IOException {
+        Files.createDirectories(tempDirectory);
+        // Uploads interrupted by the last shutdown
+        try (Stream<Path> leftovers = Files.list(tempDirectory)) {
+            for (Path leftover : leftovers.toList()) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    /**
+     * Stores the content under its hash. The stream is read to the end but not closed.
+     */
+    public Blob store(InputStream content, String contentType) {
+        if (contentType == null || !config.getAllowedContentTypes().contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported content type: " + contentType);
+        }
+
+        Path upload = null;
+        try {
+            upload = Files.createTempFile(tempDirectory, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = Files.copy(new DigestInputStream(content, digest), upload, StandardCopyOption.REPLACE_EXISTING);
+            if (size > config.getMaxSize().toBytes()) {
+                throw new IllegalArgumentException("Blob of " + size + " bytes exceeds the limit of " + config.getMaxSize());
+            }
+
+            String id = HexFormat.of().formatHex(digest.digest());
+            Path target = pathOf(id);
+            if (Files.exists(target)) {
+                duplicateBlobs.increment();
+            } else {
+                Files.createDirectories(target.getParent());
+                // The content type goes first, so a visible blob always has one
+                Files.writeString(contentTypePathOf(target), contentType);
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE);
+                storedBlobs.increment();
+                blobSizes.record(size);
+                log.debug("Stored blob {} ({} bytes, {})", id, size, contentType);
+            }
+            return new Blob(id, target, contentType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store blob", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        } finally {
+            if (upload != null) {
+                try {
+                    Files.deleteIfExists(upload);
+                } catch (IOException e) {
+                    log.warn("Could not delete upload {}: {}", upload, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores an image still sent inline as a base64 data URL and returns its reference.
+     * Anything that is not a data URL, including an existing reference, is returned as is.
+     */
+    public String toReference(String imageUrl) {
+        if (imageUrl == null || !imageUrl.startsWith("data:")) {
+            return imageUrl;
+        }
+
+        Matcher header = DATA_URL.matcher(imageUrl);
+        if (!header.lookingAt()) {
+            throw new IllegalArgumentException("Only base64 data URLs are supported");
+        }
+        byte[] encoded = imageUrl.substring(header.end()).getBytes(StandardCharsets.US_ASCII);
+        try (InputStream content = Base64.getMimeDecoder().wrap(new ByteArrayInputStream(encoded))) {
+            return referenceOf(store(content, header.group(1)).id());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode data URL", e);
+        }
+    }
+
+    public Optional<Blob> find(String id) {
+        if (id == null || !BLOB_ID.matcher(id).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(id);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        String contentType;
+        try {
+            contentType = Files.readString(contentTypePathOf(path)).trim();
+        } catch (IOException e) {
+            contentType = DEFAULT_CONTENT_TYPE;
+        }
+        return Optional.of(new Blob(id, path, contentType));
+    }
+
+    public static String referenceOf(String id) {
+        return REFERENCE_PREFIX + id;
+    }
+
+    private Path pathOf(String id) {
+        return directory.resolve(id.substring(0, 2)).resolve(id);
+    }
+
+    private static Path contentTypePathOf(Path blobPath) {
+        return blobPath.resolveSibling(blobPath.getFileName() + CONTENT_TYPE_SUFFIX);
+    }
+
+    public record Blob(String id, Path path, String contentType) {}
+}
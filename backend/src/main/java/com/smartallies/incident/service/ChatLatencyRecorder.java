@@ -0,0 +1,69 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.model.WorkflowState;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end latency of chat turns, recorded per {@link LlmPriority} lane so the emergency
+ * percentiles are not diluted by ordinary traffic, and per workflow state handler.
+ */
+@Component
+public class ChatLatencyRecorder {
+
+    private final Map<LlmPriority, Timer> turnTimers = new EnumMap<>(LlmPriority.class);
+    private final Map<WorkflowState, Timer> handlerTimers = new EnumMap<>(WorkflowState.class);
+    private final Map<WorkflowState, Timer> failedHandlerTimers = new EnumMap<>(WorkflowState.class);
+
+    public ChatLatencyRecorder(MeterRegistry meterRegistry) {
+        for (LlmPriority lane : LlmPriority.values()) {
+            turnTimers.put(lane, Timer.builder("chat.turn.latency")
+                    .description("Time to answer a chat turn, from request to final response")
+                    .tag("lane", lane.name().toLowerCase())
+                    .publishPercentiles(0.5, 0.9, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        for (WorkflowState state : WorkflowState.values()) {
+            handlerTimers.put(state, handlerTimer(state, "success", meterRegistry));
+            failedHandlerTimers.put(state, handlerTimer(state, "error", meterRegistry));
+        }
+    }
+
+    /**
+     * Runs the turn in the given lane, so its model calls queue with that priority, and times it.
+     */
+    public <T> T recordTurn(LlmPriority lane, Supplier<T> turn) {
+        return turnTimers.get(lane).record(() -> lane.callWith(turn));
+    }
+
+    /**
+     * Times the handler of the state the session was in when the turn arrived.
+     */
+    public <T> T recordHandler(WorkflowState state, Supplier<T> handler) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = handler.get();
+            succeeded = true;
+            return result;
+        } finally {
+            (succeeded ? handlerTimers : failedHandlerTimers).get(state)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer handlerTimer(WorkflowState state, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("chat.handler.latency")
+                .description("Time a workflow state handler took to answer a chat turn")
+                .tag("state", state.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -1,12 +1,13 @@
 package com.smartallies.incident.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.smartallies.incident.config.EmergencyConfig;
 import com.smartallies.incident.dto.ChatRequest;
 import com.smartallies.incident.dto.ChatResponse;
+import com.smartallies.incident.model.ClassificationSource;
 import com.smartallies.incident.model.ConversationContext;
 import com.smartallies.incident.model.IncidentClassification;
 import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.LlmOutputs;
 import com.smartallies.incident.model.WorkflowState;
 import com.smartallies.incident.util.PromptTemplates;
 
@@ -16,6 +17,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -25,23 +28,60 @@ public class ChatOrchestrationService {
 
 	private final ConversationContextService contextService;
 	private final LlmService llmService;
+	private final IncidentPreClassifier preClassifier;
+	private final BlobStore blobStore;
+	private final EmergencyTriage emergencyTriage;
+	private final ChatLatencyRecorder latencyRecorder;
+	private final TraceSpans traceSpans;
+	private final SessionLocks sessionLocks;
+	private final ExecutorService chatTaskExecutor;
 	private final ResourceService resourceService;
 	private final EmergencyConfig emergencyConfig;
 
 	public ChatResponse processMessage(ChatRequest request) {
-		log.info("Processing message for session: {}", request.getSessionId());
+		return processMessage(request, null);
+	}
+
+	/**
+	 * Processes a chat turn. When a token sink is given, the user-facing message text is
+	 * forwarded to it while the LLM is still generating; the returned response stays authoritative.
+	 */
+	public ChatResponse processMessage(ChatRequest request, Consumer<String> tokenSink) {
+		return sessionLocks.runExclusive(request.getSessionId(), () -> processTurn(request, tokenSink));
+	}
 
+	private ChatResponse processTurn(ChatRequest request, Consumer<String> tokenSink) {
+		log.info("Processing message for session: {}", request.getSessionId());
 
 		ConversationContext context = contextService.getOrCreateContext(request.getSessionId());
 
+		boolean triagedEmergency = context.getWorkflowState() == WorkflowState.INITIAL
+				&& emergencyTriage.isEmergency(request.getMessage());
+		LlmPriority lane = triagedEmergency || context.getIncidentType() == IncidentType.EMERGENCY
+				? LlmPriority.EMERGENCY
+				: LlmPriority.INTERACTIVE;
+
+		WorkflowState state = context.getWorkflowState();
+		return latencyRecorder.recordTurn(lane, () -> latencyRecorder.recordHandler(state,
+				() -> traceSpans.inSpan("chat.handler", span -> {
+					span.tag("workflow.state", state.name());
+					span.tag("llm.lane", lane.name().toLowerCase());
+					span.tag("session.id", request.getSessionId());
+					return triagedEmergency
+							? handleTriagedEmergency(context, request)
+							: dispatch(context, request, tokenSink);
+				})));
+	}
+
+	private ChatResponse dispatch(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
 		return switch (context.getWorkflowState()) {
-			case INITIAL -> handleInitialMessage(context, request);
+			case INITIAL -> handleInitialMessage(context, request, tokenSink);
 			case AWAITING_CLASSIFICATION_CONFIRMATION -> handleClassificationConfirmation(context, request);
 			case CLASSIFICATION_CONFIRMED -> handlePostClassificationActions(context, request);
-			case COLLECTING_DETAILS -> handleDetailsCollection(context, request);
-			case AWAITING_REPORT_CONFIRMATION -> handleReportConfirmation(context, request);
-			case AWAITING_HR_DECISION -> handleHRDecision(context, request);
-			case EMERGENCY_ACTIVE -> handleEmergencyFlow(context, request);
+			case COLLECTING_DETAILS -> handleDetailsCollection(context, request, tokenSink);
+			case AWAITING_REPORT_CONFIRMATION -> handleReportConfirmation(context, request, tokenSink);
+			case AWAITING_HR_DECISION -> handleHRDecision(context, request, tokenSink);
+			case EMERGENCY_ACTIVE -> handleEmergencyFlow(context, request, tokenSink);
 			case EMERGENCY_LOCATION_COLLECTED -> handleEmergencyLocationCollected(context);
 			case REPORT_READY -> handleReportReady(context);
 			case ALERT_SENT -> handleAlertSent(context);
@@ -50,22 +90,35 @@ public class ChatOrchestrationService {
 		};
 	}
 
-     private ChatResponse handleInitialMessage(ConversationContext context, ChatRequest request) {
+     private ChatResponse handleInitialMessage(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
         log.info("Handling initial message for session: {}", request.getSessionId());
         
         context.setInitialMessage(request.getMessage());
-        context.setImageUrl(request.getImageUrl());
+        context.setImageUrl(blobStore.toReference(request.getImageUrl()));
         
         String classificationPrompt = PromptTemplates.buildClassificationPrompt(
                 request.getMessage(), 
-                request.getImageUrl() != null
+                context.getImageUrl() != null
         );
         
-        String llmResponse = llmService.generateResponse(classificationPrompt);
-        IncidentClassification classification = llmService.parseClassificationResponse(llmResponse);
+        IncidentClassification classification = preClassifier.classify(request.getMessage(), () -> {
+            LlmOutputs.Classification output = llmService.generateStructured(
+                    classificationPrompt, LlmOutputs.Classification.class, "reasoning", tokenSink);
+            log.info("Classified as {} with confidence {}", output.type(), output.confidence());
+            return IncidentClassification.builder()
+                    .type(output.type())
+                    .confidence(output.confidence())
+                    .reasoning(output.reasoning())
+                    .build();
+        });
+        if (classification.getSource() == ClassificationSource.EMBEDDING) {
+            streamText(tokenSink, classification.getReasoning());
+        }
+        streamText(tokenSink, "\n\nIs this correct?");
         
         context.setIncidentType(classification.getType());
         context.setClassificationConfidence(classification.getConfidence());
+        context.setClassificationSource(classification.getSource());
         context.setWorkflowState(WorkflowState.AWAITING_CLASSIFICATION_CONFIRMATION);
         contextService.updateContext(context);
         
@@ -86,11 +139,42 @@ public class ChatOrchestrationService {
                 .build();
     }
 
+	/**
+	 * Starts the emergency flow straight away for messages the keyword triage recognises.
+	 * The classification model still runs to measure the triage's precision, in the background lane
+	 * so it never takes a slot ahead of a real turn, and under its own call site.
+	 */
+	private ChatResponse handleTriagedEmergency(ConversationContext context, ChatRequest request) {
+		log.warn("EMERGENCY: triage routed session {} to the emergency flow", request.getSessionId());
+
+		context.setInitialMessage(request.getMessage());
+		context.setImageUrl(blobStore.toReference(request.getImageUrl()));
+		context.setIncidentType(IncidentType.EMERGENCY);
+		context.setClassificationSource(ClassificationSource.TRIAGE);
+
+		String classificationPrompt = PromptTemplates.buildClassificationPrompt(
+				request.getMessage(),
+				context.getImageUrl() != null
+		);
+		chatTaskExecutor.execute(traceSpans.bind(LlmPriority.BACKGROUND.bind(() -> {
+			try {
+				LlmOutputs.Classification output = LlmCallSite.TRIAGE_CHECK.callWith(() -> llmService.generateStructured(
+						classificationPrompt, LlmOutputs.Classification.class, null, null));
+				emergencyTriage.recordModelVerdict(output.type());
+			} catch (Exception e) {
+				log.debug("Could not confirm emergency triage: {}", e.getMessage());
+			}
+		})));
+
+		return handleEmergencyStart(context);
+	}
+
 	private ChatResponse handleClassificationConfirmation(ConversationContext context, ChatRequest request) {
 		log.info("Handling classification confirmation for session: {}", request.getSessionId());
 
 		String userResponse = request.getMessage();
 		boolean affirmative = llmService.isAffirmativeReply(userResponse);
+		preClassifier.recordUserVerdict(context.getClassificationSource(), affirmative);
 
 		if (affirmative) {
 			context.setWorkflowState(WorkflowState.CLASSIFICATION_CONFIRMED);
@@ -181,7 +265,7 @@ public class ChatOrchestrationService {
 				.build();
 	}
 
-	private ChatResponse handleReportConfirmation(ConversationContext context, ChatRequest request) {
+	private ChatResponse handleReportConfirmation(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
 		String userResponse = request.getMessage().toLowerCase().trim();
 		boolean affirmative = llmService.isAffirmativeReply(userResponse);
 
@@ -192,7 +276,7 @@ public class ChatOrchestrationService {
 			String detailsPrompt = PromptTemplates.buildDetailsCollectionPrompt(
 					context.getInitialMessage()
 			);
-			String llmResponse = llmService.generateResponse(detailsPrompt);
+			String llmResponse = generateText(detailsPrompt, tokenSink);
 
 			return ChatResponse.builder()
 					.message(llmResponse)
@@ -212,7 +296,7 @@ public class ChatOrchestrationService {
 		}
 	}
 
-	private ChatResponse handleHRDecision(ConversationContext context, ChatRequest request) {
+	private ChatResponse handleHRDecision(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
 		log.info("Handling HR decision for session: {}", request.getSessionId());
 
 		String userResponse = request.getMessage().toLowerCase().trim();
@@ -250,9 +334,10 @@ public class ChatOrchestrationService {
 					context.getInitialMessage(),
 					context.getCollectedFields()
 			);
-			String summaryResponse = llmService.generateResponse(summaryPrompt);
-			JsonNode summaryJson = llmService.parseJsonResponse(summaryResponse);
-			String summary = summaryJson.get("summary").asText();
+			streamText(tokenSink, "Here's a summary of your report:\n\n");
+			String summary = llmService.generateStructured(
+					summaryPrompt, LlmOutputs.ReportSummary.class, "summary", tokenSink).summary();
+			streamText(tokenSink, "\n\nWould you like to submit this report?");
 
 			context.updateField("summary", summary);
 
@@ -267,7 +352,7 @@ public class ChatOrchestrationService {
 		}
 	}
 
-	private ChatResponse handleDetailsCollection(ConversationContext context, ChatRequest request) {
+	private ChatResponse handleDetailsCollection(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
 		log.info("Collecting details for {} incident", context.getIncidentType());
 
 		String detailsPrompt = PromptTemplates.buildDetailsCollectionPrompt(
@@ -277,17 +362,11 @@ public class ChatOrchestrationService {
 				request.getMessage()
 		);
 
-		String llmResponse = llmService.generateResponse(detailsPrompt);
-		JsonNode jsonResponse = llmService.parseJsonResponse(llmResponse);
-
-		JsonNode extractedFields = jsonResponse.get("extractedFields");
-		extractedFields.fields().forEachRemaining(entry -> {
-			if (!entry.getValue().isNull() && !entry.getValue().asText().equals("null")) {
-				context.updateField(entry.getKey(), entry.getValue().asText());
-			}
-		});
+		LlmOutputs.DetailsExtraction details = llmService.generateStructured(
+				detailsPrompt, LlmOutputs.detailsOutputFor(context.getIncidentType()), "message", tokenSink);
+		details.extractedFieldValues().forEach(context::updateField);
 
-		String responseMessage = jsonResponse.get("message").asText();
+		String responseMessage = details.message();
 		boolean allFieldsCollected = Stream.of("what", "where").allMatch(context::hasField);
 
 		if (allFieldsCollected) {
@@ -313,9 +392,10 @@ public class ChatOrchestrationService {
 					context.getInitialMessage(),
 					context.getCollectedFields()
 			);
-			String summaryResponse = llmService.generateResponse(summaryPrompt);
-			JsonNode summaryJson = llmService.parseJsonResponse(summaryResponse);
-			String summary = summaryJson.get("summary").asText();
+			streamText(tokenSink, "Here's a summary of your report:\n\n");
+			String summary = llmService.generateStructured(
+					summaryPrompt, LlmOutputs.ReportSummary.class, "summary", tokenSink).summary();
+			streamText(tokenSink, "\n\nWould you like to submit this report?");
 
 			context.updateField("summary", summary);
 
@@ -339,7 +419,7 @@ public class ChatOrchestrationService {
 				.build();
 	}
 
-	private ChatResponse handleEmergencyFlow(ConversationContext context, ChatRequest request) {
+	private ChatResponse handleEmergencyFlow(ConversationContext context, ChatRequest request, Consumer<String> tokenSink) {
 		log.warn("Handling emergency flow for session: {}", request.getSessionId());
 
 		if (context.hasField("location")) {
@@ -373,20 +453,14 @@ public class ChatOrchestrationService {
 				request.getMessage()
 		);
 
-		String llmResponse = llmService.generateResponse(detailsPrompt);
-		JsonNode jsonResponse = llmService.parseJsonResponse(llmResponse);
-
-		JsonNode extractedFields = jsonResponse.get("extractedFields");
-		extractedFields.fields().forEachRemaining(entry -> {
-			if (!entry.getValue().isNull() && !entry.getValue().asText().equals("null")) {
-				context.updateField(entry.getKey(), entry.getValue().asText());
-			}
-		});
+		LlmOutputs.EmergencyDetails details = llmService.generateStructured(
+				detailsPrompt, LlmOutputs.EmergencyDetails.class, "message", tokenSink);
+		details.extractedFieldValues().forEach(context::updateField);
 
 		contextService.updateContext(context);
 
 		return ChatResponse.builder()
-				.message(jsonResponse.get("message").asText())
+				.message(details.message())
 				.incidentType(IncidentType.EMERGENCY)
 				.workflowState(context.getWorkflowState())
 				.metadata(Map.of(
@@ -438,6 +512,18 @@ public class ChatOrchestrationService {
 				.build();
 	}
 
+	private String generateText(String prompt, Consumer<String> tokenSink) {
+		return LlmCallSite.DETAILS.callWith(() -> tokenSink == null
+				? llmService.generateResponse(prompt)
+				: llmService.streamResponse(prompt, tokenSink));
+	}
+
+	private void streamText(Consumer<String> tokenSink, String text) {
+		if (tokenSink != null) {
+			tokenSink.accept(text);
+		}
+	}
+
 	private ChatResponse buildErrorResponse(String errorMessage) {
 		return ChatResponse.builder()
 				.message("I encountered an error: " + errorMessage)
@@ -0,0 +1,70 @@
+package com.smartallies.incident.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a chat turn off the request thread and relays it as server-sent events:
+ * "token" events carry message text as the LLM generates it, a final "complete"
+ * event carries the full response, and "error" replaces it when the turn fails.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatStreamService {
+
+    private static final long STREAM_TIMEOUT_MS = 180_000;
+
+    private final ExecutorService chatTaskExecutor;
+    private final TraceSpans traceSpans;
+
+    public SseEmitter stream(String sessionId, Function<Consumer<String>, Object> chatTurn) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        chatTaskExecutor.execute(traceSpans.bind(() -> {
+            try {
+                Object response = chatTurn.apply(token -> sendEvent(emitter, "token", Map.of("text", token)));
+                sendEvent(emitter, "complete", response);
+                emitter.complete();
+            } catch (SessionBusyException e) {
+                log.warn("Previous turn still running for session: {}", sessionId);
+                sendEvent(emitter, "error", Map.of("message", e.getMessage()));
+                emitter.complete();
+            } catch (LlmCapacityExceededException e) {
+                log.warn("No free LLM slot for session {}: {}", sessionId, e.getMessage());
+                sendEvent(emitter, "error", Map.of(
+                        "message", "The assistant is busy right now, please try again shortly."
+                ));
+                emitter.complete();
+            } catch (Exception e) {
+                log.error("Error streaming chat turn for session: {}", sessionId, e);
+                sendEvent(emitter, "error", Map.of(
+                        "message", "I encountered an error processing your request. Please try again."
+                ));
+                emitter.complete();
+            }
+        }));
+
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(eventName)
+                    .data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the turn still completes so the session state stays consistent.
+            log.debug("Dropping '{}' event for disconnected client: {}", eventName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ClusterConfig;
+import com.smartallies.incident.model.ClusterRingChangedEvent;
+import com.smartallies.incident.util.ConsistentHashRing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Which nodes of the statically configured cluster are up, as a consistent-hash ring of session ids.
+ *
+ * <p>Every node starts with the full configured ring and probes the others' health endpoint.
+ * A node that fails {@code cluster.failure-threshold} probes in a row leaves the ring, and rejoins
+ * with its first successful probe. Nodes may disagree about the ring for a probe interval; the
+ * routing filter never forwards a request twice, so that only costs a misplaced turn, not a loop.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterMembership {
+
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ClusterConfig clusterConfig;
+    private final HttpClient clusterHttpClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, Integer> failedProbes = new ConcurrentHashMap<>();
+    private final String reportNode;
+    private volatile ConsistentHashRing ring;
+    private ScheduledExecutorService prober;
+
+    public ClusterMembership(
+            ClusterConfig clusterConfig,
+            HttpClient clusterHttpClient,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        if (!clusterConfig.getNodes().contains(clusterConfig.getSelf())) {
+            throw new IllegalStateException("cluster.self " + clusterConfig.getSelf()
+                    + " is not one of cluster.nodes " + clusterConfig.getNodes());
+        }
+        if (clusterConfig.getSharedSecret().isBlank()) {
+            throw new IllegalStateException("cluster.shared-secret must be set in cluster mode, "
+                    + "otherwise anyone reaching the port can push sessions to this node");
+        }
+        this.reportNode = clusterConfig.getReportNode().isBlank()
+                ? clusterConfig.getNodes().get(0)
+                : clusterConfig.getReportNode();
+        if (!clusterConfig.getNodes().contains(reportNode)) {
+            throw new IllegalStateException("cluster.report-node " + reportNode
+                    + " is not one of cluster.nodes " + clusterConfig.getNodes());
+        }
+        this.clusterConfig = clusterConfig;
+        this.clusterHttpClient = clusterHttpClient;
+        this.eventPublisher = eventPublisher;
+        this.ring = new ConsistentHashRing(clusterConfig.getNodes(), clusterConfig.getVirtualNodes());
+
+        Gauge.builder("cluster.nodes.alive", this, membership -> membership.ring.nodes().size())
+                .description("Nodes currently on the hash ring, this one included")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startProbing() {
+        log.info("Cluster node {} starting with ring {}", clusterConfig.getSelf(), ring.nodes());
+        prober = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cluster-prober").daemon().factory());
+        long intervalMillis = clusterConfig.getProbeInterval().toMillis();
+        prober.scheduleWithFixedDelay(this::probe, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stopProbing() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
+    }
+
+    public String ownerOf(String sessionId) {
+        return ring.ownerOf(sessionId);
+    }
+
+    public boolean isSelf(String node) {
+        return clusterConfig.getSelf().equals(node);
+    }
+
+    /**
+     * @return the node that stores the reports of the whole cluster, whether or not it is up
+     */
+    public String reportNode() {
+        return reportNode;
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    void probe() {
+        try {
+            ConsistentHashRing current = ring;
+            Set<String> alive = new TreeSet<>();
+            alive.add(clusterConfig.getSelf());
+            for (String node : clusterConfig.getNodes()) {
+                if (isSelf(node)) {
+                    continue;
+                }
+                if (isHealthy(node)) {
+                    failedProbes.remove(node);
+                    alive.add(node);
+                } else {
+                    int failures = failedProbes.merge(node, 1, Integer::sum);
+                    if (failures < clusterConfig.getFailureThreshold() && current.nodes().contains(node)) {
+                        alive.add(node);
+                    }
+                }
+            }
+
+            if (!alive.equals(new TreeSet<>(current.nodes()))) {
+                ConsistentHashRing updated = new ConsistentHashRing(alive, clusterConfig.getVirtualNodes());
+                ring = updated;
+                log.info("Cluster ring changed from {} to {}", current.nodes(), updated.nodes());
+                eventPublisher.publishEvent(new ClusterRingChangedEvent(current, updated));
+            }
+        } catch (Exception e) {
+            log.error("Cluster probe failed", e);
+        }
+    }
+
+    private boolean isHealthy(String node) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(node + "/api/health"))
+                    .timeout(PROBE_TIMEOUT)
+                    .GET()
+                    .build();
+            return clusterHttpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.debug("Cluster node {} did not answer its probe: {}", node, e.getMessage());
+            return false;
+        }
+    }
+}
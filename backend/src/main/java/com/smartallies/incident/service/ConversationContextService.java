@@ -1,46 +1,51 @@
 package com.smartallies.incident.service;
 
 import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.SessionState;
 import com.smartallies.incident.model.WorkflowState;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ConversationContextService {
 
-    private final Map<String, ConversationContext> contextStore = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
 
     public ConversationContext getOrCreateContext(String sessionId) {
-        return contextStore.computeIfAbsent(sessionId, id -> {
-            log.info("Creating new conversation context for session: {}", id);
-            return ConversationContext.builder()
-                    .sessionId(id)
-                    .workflowState(WorkflowState.INITIAL)
-                    .build();
-        });
+        SessionState session = sessionRegistry.getOrCreate(sessionId);
+        synchronized (session) {
+            if (session.getContext() == null) {
+                log.info("Creating new conversation context for session: {}", sessionId);
+                session.setContext(ConversationContext.builder()
+                        .sessionId(sessionId)
+                        .workflowState(WorkflowState.INITIAL)
+                        .build());
+            }
+            return session.getContext();
+        }
     }
 
     public ConversationContext getContext(String sessionId) {
-        return contextStore.get(sessionId);
+        SessionState session = sessionRegistry.find(sessionId);
+        return session == null ? null : session.getContext();
     }
 
     public void updateContext(ConversationContext context) {
         log.debug("Updating context for session: {}, state: {}", 
                   context.getSessionId(), 
                   context.getWorkflowState());
-        contextStore.put(context.getSessionId(), context);
+        sessionRegistry.getOrCreate(context.getSessionId()).setContext(context);
     }
 
     public void clearContext(String sessionId) {
         log.info("Clearing context for session: {}", sessionId);
-        contextStore.remove(sessionId);
+        sessionRegistry.remove(sessionId);
     }
 
     public boolean hasContext(String sessionId) {
-        return contextStore.containsKey(sessionId);
+        return getContext(sessionId) != null;
     }
 }
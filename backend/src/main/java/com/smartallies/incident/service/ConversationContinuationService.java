@@ -0,0 +1,137 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ConversationConfig;
+import com.smartallies.incident.config.LlmConfig;
+import com.smartallies.incident.model.ContinuationState;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.SessionState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Generates HR/Samaritan replies without re-sending the whole conversation every turn.
+ * Each session keeps the Ollama context of its last turn; the next turn sends only the
+ * new message on top of it. Whenever that context cannot be used (first turn, reply was
+ * post-processed, context plus the new message would not leave the reply reserve free in the
+ * context window, Ollama rejected it) the conversation is re-sent once
+ * to build a fresh context, and if that fails too the stable-prefix chat layout is used.
+ * A streamed reply is only retried while none of it reached the client; after that the
+ * failure is passed on, since a second reply would be appended to the first.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationContinuationService {
+
+    private final SessionRegistry sessionRegistry;
+    private final LlmService llmService;
+    private final LlmConfig llmConfig;
+    private final ConversationConfig conversationConfig;
+
+    /**
+     * @param earlierTurns the conversation before the user's new message
+     * @param tokenSink    receives the reply as it is generated, or null for a blocking call
+     */
+    public String generateReply(
+            String sessionId,
+            String systemPrompt,
+            List<ConversationTurn> earlierTurns,
+            String userMessage,
+            Consumer<String> tokenSink) {
+        if (!llmConfig.isSessionCacheEnabled()) {
+            return llmService.generateConversationResponse(systemPrompt, earlierTurns, userMessage, tokenSink);
+        }
+
+        SessionState session = sessionRegistry.find(sessionId);
+        ContinuationState state = session == null ? null : session.getContinuation();
+        TrackingSink sink = tokenSink == null ? null : new TrackingSink(tokenSink);
+        int promptTokenBudget = conversationConfig.getContextWindowTokens() - conversationConfig.getReplyReserveTokens();
+        if (state != null && state.continues(earlierTurns, userMessage, promptTokenBudget)) {
+            try {
+                OllamaGenerateClient.GenerateCall call =
+                        new OllamaGenerateClient.GenerateCall(null, userMessage, state.context());
+                return remember(sessionId, earlierTurns, llmService.generateContinuation(call, sink));
+            } catch (LlmCapacityExceededException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                forget(sessionId);
+                throwIfStreamed(sink, e);
+                log.warn("Cached context for session {} could not be continued, re-sending the conversation: {}",
+                        sessionId, e.getMessage());
+            }
+        }
+
+        forget(sessionId);
+        try {
+            OllamaGenerateClient.GenerateCall call = new OllamaGenerateClient.GenerateCall(
+                    systemPrompt, renderConversationPrompt(earlierTurns, userMessage), null);
+            return remember(sessionId, earlierTurns, llmService.generateContinuation(call, sink));
+        } catch (LlmCapacityExceededException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throwIfStreamed(sink, e);
+            log.warn("Ollama generate unavailable for session {}, using the chat API: {}", sessionId, e.getMessage());
+            return llmService.generateConversationResponse(systemPrompt, earlierTurns, userMessage, tokenSink);
+        }
+    }
+
+    public void forget(String sessionId) {
+        SessionState session = sessionRegistry.find(sessionId);
+        if (session != null) {
+            session.setContinuation(null);
+        }
+    }
+
+    private String remember(String sessionId, List<ConversationTurn> earlierTurns, OllamaGenerateClient.GenerateResult result) {
+        SessionState session = sessionRegistry.find(sessionId);
+        if (session != null && result.context() != null && !result.context().isEmpty()) {
+            session.setContinuation(new ContinuationState(result.context(), earlierTurns.size() + 2, result.response()));
+        }
+        log.debug("Session {} reply evaluated {} prompt tokens", sessionId, result.promptEvalCount());
+        return result.response();
+    }
+
+    private static void throwIfStreamed(TrackingSink sink, RuntimeException failure) {
+        if (sink != null && sink.emitted) {
+            throw failure;
+        }
+    }
+
+    String renderConversationPrompt(List<ConversationTurn> earlierTurns, String userMessage) {
+        if (earlierTurns.isEmpty()) {
+            return userMessage;
+        }
+
+        StringBuilder prompt = new StringBuilder("Conversation so far (\"You\" are your earlier replies):\n");
+        for (ConversationTurn turn : earlierTurns) {
+            prompt.append(turn.speaker() == ConversationTurn.Speaker.USER ? "User: " : "You: ")
+                    .append(turn.text())
+                    .append('\n');
+        }
+        prompt.append("\nUser's new message: ").append(userMessage);
+        return prompt.toString();
+    }
+
+    /**
+     * Passes tokens on and remembers whether any was sent.
+     */
+    private static final class TrackingSink implements Consumer<String> {
+
+        private final Consumer<String> delegate;
+        private volatile boolean emitted;
+
+        TrackingSink(Consumer<String> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(String token) {
+            emitted = true;
+            delegate.accept(token);
+        }
+    }
+}
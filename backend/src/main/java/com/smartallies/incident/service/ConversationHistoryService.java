@@ -0,0 +1,81 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ConversationConfig;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.util.PromptTemplates;
+import com.smartallies.incident.util.TokenEstimator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps HR/Samaritan prompts inside the model's context window: assembles the summary plus
+ * as many recent turns as the token budget allows, and compacts older turns into the
+ * summary in the background once a conversation grows past the configured threshold.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationHistoryService {
+
+    private final LlmService llmService;
+    private final ConversationConfig conversationConfig;
+    private final ExecutorService chatTaskExecutor;
+    private final TraceSpans traceSpans;
+
+    /**
+     * @return the system prompt extended with the conversation summary, and the recent turns that fit
+     *         next to it and the user's new message
+     */
+    public PromptHistory fitToContextWindow(ConversationHistory history, String systemPrompt, String userMessage) {
+        String summary = history.getSummary();
+        String promptWithSummary = summary.isBlank()
+                ? systemPrompt
+                : systemPrompt + "\nSummary of the earlier conversation:\n" + summary + "\n";
+
+        int turnBudget = conversationConfig.getContextWindowTokens()
+                - conversationConfig.getReplyReserveTokens()
+                - TokenEstimator.estimateTokens(promptWithSummary)
+                - TokenEstimator.estimateTokens(userMessage);
+
+        return new PromptHistory(promptWithSummary, history.recentTurnsWithinBudget(Math.max(0, turnBudget)));
+    }
+
+    public void compactInBackground(ConversationHistory history) {
+        history.startCompaction(
+                conversationConfig.getHistoryVerbatimTurns(),
+                conversationConfig.getHistoryCompactionThresholdTurns()
+        ).ifPresent(turnsToFold -> chatTaskExecutor.execute(
+                traceSpans.bind(LlmPriority.BACKGROUND.bind(() -> compact(history, turnsToFold)))));
+    }
+
+    private void compact(ConversationHistory history, List<ConversationTurn> turnsToFold) {
+        try {
+            String summaryPrompt = PromptTemplates.buildConversationSummaryPrompt(
+                    history.getSummary(),
+                    renderTranscript(turnsToFold)
+            );
+            String updatedSummary = LlmCallSite.HISTORY_SUMMARY.callWith(
+                    () -> llmService.generateResponse(summaryPrompt)).trim();
+            history.completeCompaction(updatedSummary, turnsToFold.size());
+            log.debug("Compacted {} conversation turns into a {}-token summary",
+                    turnsToFold.size(), TokenEstimator.estimateTokens(updatedSummary));
+        } catch (Exception e) {
+            log.warn("Conversation compaction failed, keeping turns verbatim: {}", e.getMessage());
+            history.abortCompaction();
+        }
+    }
+
+    private String renderTranscript(List<ConversationTurn> turns) {
+        return turns.stream()
+                .map(turn -> (turn.speaker() == ConversationTurn.Speaker.USER ? "User: " : "Partner: ") + turn.text())
+                .collect(Collectors.joining("\n"));
+    }
+
+    public record PromptHistory(String systemPrompt, List<ConversationTurn> earlierTurns) {}
+}
@@ -0,0 +1,76 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.model.IncidentType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Keyword triage for initial messages that unmistakably describe an emergency, so the session
+ * can enter the emergency flow without waiting for the classification model. Phrases are kept
+ * specific ("on fire", not "fire") because a false positive sends the user to the emergency flow,
+ * and states that also fit equipment ("collapsed", "not responding") only count for a person.
+ */
+@Slf4j
+@Component
+public class EmergencyTriage {
+
+    // Who can be in the states below; a machine or a building "not responding" or "collapsed" is a facility report
+    private static final String PERSON = "(someone|somebody|a person|he|she|i|"
+            + "(colleague|co ?worker|employee|man|woman|guy|lady|boss|manager|friend|worker|visitor|child|kid|student)s?)";
+    private static final String PLACE = "((in|at|on|near) (the |our |my )?\\w+ )?";
+    private static final String AUXILIARIES = "((is|are|was|were|am|s|m|has|have|had|just|suddenly|now|still|been) )*";
+    // "not responding to my emails" is not an emergency either
+    private static final String PERSON_CONDITIONS = "(collapsed|unresponsive(?! to\\b)|not responding(?! to\\b)|choking)";
+
+    private static final List<Pattern> EMERGENCY_PATTERNS = List.of(
+            "not breathing", "can ?t breathe", "cannot breathe", "stopped breathing", "trouble breathing",
+            "unconscious", "passed out", "fainted",
+            PERSON + " " + PLACE + AUXILIARIES + PERSON_CONDITIONS,
+            "heart attack", "chest pains?", "cardiac arrest", "(having|had) a stroke", "seizure", "convulsing",
+            "bleeding (heavily|badly|a lot)", "overdosed?",
+            "on fire", "there (is|s) a fire", "fire (has )?broken out", "building is burning", "smoke (is )?coming",
+            "smell (of )?(smoke|gas)", "gas leak", "(there (was|has been|s) an?|heard an?( loud)?) explosion(?! of\\b)",
+            "suicid(e|al)", "kill (myself|himself|herself|themselves)", "end (my|his|her|their) life",
+            "has a (gun|knife|weapon)", "with a (gun|knife|weapon)", "active shooter", "armed (man|person|intruder)",
+            "call (an )?ambulance"
+    ).stream()
+            .map(phrase -> Pattern.compile("\\b" + phrase + "\\b"))
+            .toList();
+
+    private final MeterRegistry meterRegistry;
+
+    public EmergencyTriage(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEmergency(String message) {
+        if (message == null || message.isBlank()) {
+            return false;
+        }
+        String normalized = message.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}\\s]", " ").replaceAll("\\s+", " ");
+        for (Pattern pattern : EMERGENCY_PATTERNS) {
+            if (pattern.matcher(normalized).find()) {
+                log.warn("EMERGENCY: triage matched '{}'", pattern.pattern());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records whether the classification model, asked after the fact, agreed with a triaged emergency.
+     */
+    public void recordModelVerdict(IncidentType modelType) {
+        Counter.builder("emergency.triage.model.verdicts")
+                .description("Classification model verdicts on messages the keyword triage marked as emergencies")
+                .tag("agreed", String.valueOf(modelType == IncidentType.EMERGENCY))
+                .register(meterRegistry)
+                .increment();
+    }
+}
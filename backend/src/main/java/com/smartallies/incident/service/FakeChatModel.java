@@ -0,0 +1,48 @@
+package com.smartallies.incident.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * {@link ChatModel} over {@link FakeLanguageModel}, replacing the Ollama chat model under the {@code fake-llm} profile.
+ */
+@Service
+@Primary
+@Profile("fake-llm")
+@RequiredArgsConstructor
+public class FakeChatModel implements ChatModel {
+
+    private final FakeLanguageModel model;
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String reply = model.reply(prompt.getContents());
+        model.emit(reply, null);
+        return response(reply);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.create(sink -> {
+            try {
+                model.emit(model.reply(prompt.getContents()), chunk -> sink.next(response(chunk)));
+                sink.complete();
+            } catch (RuntimeException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(text)));
+    }
+}
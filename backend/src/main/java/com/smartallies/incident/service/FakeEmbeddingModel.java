@@ -0,0 +1,73 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.FakeLlmConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Embeddings for the {@code fake-llm} profile: words are hashed into a fixed number of signed buckets and the
+ * vector is normalised, so texts sharing words stay close and the embedding classifier still has something to match.
+ */
+@Service
+@Primary
+@Profile("fake-llm")
+@RequiredArgsConstructor
+public class FakeEmbeddingModel implements EmbeddingModel {
+
+    private final FakeLlmConfig config;
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        FakeLanguageModel.pause(config.getEmbeddingLatency().toNanos());
+        List<String> texts = request.getInstructions();
+        List<Embedding> embeddings = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            embeddings.add(new Embedding(hashedVector(texts.get(i)), i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return config.getEmbeddingDimensions();
+    }
+
+    private float[] hashedVector(String text) {
+        float[] vector = new float[config.getEmbeddingDimensions()];
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            int hash = word.hashCode();
+            vector[Math.floorMod(hash, vector.length)] += (hash & 0x10000) == 0 ? 1 : -1;
+        }
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
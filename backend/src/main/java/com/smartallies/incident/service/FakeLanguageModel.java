@@ -0,0 +1,241 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartallies.incident.config.FakeLlmConfig;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.util.TokenEstimator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the Ollama model under the {@code fake-llm} profile. Every prompt type gets a canned answer,
+ * paced like a real model: a log-normal time to first token, then a steady token rate, with a configurable
+ * share of calls failing. Structured calls are told apart by the fields their schema asks for (in JSON mode,
+ * by the fields of the example in the prompt), and the few verdicts the workflow branches on follow the
+ * user's message, so sessions move through the same states as with a real model.
+ */
+@Slf4j
+@Service
+@Primary
+@Profile("fake-llm")
+public class FakeLanguageModel implements OllamaGenerateClient {
+
+    private static final int CHARACTERS_PER_TOKEN = 4;
+    private static final double P99_STANDARD_SCORE = 2.326;
+    private static final int VOCABULARY_SIZE = 32_000;
+
+    private static final Pattern JSON_FIELD = Pattern.compile("\"(\\w+)\"\\s*:");
+    // The user's words inside the classification, affirmative and conclusion prompts
+    private static final Pattern USER_MESSAGE = Pattern.compile(
+            "(?:Here's what you told me|User reply|last message(?: was)?):\\s*\"?([^\\n\"]*)");
+
+    private static final List<String> EMERGENCY_WORDS = List.of(
+            "unconscious", "collapsed", "breath", "bleeding", "fire", "smoke", "ambulance", "heart attack",
+            "seizure", "weapon", "gun", "knife", "suicid");
+    private static final List<String> FACILITY_WORDS = List.of(
+            "leak", "broken", "elevator", "light", "heating", "air conditioning", "toilet", "door", "window",
+            "printer", "ceiling", "wifi", "projector", "chair", "desk");
+    private static final List<String> CLOSING_WORDS = List.of(
+            "bye", "thank", "that's all", "that is all", "nothing else", "i'm done", "all good");
+    private static final Set<String> NEGATIVE_WORDS = Set.of(
+            "no", "nope", "nah", "not", "don", "dont", "never", "cancel", "wrong");
+
+    private static final String SUPPORT_REPLY = "I'm sorry you're going through this, and thank you for trusting "
+            + "me with it. Could you tell me a little more about when and where it happened, and who was involved? "
+            + "Take your time; what you share here stays confidential.";
+    private static final String SAMARITAN_REPLY = "Help is on the way. Stay with them, keep them on their side and "
+            + "check that they are breathing. Tell me straight away if anything changes.";
+    private static final String CONVERSATION_SUMMARY = "The employee described the incident, when and where it "
+            + "happened and who was involved, and was told what the next steps are.";
+
+    private final FakeLlmConfig config;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double latencyMu;
+    private final double latencySigma;
+
+    public FakeLanguageModel(FakeLlmConfig config) {
+        this.config = config;
+        double median = Math.max(1, config.getFirstTokenLatencyMedian().toNanos());
+        double p99 = Math.max(median, config.getFirstTokenLatencyP99().toNanos());
+        this.latencyMu = Math.log(median);
+        this.latencySigma = Math.log(p99 / median) / P99_STANDARD_SCORE;
+        log.warn("Fake LLM in use: first token median {}, p99 {}, {} tokens/s, failure rate {}",
+                config.getFirstTokenLatencyMedian(), config.getFirstTokenLatencyP99(),
+                config.getTokensPerSecond(), config.getFailureRate());
+    }
+
+    @Override
+    public GenerateResult generate(GenerateCall call, Consumer<String> tokenSink) {
+        String response = call.format() == null
+                ? reply(call.prompt())
+                : structuredAnswer(call.prompt(), call.format());
+        emit(response, tokenSink);
+
+        int promptTokens = TokenEstimator.estimateTokens(call.system()) + TokenEstimator.estimateTokens(call.prompt());
+        int completionTokens = TokenEstimator.estimateTokens(response);
+        List<Integer> context = new ArrayList<>(call.context() == null ? List.of() : call.context());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < promptTokens + completionTokens; i++) {
+            context.add(random.nextInt(VOCABULARY_SIZE));
+        }
+        return new GenerateResult(response, context, promptTokens, completionTokens);
+    }
+
+    /**
+     * Free-text answer to a chat or continuation prompt.
+     */
+    String reply(String prompt) {
+        String lowerCase = prompt.toLowerCase(Locale.ROOT);
+        if (lowerCase.contains("running summary")) {
+            return CONVERSATION_SUMMARY;
+        }
+        if (lowerCase.contains("samaritan")) {
+            return SAMARITAN_REPLY;
+        }
+        return SUPPORT_REPLY;
+    }
+
+    /**
+     * Waits out the time to first token, fails if this call is one of the injected failures, then
+     * hands the text to the sink a token at a time at the configured rate.
+     *
+     * @param tokenSink receives the text in token-sized chunks, or null to wait for the whole text at once
+     */
+    void emit(String text, Consumer<String> tokenSink) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        pause((long) Math.exp(latencyMu + latencySigma * random.nextGaussian()));
+        if (random.nextDouble() < config.getFailureRate()) {
+            throw new IllegalStateException("Injected fake LLM failure");
+        }
+
+        long nanosPerToken = config.getTokensPerSecond() > 0 ? (long) (1e9 / config.getTokensPerSecond()) : 0;
+        if (tokenSink == null) {
+            pause(nanosPerToken * TokenEstimator.estimateTokens(text));
+            return;
+        }
+        for (int start = 0; start < text.length(); start += CHARACTERS_PER_TOKEN) {
+            tokenSink.accept(text.substring(start, Math.min(text.length(), start + CHARACTERS_PER_TOKEN)));
+            pause(nanosPerToken);
+        }
+    }
+
+    static void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating", e);
+        }
+    }
+
+    private String structuredAnswer(String prompt, Object format) {
+        Set<String> fields = new HashSet<>();
+        if (format instanceof Map<?, ?> schema) {
+            collectPropertyNames(schema, fields);
+        } else {
+            Matcher matcher = JSON_FIELD.matcher(prompt);
+            while (matcher.find()) {
+                fields.add(matcher.group(1));
+            }
+        }
+        String userMessage = userMessage(prompt);
+
+        Map<String, Object> answer = new LinkedHashMap<>();
+        if (fields.contains("affirmative")) {
+            answer.put("affirmative", Arrays.stream(userMessage.split("[^\\p{L}]+")).noneMatch(NEGATIVE_WORDS::contains));
+        } else if (fields.contains("concluded") || fields.contains("resolved")) {
+            boolean closing = containsAny(userMessage, CLOSING_WORDS);
+            answer.put(fields.contains("concluded") ? "concluded" : "resolved", closing);
+            answer.put("reasoning", closing ? "The user signalled they are done" : "The conversation is still going on");
+        } else if (fields.contains("hasLocation")) {
+            answer.put("extractedFields", Map.of(
+                    "location", "Floor 3, meeting room 3B",
+                    "condition", "Unconscious but breathing"));
+            answer.put("message", SAMARITAN_REPLY);
+            answer.put("hasLocation", true);
+        } else if (fields.contains("extractedFields") && fields.contains("who")) {
+            answer.put("extractedFields", Map.of(
+                    "what", "Repeated comments about my appearance",
+                    "when", "Every Monday stand-up since March",
+                    "where", "Meeting room 4B",
+                    "who", "My team lead"));
+            answer.put("message", "Thank you for sharing this, I know it isn't easy. I have what I need for the report.");
+            answer.put("allFieldsCollected", true);
+        } else if (fields.contains("extractedFields")) {
+            answer.put("extractedFields", Map.of(
+                    "what", "Water leaking from the ceiling",
+                    "where", "Floor 3, next to the elevators"));
+            answer.put("message", "Thanks, that's everything I need to report the issue.");
+            answer.put("allFieldsCollected", true);
+        } else if (fields.contains("summary")) {
+            answer.put("summary", CONVERSATION_SUMMARY);
+        } else if (fields.contains("confidence")) {
+            IncidentType type = classify(userMessage);
+            answer.put("type", type);
+            answer.put("confidence", 0.9);
+            answer.put("reasoning", switch (type) {
+                case HUMAN -> "It sounds like this is about how someone at work has been treating you.";
+                case FACILITY -> "It sounds like something in the building needs fixing.";
+                case EMERGENCY -> "This sounds urgent, and someone may be in danger right now.";
+            });
+        } else {
+            log.warn("Fake LLM has no canned answer for output fields {}", fields);
+        }
+
+        try {
+            return objectMapper.writeValueAsString(answer);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot write canned answer", e);
+        }
+    }
+
+    private static IncidentType classify(String userMessage) {
+        if (containsAny(userMessage, EMERGENCY_WORDS)) {
+            return IncidentType.EMERGENCY;
+        }
+        if (containsAny(userMessage, FACILITY_WORDS)) {
+            return IncidentType.FACILITY;
+        }
+        return IncidentType.HUMAN;
+    }
+
+    private static String userMessage(String prompt) {
+        Matcher matcher = USER_MESSAGE.matcher(prompt);
+        return (matcher.find() ? matcher.group(1) : prompt).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsAny(String text, List<String> words) {
+        return words.stream().anyMatch(text::contains);
+    }
+
+    private static void collectPropertyNames(Object node, Set<String> names) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("properties") instanceof Map<?, ?> properties) {
+                properties.keySet().forEach(name -> names.add(String.valueOf(name)));
+            }
+            map.values().forEach(value -> collectPropertyNames(value, names));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectPropertyNames(value, names));
+        }
+    }
+}
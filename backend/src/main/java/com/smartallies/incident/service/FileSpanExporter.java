@@ -0,0 +1,142 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartallies.incident.config.TracingConfig;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends finished spans to a local file as JSON lines, so traces can be read without a collector:
+ * {@code jq -c 'select(.traceId == "...")' data/traces/spans.ndjson}. Spring Boot hands every
+ * {@link SpanExporter} bean to the OpenTelemetry SDK, which batches spans off the request threads.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tracing.export.enabled", havingValue = "true", matchIfMissing = true)
+public class FileSpanExporter implements SpanExporter {
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BufferedWriter writer;
+    private long fileBytes;
+
+    public FileSpanExporter(TracingConfig tracingConfig) {
+        this.file = Path.of(tracingConfig.getFile());
+        this.maxFileBytes = tracingConfig.getMaxFileSize().toBytes();
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            if (writer == null) {
+                open();
+            }
+            for (SpanData span : spans) {
+                String line = objectMapper.writeValueAsString(toJson(span));
+                writer.write(line);
+                writer.newLine();
+                fileBytes += line.length() + 1;
+            }
+            writer.flush();
+            if (fileBytes >= maxFileBytes) {
+                rollOver();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Could not write {} spans to {}: {}", spans.size(), file, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        // Every export is flushed before it returns
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Could not close span file {}: {}", file, e.getMessage());
+            }
+            writer = null;
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileBytes = Files.size(file);
+    }
+
+    private void rollOver() throws IOException {
+        writer.close();
+        writer = null;
+        Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private static Map<String, Object> toJson(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid()) {
+            json.put("parentSpanId", parent.getSpanId());
+        }
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("start", Instant.EPOCH.plusNanos(span.getStartEpochNanos()).toString());
+        json.put("durationMs", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e6);
+        json.put("status", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            json.put("statusDescription", span.getStatus().getDescription());
+        }
+
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+
+        List<Map<String, Object>> events = span.getEvents().stream()
+                .map(event -> eventJson(event, span.getStartEpochNanos()))
+                .toList();
+        if (!events.isEmpty()) {
+            json.put("events", events);
+        }
+        return json;
+    }
+
+    private static Map<String, Object> eventJson(EventData event, long spanStartNanos) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("name", event.getName());
+        json.put("atMs", (event.getEpochNanos() - spanStartNanos) / 1e6);
+        return json;
+    }
+}
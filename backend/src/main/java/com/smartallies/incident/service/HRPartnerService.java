@@ -1,44 +1,57 @@
 package com.smartallies.incident.service;
 
+import com.smartallies.incident.config.ConversationConfig;
 import com.smartallies.incident.dto.ConnectHRResponse;
 import com.smartallies.incident.dto.HRChatResponse;
 import com.smartallies.incident.dto.IncidentReportResponse;
 import com.smartallies.incident.dto.SubmitReportRequest;
 import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.HRPartner;
+import com.smartallies.incident.model.LlmOutputs;
 import com.smartallies.incident.model.HRSession;
+import com.smartallies.incident.model.SessionState;
 import com.smartallies.incident.model.WorkflowState;
+import com.smartallies.incident.util.PromptTemplates;
+import com.smartallies.incident.util.TranscriptCutoffStreamer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class HRPartnerService {
 
-    private final Map<String, HRSession> hrSessions = new ConcurrentHashMap<>();
-    private final Map<String, List<String>> conversationHistory = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
     private final ConversationContextService contextService;
-    private final ChatClient.Builder chatClientBuilder;
     private final LlmService llmService;
+    private final ConversationContinuationService continuationService;
+    private final ConversationHistoryService historyService;
     private final IncidentReportService incidentReportService;
+    private final ConversationConfig conversationConfig;
+    private final ExecutorService chatTaskExecutor;
+    private final TraceSpans traceSpans;
+    private final ChatLatencyRecorder latencyRecorder;
+    private final SessionLocks sessionLocks;
 
-    private static final List<HRPartner> HR_PARTNERS = List.of(
-            new HRPartner("Sarah Mitchell", "https://i.pravatar.cc/150?img=1"),
-            new HRPartner("Michael Chen", "https://i.pravatar.cc/150?img=12"),
-            new HRPartner("Emily Rodriguez", "https://i.pravatar.cc/150?img=5"),
-            new HRPartner("David Kim", "https://i.pravatar.cc/150?img=8")
-    );
+    // Where the model starts writing the user's side of the conversation
+    private static final List<String> STOP_MARKERS = List.of("User:", "\nUser");
+    private static final int CONCLUSION_WINDOW_TURNS = 8;
 
     public ConnectHRResponse connectToHR(String sessionId) {
+        return sessionLocks.runExclusive(sessionId, () -> openHRSession(sessionId));
+    }
+
+    private ConnectHRResponse openHRSession(String sessionId) {
         log.info("Connecting session {} to HR partner", sessionId);
 
         ConversationContext context = contextService.getContext(sessionId);
@@ -50,49 +63,67 @@ public class HRPartnerService {
         
         HRSession session = HRSession.builder()
                 .sessionId(sessionId)
-                .hrPartnerName(partner.name())
-                .hrPartnerImage(partner.image())
-                .hrPartnerId(UUID.randomUUID().toString())
+                .partner(partner)
                 .isActive(true)
-                .startedAt(LocalDateTime.now())
+                .startedAtMillis(System.currentTimeMillis())
                 .build();
 
-        hrSessions.put(sessionId, session);
-        conversationHistory.put(sessionId, new ArrayList<>());
+        SessionState sessionState = sessionRegistry.getOrCreate(sessionId);
+        sessionState.setHrHistory(new ConversationHistory());
+        sessionState.setHrSession(session);
         
         String greeting = String.format(
                 "Hello, I'm %s from HR. I'm here to help you with your concern. " +
                 "You can speak freely - this conversation is confidential and you remain anonymous. " +
                 "How can I assist you today?",
-                partner.name()
+                partner.displayName()
         );
 
         return ConnectHRResponse.builder()
                 .connected(true)
-                .hrPartnerName(partner.name())
+                .hrPartnerName(partner.displayName())
                 .hrPartnerImage(partner.image())
                 .message(greeting)
                 .build();
     }
 
     public HRChatResponse sendMessageToHR(String sessionId, String userMessage) {
+        return sendMessageToHR(sessionId, userMessage, null);
+    }
+
+    public HRChatResponse sendMessageToHR(String sessionId, String userMessage, Consumer<String> tokenSink) {
+        return sessionLocks.runExclusive(sessionId, () -> latencyRecorder.recordTurn(LlmPriority.INTERACTIVE,
+                () -> handleHRMessage(sessionId, userMessage, tokenSink)));
+    }
+
+    private HRChatResponse handleHRMessage(String sessionId, String userMessage, Consumer<String> tokenSink) {
         log.info("Processing HR chat message for session: {}", sessionId);
 
-        HRSession session = hrSessions.get(sessionId);
+        SessionState sessionState = sessionRegistry.find(sessionId);
+        HRSession session = sessionState == null ? null : sessionState.getHrSession();
         if (session == null || !session.isActive()) {
             throw new IllegalArgumentException("No active HR session found");
         }
 
-        List<String> history = conversationHistory.get(sessionId);
-        history.add("User: " + userMessage);
+        ConversationHistory history = sessionState.getHrHistory();
+        ConversationTurn userTurn = ConversationTurn.fromUser(userMessage);
 
-        String hrResponse = generateHRResponse(sessionId, userMessage, history);
-        history.add("HR: " + hrResponse);
+        CompletableFuture<Boolean> pipelinedConclusion = conversationConfig.isPipelinedConclusionDetection()
+                ? startConclusionDetection(sessionId, history, userTurn)
+                : null;
 
-        boolean shouldEnd = detectConversationConclusion(sessionId, history, hrResponse);
+        String hrResponse = generateHRResponse(sessionId, userMessage, history, tokenSink);
+        history.addTurn(userTurn);
+        history.addTurn(ConversationTurn.fromPartner(hrResponse));
+        historyService.compactInBackground(history);
+
+        boolean shouldEnd = pipelinedConclusion != null
+                ? pipelinedConclusion.join()
+                : detectConversationConclusion(sessionId, history.recentTurns(CONCLUSION_WINDOW_TURNS),
+                        history.totalTurnCount(), userMessage, hrResponse, false);
         
         if (shouldEnd) {
-            return endHRSession(sessionId, history);
+            return endHRSession(sessionId);
         }
 
         return HRChatResponse.builder()
@@ -103,55 +134,30 @@ public class HRPartnerService {
                 .build();
     }
 
-    private String generateHRResponse(String sessionId, String userMessage, List<String> history) {
+    private String generateHRResponse(String sessionId, String userMessage, ConversationHistory history, Consumer<String> tokenSink) {
         ConversationContext context = contextService.getContext(sessionId);
-        HRSession session = hrSessions.get(sessionId);
+        HRSession session = getHRSession(sessionId);
 
-        String conversationContext = String.join("\n", history);
-        
-        String systemPrompt = String.format(
-                "You are %s, a professional and empathetic HR partner. " +
-                "You are speaking with an anonymous employee about a workplace incident. " +
-                "The initial incident was: %s\n\n" +
-                "Your role:\n" +
-                "- Listen actively and show empathy\n" +
-                "- Ask clarifying questions about what happened\n" +
-                "- Gather important details (timeline, people involved, impact)\n" +
-                "- Offer support and next steps\n" +
-                "- Keep responses concise (2-3 sentences)\n" +
-                "- Maintain professional yet warm tone\n" +
-                "- After gathering sufficient information (4-6 exchanges), naturally conclude by:\n" +
-                "  * Thanking them for sharing\n" +
-                "  * Indicating you've documented everything\n" +
-                "  * Mentioning next steps (ticket creation, follow-up)\n\n" +
-                "IMPORTANT: Only provide YOUR response as the HR partner. " +
-                "Do NOT generate or simulate the user's response. " +
-                "Do NOT include 'User:' in your output.\n\n" +
-                "Previous conversation:\n%s",
+        String systemPrompt = PromptTemplates.buildHRPartnerSystemPrompt(
                 session.getHrPartnerName(),
-                context.getInitialMessage(),
-                conversationContext
+                context.getInitialMessage()
         );
+        ConversationHistoryService.PromptHistory promptHistory =
+                historyService.fitToContextWindow(history, systemPrompt, userMessage);
 
-        ChatClient chatClient = chatClientBuilder.build();
-        
-        String response = chatClient.prompt()
-                .system(systemPrompt)
-                .user(userMessage)
-                .call()
-                .content();
-        
-        if (response.contains("User:") || response.contains("\nUser")) {
-            int userIndex = response.indexOf("User:");
-            if (userIndex == -1) {
-                userIndex = response.indexOf("\nUser");
-            }
-            if (userIndex > 0) {
-                response = response.substring(0, userIndex).trim();
-            }
+        TranscriptCutoffStreamer streamer = tokenSink == null ? null : new TranscriptCutoffStreamer(STOP_MARKERS, tokenSink);
+        String response = LlmCallSite.HR_REPLY.callWith(() -> continuationService.generateReply(
+                sessionId,
+                promptHistory.systemPrompt(),
+                promptHistory.earlierTurns(),
+                userMessage,
+                streamer
+        ));
+        if (streamer != null) {
+            streamer.finish();
         }
         
-        return response;
+        return TranscriptCutoffStreamer.cutOff(response, STOP_MARKERS);
     }
 
     private boolean shouldEndConversation(String userMessage, int messageCount) {
@@ -163,26 +169,68 @@ public class HRPartnerService {
                lower.contains("that's everything");
     }
 
-    private boolean detectConversationConclusion(String sessionId, List<String> history, String hrResponse) {
-        if (history.size() < 4) {
-            return false;
-        }
+    /**
+     * Judges the conversation so far (ending with the user's latest message and the previous
+     * HR reply) on the task executor, so the verdict is ready when the new reply is. The turn
+     * count includes that new reply, as it does when detection runs after it.
+     */
+    private CompletableFuture<Boolean> startConclusionDetection(
+            String sessionId, ConversationHistory history, ConversationTurn userTurn) {
+        List<ConversationTurn> recentTurns = new ArrayList<>(history.recentTurns(CONCLUSION_WINDOW_TURNS - 1));
+        recentTurns.add(userTurn);
+        int totalTurnCount = history.totalTurnCount() + 2;
+        String previousHRResponse = findLastPartnerResponse(recentTurns);
 
-        String lastUserMessage = "";
-        for (int i = history.size() - 1; i >= 0; i--) {
-            if (history.get(i).startsWith("User: ")) {
-                lastUserMessage = history.get(i).substring(6).toLowerCase().trim();
-                break;
+        return CompletableFuture.supplyAsync(
+                traceSpans.bind(LlmPriority.current().bind(() -> detectConversationConclusion(
+                        sessionId, recentTurns, totalTurnCount, userTurn.text(), previousHRResponse, true))),
+                chatTaskExecutor
+        );
+    }
+
+    private String findLastPartnerResponse(List<ConversationTurn> turns) {
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            if (turns.get(i).speaker() == ConversationTurn.Speaker.PARTNER) {
+                return turns.get(i).text();
             }
         }
+        return "";
+    }
 
-        String conversationContext = String.join("\n", history.subList(Math.max(0, history.size() - 8), history.size()));
+    private String renderTranscript(List<ConversationTurn> turns) {
+        return turns.stream()
+                .map(turn -> (turn.speaker() == ConversationTurn.Speaker.USER ? "User: " : "HR: ") + turn.text())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private boolean detectConversationConclusion(
+            String sessionId,
+            List<ConversationTurn> recentTurns,
+            int totalTurnCount,
+            String userMessage,
+            String hrResponse,
+            boolean replyPending) {
+        if (totalTurnCount < 4) {
+            return false;
+        }
+
+        String lastUserMessage = userMessage.toLowerCase().trim();
+        String conversationContext = renderTranscript(recentTurns);
+        // While pipelined, the reply to the user's last message is still being written
+        String hrResponseLine;
+        if (!replyPending) {
+            hrResponseLine = String.format("The HR partner just responded: \"%s\"\n", hrResponse);
+        } else if (hrResponse.isEmpty()) {
+            hrResponseLine = "";
+        } else {
+            hrResponseLine = String.format("The HR partner's previous reply was: \"%s\"\n", hrResponse);
+        }
         
         String detectionPrompt = String.format(
                 "You are analyzing a conversation between an HR partner and an employee to detect if it should end.\n\n" +
                 "Recent conversation:\n%s\n\n" +
                 "The user's last message was: \"%s\"\n" +
-                "The HR partner just responded: \"%s\"\n\n" +
+                "%s\n" +
                 "Return true (concluded) if ANY of these apply:\n" +
                 "1. User expresses closure: 'thank you', 'thanks', 'bye', 'goodbye', 'that's all', 'that's everything', 'I'm done'\n" +
                 "2. User confirms no more to add: 'nothing else', 'no more', 'that's it', 'all good'\n" +
@@ -200,14 +248,14 @@ public class HRPartnerService {
                 "}",
                 conversationContext,
                 lastUserMessage,
-                hrResponse
+                hrResponseLine
         );
 
         try {
-            String llmResponse = llmService.generateResponse(detectionPrompt);
-            com.fasterxml.jackson.databind.JsonNode result = llmService.parseJsonResponse(llmResponse);
-            boolean concluded = result.get("concluded").asBoolean();
-            String reasoning = result.get("reasoning").asText();
+            LlmOutputs.ConversationConclusion result =
+                    llmService.generateStructured(detectionPrompt, LlmOutputs.ConversationConclusion.class, null, null);
+            boolean concluded = result.concluded();
+            String reasoning = result.reasoning();
             
             log.info("Conversation conclusion for session {}: {} - {}", 
                     sessionId, concluded, reasoning);
@@ -215,12 +263,12 @@ public class HRPartnerService {
             return concluded;
         } catch (Exception e) {
             log.error("Failed to detect conversation conclusion, using fallback", e);
-            return history.size() >= 12;
+            return totalTurnCount >= 12;
         }
     }
 
-    private HRChatResponse endHRSession(String sessionId, List<String> history) {
-        HRSession session = hrSessions.get(sessionId);
+    private HRChatResponse endHRSession(String sessionId) {
+        HRSession session = getHRSession(sessionId);
         ConversationContext context = contextService.getContext(sessionId);
         SubmitReportRequest request = SubmitReportRequest.builder()
                 .sessionId(sessionId)
@@ -230,7 +278,8 @@ public class HRPartnerService {
         IncidentReportResponse response = incidentReportService.submitReport(request);
         String ticketId = response.getReportId();
         session.setActive(false);
-        session.setEndedAt(LocalDateTime.now());
+        continuationService.forget(sessionId);
+        session.setEndedAtMillis(System.currentTimeMillis());
         session.setTicketId(ticketId);
 
         context.setWorkflowState(WorkflowState.REPORT_READY);
@@ -256,13 +305,12 @@ public class HRPartnerService {
     }
 
     public HRSession getHRSession(String sessionId) {
-        return hrSessions.get(sessionId);
+        SessionState sessionState = sessionRegistry.find(sessionId);
+        return sessionState == null ? null : sessionState.getHrSession();
     }
 
     private HRPartner selectRandomHRPartner() {
-        int index = (int) (Math.random() * HR_PARTNERS.size());
-        return HR_PARTNERS.get(index);
+        HRPartner[] partners = HRPartner.values();
+        return partners[(int) (Math.random() * partners.length)];
     }
-
-    private record HRPartner(String name, String image) {}
 }
@@ -0,0 +1,130 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartallies.incident.config.ConversationConfig;
+import com.smartallies.incident.config.LlmConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+public class HttpOllamaGenerateClient implements OllamaGenerateClient {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LlmConfig llmConfig;
+    private final ConversationConfig conversationConfig;
+    private final String model;
+    private final double temperature;
+
+    public HttpOllamaGenerateClient(
+            LlmConfig llmConfig,
+            ConversationConfig conversationConfig,
+            @Value("${spring.ai.ollama.base-url}") String baseUrl,
+            @Value("${spring.ai.ollama.chat.options.model}") String model,
+            @Value("${spring.ai.ollama.chat.options.temperature:0.7}") double temperature) {
+        // The read timeout bounds each wait for the next streamed chunk, so a stalled stream frees its limiter slot
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) llmConfig.getConnectTimeout().toMillis());
+        requestFactory.setReadTimeout((int) llmConfig.getReadTimeout().toMillis());
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.llmConfig = llmConfig;
+        this.conversationConfig = conversationConfig;
+        this.model = model;
+        this.temperature = temperature;
+    }
+
+    @Override
+    public GenerateResult generate(GenerateCall call, Consumer<String> tokenSink) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("model", model);
+        request.put("prompt", call.prompt());
+        request.put("stream", true);
+        request.put("keep_alive", llmConfig.getSessionCacheKeepAlive());
+        // Without num_ctx Ollama uses its own default window and silently drops the start of longer prompts
+        request.put("options", Map.of(
+                "temperature", temperature,
+                "num_ctx", conversationConfig.getContextWindowTokens()));
+        if (call.context() != null) {
+            request.put("context", call.context());
+        } else if (call.system() != null) {
+            request.put("system", call.system());
+        }
+        if (call.format() != null) {
+            request.put("format", call.format());
+        }
+
+        return restClient.post()
+                .uri("/api/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .exchange((clientRequest, clientResponse) -> {
+                    if (clientResponse.getStatusCode().isError()) {
+                        throw new IllegalStateException("Ollama generate failed with status " + clientResponse.getStatusCode());
+                    }
+                    return readStream(clientResponse.getBody(), tokenSink);
+                });
+    }
+
+    private GenerateResult readStream(InputStream body, Consumer<String> tokenSink) throws IOException {
+        StringBuilder response = new StringBuilder();
+        List<Integer> context = List.of();
+        int promptEvalCount = 0;
+        int evalCount = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode chunk = objectMapper.readTree(line);
+                if (chunk.has("error")) {
+                    throw new IllegalStateException("Ollama generate failed: " + chunk.get("error").asText());
+                }
+
+                String text = chunk.path("response").asText("");
+                if (!text.isEmpty()) {
+                    response.append(text);
+                    if (tokenSink != null) {
+                        tokenSink.accept(text);
+                    }
+                }
+
+                if (chunk.path("done").asBoolean(false)) {
+                    context = readContext(chunk.path("context"));
+                    promptEvalCount = chunk.path("prompt_eval_count").asInt(0);
+                    evalCount = chunk.path("eval_count").asInt(0);
+                }
+            }
+        }
+
+        log.debug("Ollama generate evaluated {} prompt tokens, produced {} tokens", promptEvalCount, evalCount);
+        return new GenerateResult(response.toString(), context, promptEvalCount, evalCount);
+    }
+
+    private List<Integer> readContext(JsonNode contextNode) {
+        List<Integer> context = new ArrayList<>(contextNode.size());
+        contextNode.forEach(token -> context.add(token.asInt()));
+        return context;
+    }
+}
@@ -0,0 +1,266 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartallies.incident.config.ClassifierConfig;
+import com.smartallies.incident.model.ClassificationSource;
+import com.smartallies.incident.model.IncidentClassification;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentReportSubmittedEvent;
+import com.smartallies.incident.model.IncidentType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Nearest-centroid classifier over message embeddings. Each incident type has a centroid
+ * built from labelled examples at startup and, when enabled, extended with submitted reports;
+ * an initial message close enough to one centroid is classified without the LLM prompt.
+ * A verdict other than EMERGENCY is only trusted when EMERGENCY was a clear non-contender.
+ */
+@Slf4j
+@Service
+public class IncidentPreClassifier {
+
+    // Cosine similarities of one embedding model sit close together, so sharpen them before the softmax
+    private static final double SOFTMAX_TEMPERATURE = 0.05;
+
+    private static final Map<IncidentType, String> LOCAL_REASONING = Map.of(
+            IncidentType.HUMAN, "It sounds like this is about how someone at work has been treating you, " +
+                    "so I'd handle it as a people-related incident.",
+            IncidentType.FACILITY, "It sounds like something in the building or its equipment needs attention, " +
+                    "so I'd handle it as a facility issue.",
+            IncidentType.EMERGENCY, "This sounds like an urgent situation where someone may need help right away, " +
+                    "so I'm treating it as an emergency."
+    );
+
+    private final LlmService llmService;
+    private final ClassifierConfig classifierConfig;
+    private final ExecutorService chatTaskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<IncidentType, Centroid> centroids = new EnumMap<>(IncidentType.class);
+    private volatile boolean ready;
+
+    private final Timer embeddingLatency;
+
+    public IncidentPreClassifier(
+            LlmService llmService,
+            ClassifierConfig classifierConfig,
+            ExecutorService chatTaskExecutor,
+            MeterRegistry meterRegistry) {
+        this.llmService = llmService;
+        this.classifierConfig = classifierConfig;
+        this.chatTaskExecutor = chatTaskExecutor;
+        this.meterRegistry = meterRegistry;
+        this.embeddingLatency = Timer.builder("classifier.embedding.latency")
+                .description("Time to embed a message and score it against the centroids")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildCentroidsInBackground() {
+        if (classifierConfig.isEmbeddingEnabled()) {
+            chatTaskExecutor.execute(LlmPriority.BACKGROUND.bind(this::buildCentroids));
+        }
+    }
+
+    @EventListener
+    public void onReportSubmitted(IncidentReportSubmittedEvent event) {
+        IncidentReport report = event.report();
+        if (!ready || !classifierConfig.isLearnFromReports()
+                || report.getIncidentType() == null || report.getDescription() == null
+                || report.getDescription().isBlank()) {
+            return;
+        }
+        chatTaskExecutor.execute(LlmPriority.BACKGROUND.bind(() -> {
+            try {
+                float[] embedding = llmService.embed(report.getDescription());
+                synchronized (centroids) {
+                    centroids.computeIfAbsent(report.getIncidentType(), type -> new Centroid()).add(embedding);
+                }
+            } catch (Exception e) {
+                log.debug("Could not learn from report {}: {}", report.getReportId(), e.getMessage());
+            }
+        }));
+    }
+
+    /**
+     * Classifies the message by embedding when the nearest centroid is confident enough, otherwise
+     * (or while the centroids are not built yet) uses the LLM fallback.
+     */
+    public IncidentClassification classify(String message, Supplier<IncidentClassification> llmFallback) {
+        if (!ready) {
+            decisionCounter("unavailable").increment();
+            return fromLlm(llmFallback);
+        }
+
+        Optional<Prediction> prediction;
+        try {
+            prediction = embeddingLatency.recordCallable(() -> predict(llmService.embed(message)));
+        } catch (LlmCapacityExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Embedding classification failed, asking the LLM: {}", e.getMessage());
+            prediction = Optional.empty();
+        }
+
+        if (prediction.isPresent() && prediction.get().confidence() >= classifierConfig.getMinConfidence()
+                && !couldBeEmergency(prediction.get())) {
+            decisionCounter("embedding").increment();
+            log.info("Classified as {} by embedding with confidence {}",
+                    prediction.get().type(), prediction.get().confidence());
+            return IncidentClassification.builder()
+                    .type(prediction.get().type())
+                    .confidence(prediction.get().confidence())
+                    .reasoning(LOCAL_REASONING.get(prediction.get().type()))
+                    .source(ClassificationSource.EMBEDDING)
+                    .build();
+        }
+
+        decisionCounter("llm").increment();
+        IncidentClassification classification = fromLlm(llmFallback);
+        prediction.ifPresent(uncertain -> Counter.builder("classifier.embedding.agreement")
+                .description("Whether the uncertain embedding prediction matched the LLM classification")
+                .tag("agreed", String.valueOf(uncertain.type() == classification.getType()))
+                .register(meterRegistry)
+                .increment());
+        return classification;
+    }
+
+    /**
+     * Records the user's confirmation or rejection of a classification, the ground truth for accuracy.
+     */
+    public void recordUserVerdict(ClassificationSource source, boolean confirmed) {
+        Counter.builder("classifier.user.verdicts")
+                .description("User confirmations and rejections of incident classifications")
+                .tag("source", source == null ? "unknown" : source.name().toLowerCase())
+                .tag("confirmed", String.valueOf(confirmed))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void buildCentroids() {
+        try (InputStream examples = classifierConfig.getExamples().getInputStream()) {
+            Map<IncidentType, List<String>> examplesByType = objectMapper.readValue(examples, new TypeReference<>() {});
+            for (Map.Entry<IncidentType, List<String>> entry : examplesByType.entrySet()) {
+                List<float[]> embeddings = llmService.embed(entry.getValue());
+                synchronized (centroids) {
+                    Centroid centroid = centroids.computeIfAbsent(entry.getKey(), type -> new Centroid());
+                    embeddings.forEach(centroid::add);
+                }
+            }
+            ready = true;
+            log.info("Embedding pre-classifier ready with centroids for {}", centroids.keySet());
+        } catch (Exception e) {
+            log.warn("Embedding pre-classifier unavailable, every message goes to the LLM: {}", e.getMessage());
+        }
+    }
+
+    // A missed emergency costs far more than an LLM round trip
+    private boolean couldBeEmergency(Prediction prediction) {
+        return prediction.type() != IncidentType.EMERGENCY
+                && prediction.emergencyShare() > classifierConfig.getMaxEmergencyShare();
+    }
+
+    private Optional<Prediction> predict(float[] embedding) {
+        Map<IncidentType, Double> similarities = new EnumMap<>(IncidentType.class);
+        synchronized (centroids) {
+            centroids.forEach((type, centroid) -> similarities.put(type, centroid.cosineSimilarity(embedding)));
+        }
+        if (similarities.isEmpty()) {
+            return Optional.empty();
+        }
+
+        double maxSimilarity = similarities.values().stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+        double normalizer = 0;
+        IncidentType bestType = null;
+        double bestWeight = 0;
+        // Without an EMERGENCY centroid nothing rules an emergency out
+        double emergencyWeight = Double.POSITIVE_INFINITY;
+        for (Map.Entry<IncidentType, Double> entry : similarities.entrySet()) {
+            double weight = Math.exp((entry.getValue() - maxSimilarity) / SOFTMAX_TEMPERATURE);
+            normalizer += weight;
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                bestType = entry.getKey();
+            }
+            if (entry.getKey() == IncidentType.EMERGENCY) {
+                emergencyWeight = weight;
+            }
+        }
+        return Optional.of(new Prediction(bestType, bestWeight / normalizer, Math.min(1, emergencyWeight / normalizer)));
+    }
+
+    private IncidentClassification fromLlm(Supplier<IncidentClassification> llmFallback) {
+        IncidentClassification classification = llmFallback.get();
+        classification.setSource(ClassificationSource.LLM);
+        return classification;
+    }
+
+    private Counter decisionCounter(String decision) {
+        return Counter.builder("classifier.decisions")
+                .description("Initial message classifications by the component that decided them")
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    private record Prediction(IncidentType type, double confidence, double emergencyShare) {}
+
+    /**
+     * Sum of the unit-length embeddings of a type; its direction is the centroid direction.
+     */
+    private static final class Centroid {
+
+        private double[] sum;
+
+        void add(float[] embedding) {
+            double norm = norm(embedding);
+            if (norm == 0) {
+                return;
+            }
+            if (sum == null) {
+                sum = new double[embedding.length];
+            }
+            for (int i = 0; i < embedding.length; i++) {
+                sum[i] += embedding[i] / norm;
+            }
+        }
+
+        double cosineSimilarity(float[] embedding) {
+            if (sum == null) {
+                return 0;
+            }
+            double dot = 0;
+            double sumNorm = 0;
+            for (int i = 0; i < sum.length; i++) {
+                dot += sum[i] * embedding[i];
+                sumNorm += sum[i] * sum[i];
+            }
+            double denominator = Math.sqrt(sumNorm) * norm(embedding);
+            return denominator == 0 ? 0 : dot / denominator;
+        }
+
+        private static double norm(float[] vector) {
+            double squares = 0;
+            for (float value : vector) {
+                squares += value * value;
+            }
+            return Math.sqrt(squares);
+        }
+    }
+}
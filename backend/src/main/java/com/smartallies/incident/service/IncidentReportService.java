@@ -3,30 +3,48 @@ package com.smartallies.incident.service;
 import com.smartallies.incident.dto.FacilityDetailsRequest;
 import com.smartallies.incident.dto.FacilityDetailsResponse;
 import com.smartallies.incident.dto.IncidentReportResponse;
+import com.smartallies.incident.dto.ReportPageResponse;
 import com.smartallies.incident.dto.SubmitReportRequest;
 import com.smartallies.incident.model.ConversationContext;
 import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentReportSubmittedEvent;
 import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
 import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.model.ReportStatusChangedEvent;
+import com.smartallies.incident.repository.ReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.HashMap;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class IncidentReportService {
 
-    private final Map<String, IncidentReport> reportStore = new ConcurrentHashMap<>();
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ReportRepository reportRepository;
     private final ConversationContextService contextService;
+    private final BlobStore blobStore;
+    private final SessionLocks sessionLocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TraceSpans traceSpans;
+    private final ObjectProvider<ReportHandoff> reportHandoff;
 
     public IncidentReportResponse submitReport(SubmitReportRequest request) {
+        return sessionLocks.runExclusive(request.getSessionId(), () -> createReport(request));
+    }
+
+    private IncidentReportResponse createReport(SubmitReportRequest request) {
         log.info("Submitting report for session: {}", request.getSessionId());
         
         ConversationContext context = contextService.getContext(request.getSessionId());
@@ -42,7 +60,7 @@ public class IncidentReportService {
                 .incidentType(context.getIncidentType())
                 .status(ReportStatus.SUBMITTED)
                 .description(context.getInitialMessage())
-                .details(context.getCollectedFields())
+                .details(new HashMap<>(context.getCollectedFields()))
                 .imageUrl(context.getImageUrl())
                 .location(context.getField("where"))
                 .submittedBy(request.isAnonymous() ? "Anonymous" : request.getSubmittedBy())
@@ -51,34 +69,68 @@ public class IncidentReportService {
                 .lastUpdated(LocalDateTime.now())
                 .build();
 
-        reportStore.put(reportId, report);
+        ReportHandoff handoff = reportHandoff.getIfAvailable();
+        if (handoff == null || handoff.storesLocally()) {
+            storeSubmittedReport(report);
+        } else {
+            handoff.send(report);
+        }
         
         log.info("Report submitted successfully: {}", reportId);
         
         return mapToResponse(report);
     }
 
+    /**
+     * Stores a new report and announces it; in cluster mode the report node also takes the reports other nodes created.
+     */
+    public void storeSubmittedReport(IncidentReport report) {
+        saveReport(report);
+        eventPublisher.publishEvent(new IncidentReportSubmittedEvent(report));
+    }
+
     public Optional<IncidentReportResponse> getReport(String reportId) {
         log.info("Retrieving report: {}", reportId);
-        return Optional.ofNullable(reportStore.get(reportId))
+        return findReport(reportId)
                 .map(this::mapToResponse);
     }
 
+    public ReportPageResponse listReports(ReportQuery query) {
+        if (query.limit() < 1 || query.limit() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Listing reports: status={}, type={}, submitted {} to {}, anonymous={}",
+                query.status(), query.incidentType(), query.submittedFrom(), query.submittedTo(), query.anonymous());
+
+        ReportPage page = traceSpans.inSpan("report.store.query", span -> reportRepository.query(query));
+        return ReportPageResponse.builder()
+                .reports(page.reports().stream().map(this::mapToResponse).toList())
+                .nextCursor(page.nextCursor())
+                .build();
+    }
+
     public IncidentReportResponse updateReportStatus(String reportId, ReportStatus newStatus) {
         log.info("Updating report {} to status: {}", reportId, newStatus);
         
-        IncidentReport report = reportStore.get(reportId);
-        if (report == null) {
-            throw new IllegalArgumentException("Report not found: " + reportId);
-        }
+        IncidentReport current = findReport(reportId)
+                .orElseThrow(() -> new IllegalArgumentException("Report not found: " + reportId));
 
-        report.setStatus(newStatus);
-        report.setLastUpdated(LocalDateTime.now());
-        
-        return mapToResponse(report);
+        // The stored instance is the one the index files by status; it must not change before the save is durable
+        IncidentReport updated = current.toBuilder()
+                .status(newStatus)
+                .lastUpdated(LocalDateTime.now())
+                .build();
+        saveReport(updated);
+        eventPublisher.publishEvent(new ReportStatusChangedEvent(updated, current.getStatus()));
+
+        return mapToResponse(updated);
     }
 
     public FacilityDetailsResponse saveFacilityDetails(FacilityDetailsRequest request) {
+        return sessionLocks.runExclusive(request.getSessionId(), () -> updateFacilityDetails(request));
+    }
+
+    private FacilityDetailsResponse updateFacilityDetails(FacilityDetailsRequest request) {
         log.info("Saving location/facility details for session: {}", request.getSessionId());
 
         ConversationContext context = contextService.getContext(request.getSessionId());
@@ -91,7 +143,7 @@ public class IncidentReportService {
         }
 
         if (request.getImageUrl() != null && !request.getImageUrl().trim().isEmpty()) {
-            context.updateField("facility_additional_image", request.getImageUrl());
+            context.updateField("facility_additional_image", blobStore.toReference(request.getImageUrl()));
         }
 
         if (request.getFloor() != null && !request.getFloor().trim().isEmpty()) {
@@ -112,6 +164,20 @@ public class IncidentReportService {
                 .build();
     }
 
+    private void saveReport(IncidentReport report) {
+        traceSpans.inSpan("report.store.save", span -> {
+            span.tag("report.id", report.getReportId());
+            return reportRepository.save(report);
+        });
+    }
+
+    private Optional<IncidentReport> findReport(String reportId) {
+        return traceSpans.inSpan("report.store.find", span -> {
+            span.tag("report.id", reportId);
+            return reportRepository.findById(reportId);
+        });
+    }
+
     private IncidentReportResponse mapToResponse(IncidentReport report) {
         return IncidentReportResponse.builder()
                 .reportId(report.getReportId())
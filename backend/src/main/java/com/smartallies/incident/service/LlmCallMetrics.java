@@ -0,0 +1,115 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Latency, token counts and errors of model calls per {@link LlmCallSite}. Latency is the model's
+ * alone: calls are timed once they hold a concurrency slot, and a coalesced caller is not timed again.
+ */
+@Component
+public class LlmCallMetrics {
+
+    private final Map<LlmCallSite, SiteMeters> meters = new EnumMap<>(LlmCallSite.class);
+    private final TraceSpans traceSpans;
+
+    public LlmCallMetrics(MeterRegistry meterRegistry, TraceSpans traceSpans) {
+        this.traceSpans = traceSpans;
+        for (LlmCallSite site : LlmCallSite.values()) {
+            meters.put(site, new SiteMeters(
+                    callTimer(site, "success", meterRegistry),
+                    callTimer(site, "error", meterRegistry),
+                    tokenSummary(site, "prompt", meterRegistry),
+                    tokenSummary(site, "completion", meterRegistry),
+                    errorCounter(site, "rejected", meterRegistry),
+                    errorCounter(site, "failed", meterRegistry),
+                    errorCounter(site, "invalid-output", meterRegistry)));
+        }
+    }
+
+    /**
+     * Times the call and, when it succeeds, records the token counts read from its result. The counts
+     * also go onto the current trace span, where the slot being granted is marked as an event.
+     */
+    public <R> R record(LlmCallSite site, Supplier<R> call,
+                        ToIntFunction<R> promptTokens, ToIntFunction<R> completionTokens) {
+        SiteMeters siteMeters = meters.get(site);
+        traceSpans.markCurrent("llm.slot.acquired");
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            siteMeters.failed().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            siteMeters.failedCalls().increment();
+            throw e;
+        }
+        siteMeters.succeeded().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        int prompt = promptTokens.applyAsInt(result);
+        int completion = completionTokens.applyAsInt(result);
+        siteMeters.promptTokens().record(prompt);
+        siteMeters.completionTokens().record(completion);
+        traceSpans.tagCurrent("llm.tokens.prompt", prompt);
+        traceSpans.tagCurrent("llm.tokens.completion", completion);
+        return result;
+    }
+
+    /**
+     * A call turned away by the concurrency limiter before reaching the model.
+     */
+    public void recordRejected(LlmCallSite site) {
+        meters.get(site).rejectedCalls().increment();
+    }
+
+    /**
+     * A structured call whose output did not map onto its record.
+     */
+    public void recordInvalidOutput(LlmCallSite site) {
+        meters.get(site).invalidOutputs().increment();
+    }
+
+    private static Timer callTimer(LlmCallSite site, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("llm.call.latency")
+                .description("Time the model took to answer, per call site")
+                .tag("call.site", site.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static DistributionSummary tokenSummary(LlmCallSite site, String kind, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("llm.call.tokens")
+                .description("Prompt and completion tokens per model call, as reported by Ollama or estimated")
+                .tag("call.site", site.tag())
+                .tag("kind", kind)
+                .baseUnit("tokens")
+                .register(meterRegistry);
+    }
+
+    private static Counter errorCounter(LlmCallSite site, String error, MeterRegistry meterRegistry) {
+        return Counter.builder("llm.call.errors")
+                .description("Model calls that were rejected for capacity, failed, or returned unusable output")
+                .tag("call.site", site.tag())
+                .tag("error", error)
+                .register(meterRegistry);
+    }
+
+    private record SiteMeters(
+            Timer succeeded,
+            Timer failed,
+            DistributionSummary promptTokens,
+            DistributionSummary completionTokens,
+            Counter rejectedCalls,
+            Counter failedCalls,
+            Counter invalidOutputs) {
+    }
+}
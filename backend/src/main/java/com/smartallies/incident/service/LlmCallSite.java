@@ -0,0 +1,75 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.model.LlmOutputs;
+
+import java.util.function.Supplier;
+
+/**
+ * What a model call is for, the {@code call.site} tag of the LLM call metrics.
+ *
+ * <p>Structured calls are identified by their output record, except a classification run as a
+ * {@link #TRIAGE_CHECK}, which the caller marks with {@link #callWith}. Free-text calls take the site the caller
+ * set on its thread with {@link #callWith}, like {@link LlmPriority}, and count as {@link #OTHER} otherwise.
+ */
+public enum LlmCallSite {
+    CLASSIFICATION("classification"),
+    TRIAGE_CHECK("triage-check"),
+    DETAILS("details"),
+    SUMMARY("summary"),
+    AFFIRMATIVE("affirmative"),
+    HR_REPLY("hr-reply"),
+    HR_CONCLUSION("hr-conclusion"),
+    SAMARITAN_REPLY("samaritan-reply"),
+    EMERGENCY_RESOLUTION("emergency-resolution"),
+    HISTORY_SUMMARY("history-summary"),
+    EMBEDDING("embedding"),
+    OTHER("other");
+
+    private static final ThreadLocal<LlmCallSite> CURRENT = ThreadLocal.withInitial(() -> OTHER);
+
+    private final String tag;
+
+    LlmCallSite(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public static LlmCallSite current() {
+        return CURRENT.get();
+    }
+
+    public static LlmCallSite forOutput(Class<?> outputType) {
+        if (outputType == LlmOutputs.Classification.class) {
+            return current() == TRIAGE_CHECK ? TRIAGE_CHECK : CLASSIFICATION;
+        }
+        if (LlmOutputs.DetailsExtraction.class.isAssignableFrom(outputType)) {
+            return DETAILS;
+        }
+        if (outputType == LlmOutputs.ReportSummary.class) {
+            return SUMMARY;
+        }
+        if (outputType == LlmOutputs.Affirmative.class) {
+            return AFFIRMATIVE;
+        }
+        if (outputType == LlmOutputs.ConversationConclusion.class) {
+            return HR_CONCLUSION;
+        }
+        if (outputType == LlmOutputs.EmergencyResolution.class) {
+            return EMERGENCY_RESOLUTION;
+        }
+        return current();
+    }
+
+    public <T> T callWith(Supplier<T> work) {
+        LlmCallSite previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
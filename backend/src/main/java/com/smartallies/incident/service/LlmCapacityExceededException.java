@@ -0,0 +1,12 @@
+package com.smartallies.incident.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class LlmCapacityExceededException extends RuntimeException {
+
+    public LlmCapacityExceededException(String message) {
+        super(message);
+    }
+}
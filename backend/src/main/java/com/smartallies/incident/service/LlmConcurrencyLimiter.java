@@ -0,0 +1,169 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.LlmConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of model calls in flight. Request threads are virtual, so callers
+ * waiting here for a permit do not pin platform threads; a call that waits longer
+ * than the configured queue timeout is rejected instead of piling up behind Ollama.
+ *
+ * <p>Waiting calls are served by {@link LlmPriority} lane first and arrival order second,
+ * so an emergency call overtakes every queued interactive or background call.
+ */
+@Slf4j
+@Component
+public class LlmConcurrencyLimiter {
+
+    private final LlmConfig llmConfig;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::sequence));
+    private long nextSequence;
+    private int freePermits;
+
+    private final Map<LlmPriority, AtomicInteger> queuedCalls = new EnumMap<>(LlmPriority.class);
+    private final AtomicInteger inFlightCalls = new AtomicInteger();
+    private final Map<LlmPriority, Timer> queueWaitTimers = new EnumMap<>(LlmPriority.class);
+    private final Counter rejectedCalls;
+
+    public LlmConcurrencyLimiter(LlmConfig llmConfig, MeterRegistry meterRegistry) {
+        this.llmConfig = llmConfig;
+        this.freePermits = llmConfig.getMaxInFlightCalls();
+
+        for (LlmPriority priority : LlmPriority.values()) {
+            String lane = priority.name().toLowerCase();
+            AtomicInteger queued = new AtomicInteger();
+            queuedCalls.put(priority, queued);
+            Gauge.builder("llm.queue.depth", queued, AtomicInteger::get)
+                    .description("Model calls waiting for a free slot")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            queueWaitTimers.put(priority, Timer.builder("llm.queue.wait")
+                    .description("Time model calls spent waiting for a free slot")
+                    .tag("lane", lane)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("llm.inflight", inFlightCalls, AtomicInteger::get)
+                .description("Model calls currently running")
+                .register(meterRegistry);
+        Gauge.builder("llm.concurrency.limit", llmConfig, LlmConfig::getMaxInFlightCalls)
+                .description("Configured maximum of concurrent model calls")
+                .register(meterRegistry);
+        this.rejectedCalls = Counter.builder("llm.queue.rejections")
+                .description("Model calls rejected after waiting longer than the queue timeout")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> modelCall) {
+        acquirePermit(LlmPriority.current());
+        inFlightCalls.incrementAndGet();
+        try {
+            return modelCall.get();
+        } finally {
+            inFlightCalls.decrementAndGet();
+            releasePermit();
+        }
+    }
+
+    private void acquirePermit(LlmPriority priority) {
+        long waitStart = System.nanoTime();
+        lock.lock();
+        try {
+            if (freePermits > 0 && waiters.isEmpty()) {
+                freePermits--;
+                return;
+            }
+
+            Waiter waiter = new Waiter(priority, nextSequence++, lock.newCondition());
+            waiters.add(waiter);
+            queuedCalls.get(priority).incrementAndGet();
+            try {
+                long remainingNanos = llmConfig.getQueueTimeout().toNanos();
+                while (!waiter.granted && remainingNanos > 0) {
+                    remainingNanos = waiter.signal.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(waiter);
+                throw new LlmCapacityExceededException("Interrupted while waiting for a free LLM slot");
+            } finally {
+                queuedCalls.get(priority).decrementAndGet();
+                queueWaitTimers.get(priority).record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            }
+
+            if (!waiter.granted) {
+                waiters.remove(waiter);
+                rejectedCalls.increment();
+                log.warn("Rejecting {} LLM call after waiting {} for a free slot", priority, llmConfig.getQueueTimeout());
+                throw new LlmCapacityExceededException("All LLM slots are busy, please try again shortly");
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands the permit straight to the most urgent waiter, so a newly arriving call cannot barge past the queue.
+     */
+    private void releasePermit() {
+        lock.lock();
+        try {
+            Waiter next = waiters.poll();
+            if (next == null) {
+                freePermits++;
+            } else {
+                next.granted = true;
+                next.signal.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abandon(Waiter waiter) {
+        if (waiter.granted) {
+            releasePermit();
+        } else {
+            waiters.remove(waiter);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final LlmPriority priority;
+        private final long sequence;
+        private final Condition signal;
+        private boolean granted;
+
+        Waiter(LlmPriority priority, long sequence, Condition signal) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.signal = signal;
+        }
+
+        LlmPriority priority() {
+            return priority;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.smartallies.incident.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Queue lane of a model call. Declaration order is priority order: when a slot frees up,
+ * the oldest waiting call of the most urgent lane gets it.
+ *
+ * <p>The lane is carried by the calling thread, so entry points set it once with
+ * {@link #callWith} and every model call below them queues in that lane.
+ */
+public enum LlmPriority {
+    EMERGENCY,
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final ThreadLocal<LlmPriority> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static LlmPriority current() {
+        return CURRENT.get();
+    }
+
+    public <T> T callWith(Supplier<T> work) {
+        LlmPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void runWith(Runnable work) {
+        callWith(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Captures this lane for work handed to another thread, such as an executor task.
+     */
+    public <T> Supplier<T> bind(Supplier<T> work) {
+        return () -> callWith(work);
+    }
+
+    public Runnable bind(Runnable work) {
+        return () -> runWith(work);
+    }
+}
@@ -0,0 +1,74 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight for model calls: while a call for a given request key is in flight,
+ * identical calls wait for and share its result instead of hitting Ollama again.
+ * Nothing is cached once the call completes.
+ */
+@Slf4j
+@Component
+public class LlmRequestCoalescer {
+
+    private final Map<Object, CompletableFuture<Object>> inFlightCalls = new ConcurrentHashMap<>();
+    private final Counter upstreamCalls;
+    private final Counter coalescedCalls;
+
+    public LlmRequestCoalescer(MeterRegistry meterRegistry) {
+        this.upstreamCalls = Counter.builder("llm.singleflight.upstream")
+                .description("Model calls that were sent upstream")
+                .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("llm.singleflight.saved")
+                .description("Model calls answered by an identical call already in flight")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object requestKey, Supplier<T> modelCall) {
+        CompletableFuture<Object> ownCall = new CompletableFuture<>();
+        CompletableFuture<Object> existingCall = inFlightCalls.putIfAbsent(requestKey, ownCall);
+
+        if (existingCall != null) {
+            coalescedCalls.increment();
+            log.debug("Joining identical LLM call already in flight");
+            return (T) awaitResult(existingCall);
+        }
+
+        upstreamCalls.increment();
+        try {
+            T result = modelCall.get();
+            ownCall.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Errors too, or the callers that joined this one would wait forever
+            ownCall.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightCalls.remove(requestKey, ownCall);
+        }
+    }
+
+    private Object awaitResult(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
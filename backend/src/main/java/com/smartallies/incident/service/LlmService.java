@@ -2,19 +2,37 @@ package com.smartallies.incident.service;
 
 import static com.smartallies.incident.util.PromptTemplates.SYSTEM_PROMPT;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.smartallies.incident.model.IncidentClassification;
-import com.smartallies.incident.model.IncidentType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.smartallies.incident.config.LlmConfig;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.LlmOutputs;
+import com.smartallies.incident.util.JsonFieldStreamer;
+import com.smartallies.incident.util.TokenEstimator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -23,95 +41,288 @@ import org.springframework.stereotype.Service;
 public class LlmService {
 
     private final ChatModel chatModel;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EmbeddingModel embeddingModel;
+    private final AffirmativeReplyClassifier affirmativeReplyClassifier;
+    private final LlmConcurrencyLimiter concurrencyLimiter;
+    private final LlmRequestCoalescer requestCoalescer;
+    private final OllamaGenerateClient ollamaGenerateClient;
+    private final LlmConfig llmConfig;
+    private final LlmCallMetrics callMetrics;
+    private final TraceSpans traceSpans;
+    // In JSON mode enums are not schema-constrained, so "Human" must still map onto HUMAN
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+            .build();
+    private final Map<Class<?>, Object> outputSchemas = new ConcurrentHashMap<>();
+
+    private static final String DEFAULT_OPTIONS_KEY = "default";
 
     public String generateResponse(String prompt) {
-        log.debug("Generating LLM response for prompt length: {}", prompt.length());
+        return generateResponse(SYSTEM_PROMPT, prompt);
+    }
+
+    public String generateResponse(String systemPrompt, String userMessage) {
+        log.debug("Generating LLM response for prompt length: {}", userMessage.length());
         
         try {
-            Prompt aiPrompt = new Prompt(List.of(
-                    new SystemMessage(SYSTEM_PROMPT),
-                    new UserMessage(prompt)
-            ));
-            String response = chatModel.call(aiPrompt).getResult().getOutput().getContent();
+            PromptKey promptKey = new PromptKey(systemPrompt, userMessage, DEFAULT_OPTIONS_KEY, LlmPriority.current());
+            String response = traced(LlmCallSite.current(), systemPrompt.length() + userMessage.length(), () ->
+                    requestCoalescer.execute(promptKey, () -> concurrencyLimiter.execute(() ->
+                            callChatModel(buildPrompt(systemPrompt, userMessage)))));
             log.debug("LLM response received: {}", response.substring(0, Math.min(100, response.length())));
             return response;
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(LlmCallSite.current());
+            throw e;
+        } catch (Exception e) {
+            log.error("Error calling LLM", e);
+            throw new RuntimeException("Failed to generate LLM response", e);
+        }
+    }
+
+    public String streamResponse(String prompt, Consumer<String> tokenSink) {
+        return streamResponse(SYSTEM_PROMPT, prompt, tokenSink);
+    }
+
+    /**
+     * Streams the completion token by token to the sink and returns the full text once
+     * the model has finished, so callers can keep their post-processing unchanged.
+     */
+    public String streamResponse(String systemPrompt, String userMessage, Consumer<String> tokenSink) {
+        log.debug("Streaming LLM response for prompt length: {}", userMessage.length());
+        return streamPrompt(buildPrompt(systemPrompt, userMessage), tokenSink);
+    }
+
+    /**
+     * Sends a multi-turn conversation as separate messages after a system prompt that does not
+     * change between turns, so the prompt prefix stays identical and Ollama's prompt cache can reuse it.
+     *
+     * @param tokenSink receives the reply as it is generated, or null for a blocking call
+     */
+    public String generateConversationResponse(
+            String systemPrompt,
+            List<ConversationTurn> earlierTurns,
+            String userMessage,
+            Consumer<String> tokenSink) {
+        List<Message> messages = new ArrayList<>();
+        messages.add(new SystemMessage(systemPrompt));
+        for (ConversationTurn turn : earlierTurns) {
+            messages.add(turn.speaker() == ConversationTurn.Speaker.USER
+                    ? new UserMessage(turn.text())
+                    : new AssistantMessage(turn.text()));
+        }
+        messages.add(new UserMessage(userMessage));
+        Prompt conversationPrompt = new Prompt(messages);
+
+        if (tokenSink != null) {
+            return streamPrompt(conversationPrompt, tokenSink);
+        }
+        try {
+            return traced(LlmCallSite.current(), conversationPrompt.getContents().length(), () ->
+                    concurrencyLimiter.execute(() -> callChatModel(conversationPrompt)));
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(LlmCallSite.current());
+            throw e;
         } catch (Exception e) {
             log.error("Error calling LLM", e);
             throw new RuntimeException("Failed to generate LLM response", e);
         }
     }
 
-    public IncidentClassification parseClassificationResponse(String llmResponse) {
+    /**
+     * Continues a conversation from the Ollama context token array of its previous turn.
+     */
+    public OllamaGenerateClient.GenerateResult generateContinuation(
+            OllamaGenerateClient.GenerateCall call,
+            Consumer<String> tokenSink) {
+        log.debug("Generating continuation with {} context tokens", call.context() == null ? 0 : call.context().size());
+        LlmCallSite site = LlmCallSite.current();
+        try {
+            return traced(site, promptChars(call), () ->
+                    concurrencyLimiter.execute(() -> generate(site, call, tokenSink)));
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(site);
+            throw e;
+        }
+    }
+
+    public float[] embed(String text) {
+        return embed(List.of(text)).get(0);
+    }
+
+    public List<float[]> embed(List<String> texts) {
+        log.debug("Embedding {} texts", texts.size());
         try {
-            String jsonContent = extractJsonFromResponse(llmResponse);
-            JsonNode jsonNode = objectMapper.readTree(jsonContent);
-            
-            String typeStr = jsonNode.get("type").asText();
-            IncidentType type = IncidentType.valueOf(typeStr.toUpperCase());
-            Double confidence = jsonNode.has("confidence") ? 
-                              jsonNode.get("confidence").asDouble() : 0.5;
-            String reasoning = jsonNode.has("reasoning") ? 
-                             jsonNode.get("reasoning").asText() : "No reasoning provided";
-            
-            log.info("Classified as {} with confidence {}", type, confidence);
-            
-            return IncidentClassification.builder()
-                    .type(type)
-                    .confidence(confidence)
-                    .reasoning(reasoning)
-                    .build();
-                    
+            return traced(LlmCallSite.EMBEDDING, texts.stream().mapToInt(String::length).sum(), () ->
+                    concurrencyLimiter.execute(() -> callMetrics.record(LlmCallSite.EMBEDDING,
+                            () -> embeddingModel.embed(texts),
+                            embeddings -> texts.stream().mapToInt(TokenEstimator::estimateTokens).sum(),
+                            embeddings -> 0)));
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(LlmCallSite.EMBEDDING);
+            throw e;
         } catch (Exception e) {
-            log.error("Failed to parse classification response: {}", llmResponse, e);
-            throw new RuntimeException("Invalid LLM classification response format", e);
+            log.error("Error calling embedding model", e);
+            throw new RuntimeException("Failed to embed text", e);
         }
     }
 
-    public JsonNode parseJsonResponse(String llmResponse) {
+    private String streamPrompt(Prompt aiPrompt, Consumer<String> tokenSink) {
+        LlmCallSite site = LlmCallSite.current();
+        StringBuilder fullResponse = new StringBuilder();
+        AtomicReference<Usage> usage = new AtomicReference<>();
         try {
-            String jsonContent = extractJsonFromResponse(llmResponse);
-            return objectMapper.readTree(jsonContent);
+            traced(site, aiPrompt.getContents().length(), () ->
+                    concurrencyLimiter.execute(() -> callMetrics.record(site, () -> chatModel.stream(aiPrompt)
+                                    .doOnNext(chunk -> {
+                                        Usage chunkUsage = usageOf(chunk);
+                                        if (chunkUsage != null) {
+                                            usage.set(chunkUsage);
+                                        }
+                                    })
+                                    .mapNotNull(this::extractChunkContent)
+                                    .doOnNext(chunk -> {
+                                        fullResponse.append(chunk);
+                                        tokenSink.accept(chunk);
+                                    })
+                                    .blockLast(),
+                            lastChunk -> promptTokens(usage.get(), aiPrompt),
+                            lastChunk -> completionTokens(usage.get(), fullResponse.toString()))));
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(site);
+            throw e;
         } catch (Exception e) {
-            log.warn("Initial JSON parsing failed, attempting to repair: {}", e.getMessage());
-            try {
-                String repairedJson = repairCommonJsonIssues(extractJsonFromResponse(llmResponse));
-                log.debug("Repaired JSON: {}", repairedJson);
-                return objectMapper.readTree(repairedJson);
-            } catch (Exception e2) {
-                log.error("Failed to parse JSON response even after repair: {}", llmResponse, e2);
-                throw new RuntimeException("Invalid JSON response format", e2);
-            }
+            log.error("Error streaming LLM response", e);
+            throw new RuntimeException("Failed to stream LLM response", e);
         }
+
+        log.debug("LLM stream completed with {} characters", fullResponse.length());
+        return fullResponse.toString();
     }
-    
-    private String repairCommonJsonIssues(String json) {
-        String repaired = json;
-        
-        // Fix missing commas between object properties (common LLM mistake)
-        // Pattern: "value"\n    "nextKey" should be "value",\n    "nextKey"
-        repaired = repaired.replaceAll("\"\\s*\\n\\s*\"", "\",\\n    \"");
-        
-        // Fix missing commas after closing quotes before newline and next property
-        repaired = repaired.replaceAll("(\"[^\"]*\")\\s*\\n\\s*(\"[^\"]*\":)", "$1,\\n    $2");
-        
-        // Fix null without quotes to proper null
-        repaired = repaired.replaceAll(":\\s*null\\s*\\n", ": null,\\n");
-        
-        return repaired;
+
+    private Prompt buildPrompt(String systemPrompt, String userMessage) {
+        return new Prompt(List.of(
+                new SystemMessage(systemPrompt),
+                new UserMessage(userMessage)
+        ));
     }
 
-    private String extractJsonFromResponse(String response) {
-        String trimmed = response.trim();
-        
-        int jsonStart = trimmed.indexOf('{');
-        int jsonEnd = trimmed.lastIndexOf('}');
-        
-        if (jsonStart != -1 && jsonEnd != -1 && jsonEnd > jsonStart) {
-            return trimmed.substring(jsonStart, jsonEnd + 1);
+    private String callChatModel(Prompt aiPrompt) {
+        ChatResponse response = callMetrics.record(LlmCallSite.current(), () -> chatModel.call(aiPrompt),
+                result -> promptTokens(usageOf(result), aiPrompt),
+                result -> completionTokens(usageOf(result), result.getResult().getOutput().getContent()));
+        return response.getResult().getOutput().getContent();
+    }
+
+    private OllamaGenerateClient.GenerateResult generate(
+            LlmCallSite site, OllamaGenerateClient.GenerateCall call, Consumer<String> tokenSink) {
+        return callMetrics.record(site, () -> ollamaGenerateClient.generate(call, tokenSink),
+                OllamaGenerateClient.GenerateResult::promptEvalCount,
+                OllamaGenerateClient.GenerateResult::evalCount);
+    }
+
+    /**
+     * Runs a model call in an {@code llm.call} span, which covers the wait for a slot as well as the call.
+     */
+    private <T> T traced(LlmCallSite site, int promptChars, Supplier<T> call) {
+        return traceSpans.inSpan("llm.call", span -> {
+            span.tag("llm.call.site", site.tag());
+            span.tag("llm.lane", LlmPriority.current().name().toLowerCase());
+            span.tag("llm.prompt.chars", String.valueOf(promptChars));
+            return call.get();
+        });
+    }
+
+    private static int promptChars(OllamaGenerateClient.GenerateCall call) {
+        return (call.system() == null ? 0 : call.system().length()) + call.prompt().length();
+    }
+
+    // Ollama reports token counts in the response metadata, on the last chunk when streaming
+    private static Usage usageOf(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return null;
         }
-        
-        return trimmed;
+        Usage usage = response.getMetadata().getUsage();
+        return usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() == 0 ? null : usage;
+    }
+
+    private static int promptTokens(Usage usage, Prompt aiPrompt) {
+        return usage != null && usage.getPromptTokens() != null
+                ? usage.getPromptTokens().intValue()
+                : TokenEstimator.estimateTokens(aiPrompt.getContents());
+    }
+
+    private static int completionTokens(Usage usage, String completion) {
+        return usage != null && usage.getGenerationTokens() != null
+                ? usage.getGenerationTokens().intValue()
+                : TokenEstimator.estimateTokens(completion);
+    }
+
+    private String extractChunkContent(ChatResponse chunk) {
+        if (chunk.getResult() == null || chunk.getResult().getOutput() == null) {
+            return null;
+        }
+        return chunk.getResult().getOutput().getContent();
+    }
+
+    /**
+     * Generates a JSON document constrained to the schema of {@code outputType} and maps it onto that record.
+     * Ollama enforces the schema while decoding, so the output parses without any repair pass.
+     *
+     * @param messageField user-facing string field to forward to the sink while generating, may be null
+     * @param tokenSink    receives the decoded text of {@code messageField}, or null for a blocking call
+     */
+    public <T> T generateStructured(String prompt, Class<T> outputType, String messageField, Consumer<String> tokenSink) {
+        log.debug("Generating {} for prompt length: {}", outputType.getSimpleName(), prompt.length());
+
+        LlmCallSite site = LlmCallSite.forOutput(outputType);
+        OllamaGenerateClient.GenerateCall call =
+                new OllamaGenerateClient.GenerateCall(SYSTEM_PROMPT, prompt, null, structuredFormat(outputType));
+        String response;
+        try {
+            response = traced(site, promptChars(call), () -> {
+                if (tokenSink == null || messageField == null) {
+                    PromptKey promptKey = new PromptKey(
+                            SYSTEM_PROMPT, prompt, "structured:" + outputType.getName(), LlmPriority.current());
+                    return requestCoalescer.execute(promptKey, () -> concurrencyLimiter.execute(() ->
+                            generate(site, call, null).response()));
+                }
+                JsonFieldStreamer fieldStreamer = new JsonFieldStreamer(messageField, tokenSink);
+                return concurrencyLimiter.execute(() -> generate(site, call, fieldStreamer).response());
+            });
+        } catch (LlmCapacityExceededException e) {
+            callMetrics.recordRejected(site);
+            throw e;
+        } catch (Exception e) {
+            log.error("Error calling LLM", e);
+            throw new RuntimeException("Failed to generate LLM response", e);
+        }
+
+        return traceSpans.inSpan("llm.output.parse", span -> {
+            span.tag("llm.output.type", outputType.getSimpleName());
+            span.tag("llm.output.chars", String.valueOf(response.length()));
+            try {
+                return objectMapper.readValue(response, outputType);
+            } catch (Exception e) {
+                callMetrics.recordInvalidOutput(site);
+                log.error("LLM output does not match {}: {}", outputType.getSimpleName(), response, e);
+                throw new RuntimeException("Invalid " + outputType.getSimpleName() + " response from LLM", e);
+            }
+        });
+    }
+
+    private Object structuredFormat(Class<?> outputType) {
+        if (llmConfig.getStructuredOutputFormat() == LlmConfig.StructuredOutputFormat.JSON) {
+            return "json";
+        }
+        return outputSchemas.computeIfAbsent(outputType, type -> {
+            try {
+                return objectMapper.readValue(new BeanOutputConverter<>(type).getJsonSchema(), Map.class);
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot derive JSON schema for " + type.getName(), e);
+            }
+        });
     }
 
 	public boolean isAffirmativeReply(String userReply) {
@@ -121,6 +332,13 @@ public class LlmService {
 			return false;
 		}
 
+        Optional<Boolean> localVerdict = affirmativeReplyClassifier.classify(trimmedReply);
+        if (localVerdict.isPresent()) {
+            return localVerdict.get();
+        }
+
+        log.debug("Reply '{}' is ambiguous, asking the LLM", trimmedReply);
+
         String prompt = """
                 You are a classifier that decides whether a short user reply is AFFIRMATIVE or NOT.
 
@@ -142,15 +360,13 @@ public class LlmService {
                 User reply: "%s"
                 """.formatted(trimmedReply);
 
-        String llmResponse = generateResponse(prompt);
-        JsonNode json = parseJsonResponse(llmResponse);
-
-        if (json.has("affirmative")) {
-            return json.get("affirmative").asBoolean();
-        }
-
-        // fallback
-        return false;
+        return generateStructured(prompt, LlmOutputs.Affirmative.class, null, null).affirmative();
 		
 	}
+
+    /**
+     * Identity of a model call for single-flight deduplication. The lane is part of it: a caller
+     * joining another call waits in that call's queue lane, which must not be a less urgent one.
+     */
+    private record PromptKey(String systemPrompt, String userMessage, String options, LlmPriority priority) {}
 }
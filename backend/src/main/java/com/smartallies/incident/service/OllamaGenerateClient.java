@@ -0,0 +1,30 @@
+package com.smartallies.incident.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Ollama's /api/generate endpoint, which unlike /api/chat can continue from the
+ * {@code context} token array returned by the previous call of the same conversation.
+ */
+public interface OllamaGenerateClient {
+
+    /**
+     * @param tokenSink receives response chunks as they arrive, may be null
+     */
+    GenerateResult generate(GenerateCall call, Consumer<String> tokenSink);
+
+    /**
+     * @param system  system prompt, only needed when no context is given
+     * @param context token array of the conversation so far, null to start a new one
+     * @param format  Ollama output format: "json" or a JSON schema, null for free text
+     */
+    record GenerateCall(String system, String prompt, List<Integer> context, Object format) {
+
+        public GenerateCall(String system, String prompt, List<Integer> context) {
+            this(system, prompt, context, null);
+        }
+    }
+
+    record GenerateResult(String response, List<Integer> context, int promptEvalCount, int evalCount) {}
+}
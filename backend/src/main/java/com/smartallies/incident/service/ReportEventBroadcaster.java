@@ -0,0 +1,284 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ReportEventsConfig;
+import com.smartallies.incident.dto.ReportEventResponse;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentReportSubmittedEvent;
+import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.model.ReportStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes report submissions and status changes to server-sent event subscribers, either of one
+ * report or of all reports.
+ *
+ * <p>Every event gets an id of the form {@code <epoch>-<sequence>}, where the epoch changes with
+ * every start of the backend. The last {@code reports.events.replay-buffer} events are kept, so a
+ * client reconnecting with a {@code Last-Event-ID} gets what it missed; when that is no longer
+ * possible it gets a "resync" event and should reload. An idle subscriber holds no thread, only its
+ * emitter: events are queued per subscriber and written by a short task on the chat executor, so a
+ * slow client never delays the request that changed the report nor the other subscribers.
+ */
+@Slf4j
+@Service
+public class ReportEventBroadcaster {
+
+    static final String SUBMITTED_EVENT = "submitted";
+    static final String STATUS_EVENT = "status";
+    static final String RESYNC_EVENT = "resync";
+
+    private final ReportEventsConfig config;
+    private final ExecutorService chatTaskExecutor;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // Guarded by itself, as is registering a subscriber, so that no event is replayed and also delivered
+    private final ReportEvent[] replayBuffer;
+    private long nextSequence = 1;
+
+    private final Map<String, Set<Subscription>> reportSubscriptions = new ConcurrentHashMap<>();
+    private final Set<Subscription> allReportsSubscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter publishedEvents;
+    private final Counter slowSubscribers;
+    private ScheduledExecutorService heartbeat;
+
+    public ReportEventBroadcaster(ReportEventsConfig config, ExecutorService chatTaskExecutor, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.chatTaskExecutor = chatTaskExecutor;
+        this.replayBuffer = new ReportEvent[config.getReplayBuffer()];
+        this.publishedEvents = Counter.builder("report.events.published")
+                .description("Report submissions and status changes pushed to subscribers")
+                .register(meterRegistry);
+        this.slowSubscribers = Counter.builder("report.events.slow.subscribers")
+                .description("Subscribers disconnected because they fell too far behind")
+                .register(meterRegistry);
+        Gauge.builder("report.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open report event subscriptions")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void startHeartbeat() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("report-events-heartbeat").daemon().factory());
+        long intervalMillis = config.getHeartbeatInterval().toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void closeSubscriptions() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        forEachSubscription(subscription -> subscription.emitter.complete());
+    }
+
+    /**
+     * @param reportId    the report to follow, or null for all reports
+     * @param lastEventId id of the last event the client received before reconnecting, or null
+     */
+    public SseEmitter subscribe(String reportId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(config.getSubscriptionTimeout().toMillis());
+        Subscription subscription = new Subscription(emitter, reportId);
+        emitter.onCompletion(() -> unregister(subscription));
+        emitter.onTimeout(() -> unregister(subscription));
+        emitter.onError(error -> unregister(subscription));
+
+        synchronized (replayBuffer) {
+            List<ReportEvent> missed = lastEventId == null ? List.of() : eventsAfter(lastEventId);
+            if (reportId == null) {
+                allReportsSubscriptions.add(subscription);
+            } else {
+                reportSubscriptions.computeIfAbsent(reportId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+            }
+            subscriberCount.incrementAndGet();
+            if (missed == null) {
+                subscription.offer(ReportEvent.RESYNC);
+            } else {
+                missed.stream().filter(subscription::wants).forEach(subscription::offer);
+            }
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onReportSubmitted(IncidentReportSubmittedEvent event) {
+        publish(SUBMITTED_EVENT, event.report(), null);
+    }
+
+    @EventListener
+    public void onReportStatusChanged(ReportStatusChangedEvent event) {
+        publish(STATUS_EVENT, event.report(), event.previousStatus());
+    }
+
+    private void publish(String name, IncidentReport report, ReportStatus previousStatus) {
+        ReportEventResponse payload = ReportEventResponse.builder()
+                .reportId(report.getReportId())
+                .incidentType(report.getIncidentType())
+                .status(report.getStatus())
+                .previousStatus(previousStatus)
+                .lastUpdated(report.getLastUpdated())
+                .build();
+        synchronized (replayBuffer) {
+            long sequence = nextSequence++;
+            ReportEvent event = new ReportEvent(epoch + "-" + sequence, name, payload);
+            replayBuffer[(int) (sequence % replayBuffer.length)] = event;
+
+            Set<Subscription> followers = reportSubscriptions.get(report.getReportId());
+            if (followers != null) {
+                followers.forEach(subscription -> subscription.offer(event));
+            }
+            allReportsSubscriptions.forEach(subscription -> subscription.offer(event));
+        }
+        publishedEvents.increment();
+    }
+
+    /**
+     * @return the buffered events after the given id, or null when they can no longer be replayed
+     */
+    private List<ReportEvent> eventsAfter(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return null;
+        }
+        long lastSequence;
+        try {
+            lastSequence = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldestBuffered = Math.max(1, nextSequence - replayBuffer.length);
+        if (lastSequence < oldestBuffered - 1 || lastSequence >= nextSequence) {
+            return null;
+        }
+        List<ReportEvent> missed = new ArrayList<>();
+        for (long sequence = lastSequence + 1; sequence < nextSequence; sequence++) {
+            missed.add(replayBuffer[(int) (sequence % replayBuffer.length)]);
+        }
+        return missed;
+    }
+
+    private void unregister(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (subscription.reportId == null) {
+            allReportsSubscriptions.remove(subscription);
+        } else {
+            reportSubscriptions.computeIfPresent(subscription.reportId, (id, followers) -> {
+                followers.remove(subscription);
+                return followers.isEmpty() ? null : followers;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    private void sendHeartbeats() {
+        try {
+            forEachSubscription(subscription -> subscription.offer(ReportEvent.HEARTBEAT));
+        } catch (Exception e) {
+            log.error("Report event heartbeat failed", e);
+        }
+    }
+
+    private void forEachSubscription(Consumer<Subscription> action) {
+        allReportsSubscriptions.forEach(action);
+        reportSubscriptions.values().forEach(followers -> followers.forEach(action));
+    }
+
+    private record ReportEvent(String id, String name, ReportEventResponse payload) {
+
+        static final ReportEvent HEARTBEAT = new ReportEvent(null, null, null);
+        static final ReportEvent RESYNC = new ReportEvent(null, RESYNC_EVENT, null);
+
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("keep-alive");
+            }
+            SseEmitter.SseEventBuilder sse = SseEmitter.event().name(name);
+            if (id != null) {
+                sse.id(id);
+            }
+            return payload == null ? sse.data("") : sse.data(payload, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private final String reportId;
+        private final Queue<ReportEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscription(SseEmitter emitter, String reportId) {
+            this.emitter = emitter;
+            this.reportId = reportId;
+        }
+
+        boolean wants(ReportEvent event) {
+            return reportId == null || reportId.equals(event.payload().getReportId());
+        }
+
+        void offer(ReportEvent event) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > config.getMaxPendingPerSubscriber()) {
+                // Cheaper for everyone if it reconnects and resumes from its Last-Event-ID
+                slowSubscribers.increment();
+                unregister(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true)) {
+                chatTaskExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                ReportEvent event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    if (closed.get()) {
+                        continue;
+                    }
+                    try {
+                        emitter.send(event.toSse());
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Report event subscriber went away: {}", e.getMessage());
+                        unregister(this);
+                    }
+                }
+                draining.set(false);
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
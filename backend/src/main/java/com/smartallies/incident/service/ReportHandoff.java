@@ -0,0 +1,75 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartallies.incident.config.ClusterConfig;
+import com.smartallies.incident.model.IncidentReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sends reports submitted on this node to {@code cluster.report-node}, which stores the reports of the
+ * whole cluster. Reports are created where their session lives, the report API is served by the report node.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ReportHandoff {
+
+    private static final Duration HANDOFF_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ClusterConfig clusterConfig;
+    private final ClusterMembership membership;
+    private final HttpClient clusterHttpClient;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    public ReportHandoff(ClusterConfig clusterConfig, ClusterMembership membership, HttpClient clusterHttpClient) {
+        this.clusterConfig = clusterConfig;
+        this.membership = membership;
+        this.clusterHttpClient = clusterHttpClient;
+    }
+
+    public boolean storesLocally() {
+        return membership.isSelf(membership.reportNode());
+    }
+
+    /**
+     * Stores a new report on the report node; it is durable there once this returns.
+     *
+     * @throws ReportNodeUnavailableException when the report node did not take it
+     */
+    public void send(IncidentReport report) {
+        String reportNode = membership.reportNode();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(reportNode + "/internal/cluster/reports"))
+                    .timeout(HANDOFF_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header(SessionHandoff.SECRET_HEADER, clusterConfig.getSharedSecret())
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(report)))
+                    .build();
+            int status = clusterHttpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status / 100 != 2) {
+                throw new ReportNodeUnavailableException("Report node " + reportNode + " answered " + status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReportNodeUnavailableException("Interrupted while sending report to " + reportNode);
+        } catch (IOException e) {
+            log.warn("Could not send report {} to {}: {}", report.getReportId(), reportNode, e.getMessage());
+            throw new ReportNodeUnavailableException("Report node " + reportNode + " is not reachable");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartallies.incident.dto.ReportImportResponse;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.repository.ReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk export and import of reports as NDJSON, one report per line.
+ *
+ * <p>Export walks the store's index page by page and writes each page as it goes, so memory stays
+ * bounded by one page whatever the number of reports. Import reads one line at a time and saves
+ * reports in batches, so a batch costs one commit of the store; a line that does not parse or lacks
+ * an id or submission time is skipped and reported. Imported reports replace stored reports with the
+ * same id and, unlike submissions, publish no events.
+ */
+@Slf4j
+@Service
+public class ReportTransferService {
+
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final ReportRepository reportRepository;
+    private final ObjectWriter reportWriter;
+    private final ObjectReader reportReader;
+    private final Counter exportedReports;
+    private final Counter importedReports;
+    private final Counter rejectedReports;
+
+    public ReportTransferService(ReportRepository reportRepository, MeterRegistry meterRegistry) {
+        this.reportRepository = reportRepository;
+        JsonMapper mapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                // Export writes many values to one stream and flushes once per page
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .build();
+        this.reportWriter = mapper.writerFor(IncidentReport.class);
+        this.reportReader = mapper.readerFor(IncidentReport.class);
+        this.exportedReports = transferCounter("export", meterRegistry);
+        this.importedReports = transferCounter("import", meterRegistry);
+        this.rejectedReports = Counter.builder("reports.transfer.rejected")
+                .description("Imported lines skipped because they were not a valid report")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the matching reports, newest first, and flushes after every page.
+     *
+     * @return the number of reports written
+     */
+    public long exportReports(ReportStatus status, IncidentType incidentType,
+                              LocalDateTime submittedFrom, LocalDateTime submittedTo,
+                              OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long exported = 0;
+        String cursor = null;
+        do {
+            ReportPage page = reportRepository.query(new ReportQuery(
+                    status, incidentType, submittedFrom, submittedTo, null, cursor, EXPORT_PAGE_SIZE));
+            for (IncidentReport report : page.reports()) {
+                reportWriter.writeValue(out, report);
+                out.write('\n');
+            }
+            out.flush();
+            exported += page.reports().size();
+            exportedReports.increment(page.reports().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        log.info("Exported {} reports (status={}, type={}, submitted {} to {}) in {} ms", exported,
+                status, incidentType, submittedFrom, submittedTo,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return exported;
+    }
+
+    public ReportImportResponse importReports(InputStream in) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        List<IncidentReport> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String error;
+            try {
+                IncidentReport report = reportReader.readValue(line);
+                error = validate(report);
+                if (error == null) {
+                    batch.add(report);
+                }
+            } catch (IOException e) {
+                error = "not a report: " + e.getOriginalMessage();
+            }
+            if (error != null) {
+                rejected++;
+                rejectedReports.increment();
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("line " + lineNumber + ": " + error);
+                }
+            }
+            if (batch.size() == IMPORT_BATCH_SIZE) {
+                imported += saveBatch(batch);
+            }
+        }
+        imported += saveBatch(batch);
+
+        log.info("Imported {} reports, rejected {}, in {} ms", imported, rejected,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return ReportImportResponse.builder()
+                .imported(imported)
+                .rejected(rejected)
+                .errors(errors)
+                .build();
+    }
+
+    private int saveBatch(List<IncidentReport> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        reportRepository.saveAll(List.copyOf(batch));
+        importedReports.increment(batch.size());
+        int saved = batch.size();
+        batch.clear();
+        return saved;
+    }
+
+    private static String validate(IncidentReport report) {
+        if (report.getReportId() == null || report.getReportId().isBlank()) {
+            return "reportId is missing";
+        }
+        if (report.getSubmittedAt() == null) {
+            return "submittedAt is missing";
+        }
+        if (report.getStatus() == null) {
+            report.setStatus(ReportStatus.SUBMITTED);
+        }
+        if (report.getLastUpdated() == null) {
+            report.setLastUpdated(report.getSubmittedAt());
+        }
+        return null;
+    }
+
+    private static Counter transferCounter(String direction, MeterRegistry meterRegistry) {
+        return Counter.builder("reports.transfer.records")
+                .description("Reports exported or imported in bulk")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
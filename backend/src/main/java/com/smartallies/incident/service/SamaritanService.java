@@ -1,44 +1,57 @@
 package com.smartallies.incident.service;
 
+import com.smartallies.incident.config.ConversationConfig;
 import com.smartallies.incident.dto.ConnectSamaritanResponse;
 import com.smartallies.incident.dto.SamaritanChatResponse;
 import com.smartallies.incident.dto.IncidentReportResponse;
 import com.smartallies.incident.dto.SubmitReportRequest;
 import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.SamaritanPartner;
+import com.smartallies.incident.model.LlmOutputs;
 import com.smartallies.incident.model.SamaritanSession;
+import com.smartallies.incident.model.SessionState;
 import com.smartallies.incident.model.WorkflowState;
+import com.smartallies.incident.util.PromptTemplates;
+import com.smartallies.incident.util.TranscriptCutoffStreamer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SamaritanService {
 
-    private final Map<String, SamaritanSession> samaritanSessions = new ConcurrentHashMap<>();
-    private final Map<String, List<String>> conversationHistory = new ConcurrentHashMap<>();
+    private final SessionRegistry sessionRegistry;
     private final ConversationContextService contextService;
-    private final ChatClient.Builder chatClientBuilder;
     private final LlmService llmService;
+    private final ConversationContinuationService continuationService;
+    private final ConversationHistoryService historyService;
     private final IncidentReportService incidentReportService;
+    private final ConversationConfig conversationConfig;
+    private final ExecutorService chatTaskExecutor;
+    private final TraceSpans traceSpans;
+    private final ChatLatencyRecorder latencyRecorder;
+    private final SessionLocks sessionLocks;
 
-    private static final List<SamaritanPartner> SAMARITAN_PARTNERS = List.of(
-            new SamaritanPartner("James Anderson", "https://i.pravatar.cc/150?img=15"),
-            new SamaritanPartner("Lisa Thompson", "https://i.pravatar.cc/150?img=9"),
-            new SamaritanPartner("Robert Martinez", "https://i.pravatar.cc/150?img=13"),
-            new SamaritanPartner("Anna Williams", "https://i.pravatar.cc/150?img=20")
-    );
+    // Where the model starts writing the user's side of the conversation
+    private static final List<String> STOP_MARKERS = List.of("Reporter:", "User:");
+    private static final int CONCLUSION_WINDOW_TURNS = 10;
 
     public ConnectSamaritanResponse connectToSamaritan(String sessionId) {
+        return sessionLocks.runExclusive(sessionId, () -> openSamaritanSession(sessionId));
+    }
+
+    private ConnectSamaritanResponse openSamaritanSession(String sessionId) {
         log.warn("EMERGENCY: Connecting session {} to Samaritan", sessionId);
 
         ConversationContext context = contextService.getContext(sessionId);
@@ -50,51 +63,69 @@ public class SamaritanService {
         
         SamaritanSession session = SamaritanSession.builder()
                 .sessionId(sessionId)
-                .samaritanName(partner.name())
-                .samaritanImage(partner.image())
-                .samaritanId(UUID.randomUUID().toString())
+                .partner(partner)
                 .isActive(true)
-                .startedAt(LocalDateTime.now())
+                .startedAtMillis(System.currentTimeMillis())
                 .emergencyLocation(context.getField("location"))
                 .build();
 
-        samaritanSessions.put(sessionId, session);
-        conversationHistory.put(sessionId, new ArrayList<>());
+        SessionState sessionState = sessionRegistry.getOrCreate(sessionId);
+        sessionState.setSamaritanHistory(new ConversationHistory());
+        sessionState.setSamaritanSession(session);
         
         String greeting = String.format(
                 "This is %s. I've received your emergency alert from location: %s. " +
                 "Help is on the way. Can you tell me what's happening right now? " +
                 "Who needs assistance and what is their current condition?",
-                partner.name(),
+                partner.displayName(),
                 context.getField("location")
         );
 
         return ConnectSamaritanResponse.builder()
                 .connected(true)
-                .samaritanName(partner.name())
+                .samaritanName(partner.displayName())
                 .samaritanImage(partner.image())
                 .message(greeting)
                 .build();
     }
 
     public SamaritanChatResponse sendMessageToSamaritan(String sessionId, String userMessage) {
+        return sendMessageToSamaritan(sessionId, userMessage, null);
+    }
+
+    public SamaritanChatResponse sendMessageToSamaritan(String sessionId, String userMessage, Consumer<String> tokenSink) {
+        return sessionLocks.runExclusive(sessionId, () -> latencyRecorder.recordTurn(LlmPriority.EMERGENCY,
+                () -> handleSamaritanMessage(sessionId, userMessage, tokenSink)));
+    }
+
+    private SamaritanChatResponse handleSamaritanMessage(String sessionId, String userMessage, Consumer<String> tokenSink) {
         log.info("Processing Samaritan chat message for session: {}", sessionId);
 
-        SamaritanSession session = samaritanSessions.get(sessionId);
+        SessionState sessionState = sessionRegistry.find(sessionId);
+        SamaritanSession session = sessionState == null ? null : sessionState.getSamaritanSession();
         if (session == null || !session.isActive()) {
             throw new IllegalArgumentException("No active Samaritan session found");
         }
 
-        List<String> history = conversationHistory.get(sessionId);
-        history.add("Reporter: " + userMessage);
+        ConversationHistory history = sessionState.getSamaritanHistory();
+        ConversationTurn userTurn = ConversationTurn.fromUser(userMessage);
+
+        CompletableFuture<Boolean> pipelinedConclusion = conversationConfig.isPipelinedConclusionDetection()
+                ? startConclusionDetection(sessionId, history, userTurn)
+                : null;
 
-        String samaritanResponse = generateSamaritanResponse(sessionId, userMessage, history);
-        history.add("Samaritan: " + samaritanResponse);
+        String samaritanResponse = generateSamaritanResponse(sessionId, userMessage, history, tokenSink);
+        history.addTurn(userTurn);
+        history.addTurn(ConversationTurn.fromPartner(samaritanResponse));
+        historyService.compactInBackground(history);
 
-        boolean shouldEnd = detectEmergencyResolution(sessionId, history, samaritanResponse);
+        boolean shouldEnd = pipelinedConclusion != null
+                ? pipelinedConclusion.join()
+                : detectEmergencyResolution(sessionId, history.recentTurns(CONCLUSION_WINDOW_TURNS),
+                        history.totalTurnCount(), userMessage, samaritanResponse, false);
         
         if (shouldEnd) {
-            return endSamaritanSession(sessionId, history);
+            return endSamaritanSession(sessionId);
         }
 
         return SamaritanChatResponse.builder()
@@ -105,78 +136,95 @@ public class SamaritanService {
                 .build();
     }
 
-    private String generateSamaritanResponse(String sessionId, String userMessage, List<String> history) {
+    private String generateSamaritanResponse(String sessionId, String userMessage, ConversationHistory history, Consumer<String> tokenSink) {
         ConversationContext context = contextService.getContext(sessionId);
-        SamaritanSession session = samaritanSessions.get(sessionId);
+        SamaritanSession session = getSamaritanSession(sessionId);
 
-        String conversationContext = String.join("\n", history);
-        
-        String systemPrompt = String.format(
-                "You are %s, an emergency response Samaritan for the company. " +
-                "You are responding to an emergency alert from location: %s\n" +
-                "Initial emergency report: %s\n\n" +
-                "Your role:\n" +
-                "- Stay calm and professional\n" +
-                "- Assess the situation quickly\n" +
-                "- Ask critical questions: Who needs help? What's their condition? Are they conscious? Any injuries?\n" +
-                "- Provide immediate guidance if safe to do so\n" +
-                "- Keep responses brief and action-oriented (2-3 sentences)\n" +
-                "- Reassure that help is arriving\n" +
-                "- After gathering key information (name, condition, immediate danger status), conclude by:\n" +
-                "  * Confirming emergency services are en route\n" +
-                "  * Providing any last safety instructions\n" +
-                "  * Documenting the incident\n\n" +
-                "IMPORTANT: Only provide YOUR response as the Samaritan. " +
-                "Do NOT generate or simulate the reporter's response. " +
-                "Do NOT include 'Reporter:' or 'User:' in your output.\n\n" +
-                "Previous conversation:\n%s",
+        String systemPrompt = PromptTemplates.buildSamaritanSystemPrompt(
                 session.getSamaritanName(),
                 session.getEmergencyLocation(),
-                context.getInitialMessage(),
-                conversationContext
+                context.getInitialMessage()
         );
+        ConversationHistoryService.PromptHistory promptHistory =
+                historyService.fitToContextWindow(history, systemPrompt, userMessage);
 
-        ChatClient chatClient = chatClientBuilder.build();
-        
-        String response = chatClient.prompt()
-                .system(systemPrompt)
-                .user(userMessage)
-                .call()
-                .content();
+        TranscriptCutoffStreamer streamer = tokenSink == null ? null : new TranscriptCutoffStreamer(STOP_MARKERS, tokenSink);
+        String response = LlmCallSite.SAMARITAN_REPLY.callWith(() -> continuationService.generateReply(
+                sessionId,
+                promptHistory.systemPrompt(),
+                promptHistory.earlierTurns(),
+                userMessage,
+                streamer
+        ));
+        if (streamer != null) {
+            streamer.finish();
+        }
         
-        if (response.contains("Reporter:") || response.contains("User:")) {
-            int userIndex = Math.min(
-                response.indexOf("Reporter:") != -1 ? response.indexOf("Reporter:") : Integer.MAX_VALUE,
-                response.indexOf("User:") != -1 ? response.indexOf("User:") : Integer.MAX_VALUE
-            );
-            if (userIndex > 0 && userIndex != Integer.MAX_VALUE) {
-                response = response.substring(0, userIndex).trim();
+        return TranscriptCutoffStreamer.cutOff(response, STOP_MARKERS);
+    }
+
+    /**
+     * Judges the conversation so far (ending with the user's latest message and the previous
+     * Samaritan reply) on the task executor, so the verdict is ready when the new reply is. The
+     * turn count includes that new reply, as it does when detection runs after it.
+     */
+    private CompletableFuture<Boolean> startConclusionDetection(
+            String sessionId, ConversationHistory history, ConversationTurn userTurn) {
+        List<ConversationTurn> recentTurns = new ArrayList<>(history.recentTurns(CONCLUSION_WINDOW_TURNS - 1));
+        recentTurns.add(userTurn);
+        int totalTurnCount = history.totalTurnCount() + 2;
+        String previousSamaritanResponse = findLastPartnerResponse(recentTurns);
+
+        return CompletableFuture.supplyAsync(
+                traceSpans.bind(LlmPriority.current().bind(() -> detectEmergencyResolution(
+                        sessionId, recentTurns, totalTurnCount, userTurn.text(), previousSamaritanResponse, true))),
+                chatTaskExecutor
+        );
+    }
+
+    private String findLastPartnerResponse(List<ConversationTurn> turns) {
+        for (int i = turns.size() - 1; i >= 0; i--) {
+            if (turns.get(i).speaker() == ConversationTurn.Speaker.PARTNER) {
+                return turns.get(i).text();
             }
         }
-        
-        return response;
+        return "";
     }
 
-    private boolean detectEmergencyResolution(String sessionId, List<String> history, String samaritanResponse) {
-        if (history.size() < 1) {
+    private String renderTranscript(List<ConversationTurn> turns) {
+        return turns.stream()
+                .map(turn -> (turn.speaker() == ConversationTurn.Speaker.USER ? "Reporter: " : "Samaritan: ") + turn.text())
+                .collect(Collectors.joining("\n"));
+    }
+
+    private boolean detectEmergencyResolution(
+            String sessionId,
+            List<ConversationTurn> recentTurns,
+            int totalTurnCount,
+            String userMessage,
+            String samaritanResponse,
+            boolean replyPending) {
+        if (totalTurnCount < 1) {
             return false;
         }
 
-        String lastUserMessage = "";
-        for (int i = history.size() - 1; i >= 0; i--) {
-            if (history.get(i).startsWith("Reporter: ")) {
-                lastUserMessage = history.get(i).substring(10).toLowerCase().trim();
-                break;
-            }
+        String lastUserMessage = userMessage.toLowerCase().trim();
+        String conversationContext = renderTranscript(recentTurns);
+        // While pipelined, the reply to the reporter's last message is still being written
+        String samaritanResponseLine;
+        if (!replyPending) {
+            samaritanResponseLine = String.format("The Samaritan just responded: \"%s\"\n", samaritanResponse);
+        } else if (samaritanResponse.isEmpty()) {
+            samaritanResponseLine = "";
+        } else {
+            samaritanResponseLine = String.format("The Samaritan's previous reply was: \"%s\"\n", samaritanResponse);
         }
-
-        String conversationContext = String.join("\n", history.subList(Math.max(0, history.size() - 10), history.size()));
         
         String detectionPrompt = String.format(
                 "You are analyzing an emergency response conversation to determine if it can be concluded.\n\n" +
                 "Recent conversation:\n%s\n\n" +
                 "The reporter's last message: \"%s\"\n" +
-                "The Samaritan just responded: \"%s\"\n\n" +
+                "%s\n" +
                 "Return true (resolved) if ANY apply:\n" +
                 "1. Samaritan confirmed emergency services are arriving and gave final instructions\n" +
                 "2. Reporter confirmed situation is stable/under control\n" +
@@ -195,14 +243,14 @@ public class SamaritanService {
                 "}",
                 conversationContext,
                 lastUserMessage,
-                samaritanResponse
+                samaritanResponseLine
         );
 
         try {
-            String llmResponse = llmService.generateResponse(detectionPrompt);
-            com.fasterxml.jackson.databind.JsonNode result = llmService.parseJsonResponse(llmResponse);
-            boolean resolved = result.get("resolved").asBoolean();
-            String reasoning = result.get("reasoning").asText();
+            LlmOutputs.EmergencyResolution result =
+                    llmService.generateStructured(detectionPrompt, LlmOutputs.EmergencyResolution.class, null, null);
+            boolean resolved = result.resolved();
+            String reasoning = result.reasoning();
             
             log.info("Emergency resolution for session {}: {} - {}", 
                     sessionId, resolved, reasoning);
@@ -210,12 +258,12 @@ public class SamaritanService {
             return resolved;
         } catch (Exception e) {
             log.error("Failed to detect emergency resolution, using fallback", e);
-            return history.size() >= 16;
+            return totalTurnCount >= 16;
         }
     }
 
-    private SamaritanChatResponse endSamaritanSession(String sessionId, List<String> history) {
-        SamaritanSession session = samaritanSessions.get(sessionId);
+    private SamaritanChatResponse endSamaritanSession(String sessionId) {
+        SamaritanSession session = getSamaritanSession(sessionId);
         ConversationContext context = contextService.getContext(sessionId);
         
         SubmitReportRequest request = SubmitReportRequest.builder()
@@ -227,7 +275,8 @@ public class SamaritanService {
         String ticketId = response.getReportId();
         
         session.setActive(false);
-        session.setEndedAt(LocalDateTime.now());
+        continuationService.forget(sessionId);
+        session.setEndedAtMillis(System.currentTimeMillis());
         session.setTicketId(ticketId);
 
         context.setWorkflowState(WorkflowState.ALERT_SENT);
@@ -253,13 +302,12 @@ public class SamaritanService {
     }
 
     public SamaritanSession getSamaritanSession(String sessionId) {
-        return samaritanSessions.get(sessionId);
+        SessionState sessionState = sessionRegistry.find(sessionId);
+        return sessionState == null ? null : sessionState.getSamaritanSession();
     }
 
     private SamaritanPartner selectRandomSamaritan() {
-        int index = (int) (Math.random() * SAMARITAN_PARTNERS.size());
-        return SAMARITAN_PARTNERS.get(index);
+        SamaritanPartner[] partners = SamaritanPartner.values();
+        return partners[(int) (Math.random() * partners.length)];
     }
-
-    private record SamaritanPartner(String name, String image) {}
 }
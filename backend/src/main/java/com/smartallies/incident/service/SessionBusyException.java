@@ -0,0 +1,12 @@
+package com.smartallies.incident.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SessionBusyException extends RuntimeException {
+
+    public SessionBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,169 @@
+package com.smartallies.incident.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartallies.incident.config.ClusterConfig;
+import com.smartallies.incident.model.ClusterRingChangedEvent;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.model.SessionState;
+import com.smartallies.incident.util.ConsistentHashRing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Moves sessions to the node that owns them after the ring changed: when a node joins, the others
+ * push it the sessions it now owns; when this node shuts down, it pushes all of its sessions to
+ * their owners on the ring without it. A node that crashes loses its sessions.
+ *
+ * <p>A session is handed over under its session lock, so no turn runs while it moves, and is
+ * removed locally only once the new owner took it.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class SessionHandoff {
+
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    private static final Duration HANDOFF_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ClusterConfig clusterConfig;
+    private final ClusterMembership membership;
+    private final SessionRegistry sessionRegistry;
+    private final SessionLocks sessionLocks;
+    private final HttpClient clusterHttpClient;
+    private final ExecutorService chatTaskExecutor;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final Counter sentSessions;
+    private final Counter receivedSessions;
+    private final Counter failedHandoffs;
+
+    public SessionHandoff(
+            ClusterConfig clusterConfig,
+            ClusterMembership membership,
+            SessionRegistry sessionRegistry,
+            SessionLocks sessionLocks,
+            HttpClient clusterHttpClient,
+            ExecutorService chatTaskExecutor,
+            MeterRegistry meterRegistry) {
+        this.clusterConfig = clusterConfig;
+        this.membership = membership;
+        this.sessionRegistry = sessionRegistry;
+        this.sessionLocks = sessionLocks;
+        this.clusterHttpClient = clusterHttpClient;
+        this.chatTaskExecutor = chatTaskExecutor;
+        this.sentSessions = handoffCounter("sent", meterRegistry);
+        this.receivedSessions = handoffCounter("received", meterRegistry);
+        this.failedHandoffs = handoffCounter("failed", meterRegistry);
+    }
+
+    @EventListener
+    public void onRingChanged(ClusterRingChangedEvent event) {
+        chatTaskExecutor.execute(LlmPriority.BACKGROUND.bind(() -> handOffSessionsNotOwned(event.current())));
+    }
+
+    @PreDestroy
+    void leaveCluster() {
+        ConsistentHashRing remaining = membership.ring().without(clusterConfig.getSelf(), clusterConfig.getVirtualNodes());
+        if (!remaining.nodes().isEmpty()) {
+            log.info("Leaving the cluster, handing {} sessions to {}", sessionRegistry.sessionIds().size(), remaining.nodes());
+            handOffSessionsNotOwned(remaining);
+        }
+    }
+
+    /**
+     * Takes over a session pushed by another node.
+     */
+    public boolean accept(SessionSnapshot snapshot) {
+        boolean adopted = sessionRegistry.adopt(SessionState.fromSnapshot(snapshot, System.nanoTime()));
+        if (adopted) {
+            receivedSessions.increment();
+        }
+        return adopted;
+    }
+
+    public boolean isTrusted(String secret) {
+        return secret != null && MessageDigest.isEqual(
+                clusterConfig.getSharedSecret().getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handOffSessionsNotOwned(ConsistentHashRing ring) {
+        int moved = 0;
+        for (String sessionId : sessionRegistry.sessionIds()) {
+            String owner = ring.ownerOf(sessionId);
+            if (owner == null || membership.isSelf(owner)) {
+                continue;
+            }
+            try {
+                if (handOff(sessionId, owner)) {
+                    moved++;
+                }
+            } catch (SessionBusyException e) {
+                failedHandoffs.increment();
+                log.warn("Session {} stayed busy, keeping it here", sessionId);
+            }
+        }
+        if (moved > 0) {
+            log.info("Handed {} sessions to their new owners", moved);
+        }
+    }
+
+    private boolean handOff(String sessionId, String owner) {
+        return sessionLocks.runExclusive(sessionId, () -> {
+            SessionState state = sessionRegistry.find(sessionId);
+            if (state == null) {
+                return false;
+            }
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(owner + "/internal/cluster/sessions"))
+                        .timeout(HANDOFF_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .header(SECRET_HEADER, clusterConfig.getSharedSecret())
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(state.toSnapshot())))
+                        .build();
+                int status = clusterHttpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status / 100 != 2) {
+                    throw new IllegalStateException("owner answered " + status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedHandoffs.increment();
+                return false;
+            } catch (Exception e) {
+                failedHandoffs.increment();
+                log.warn("Could not hand session {} to {}, keeping it here: {}", sessionId, owner, e.getMessage());
+                return false;
+            }
+            sessionRegistry.remove(sessionId);
+            sentSessions.increment();
+            return true;
+        });
+    }
+
+    private static Counter handoffCounter(String direction, MeterRegistry meterRegistry) {
+        return Counter.builder("cluster.handoff.sessions")
+                .description("Sessions moved between nodes after the ring changed")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.SessionConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the turns of one session, so a double-tap or a retry from the PWA cannot run two
+ * handlers on the same conversation state at once. Turns of one session run in arrival order;
+ * turns of different sessions never wait for each other.
+ *
+ * <p>Each session gets its own fair lock while at least one turn holds or waits for it; the
+ * lock is dropped with its last user, so idle sessions cost nothing here. The lock is reentrant,
+ * so a turn may call other session-locked services. Background work started by a turn must not
+ * take the lock, or it would wait for the turn that started it.
+ */
+@Slf4j
+@Component
+public class SessionLocks {
+
+    private final SessionConfig sessionConfig;
+    private final Map<String, SessionLock> locks = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingTurns = new AtomicInteger();
+
+    private final Counter uncontendedAcquisitions;
+    private final Counter contendedAcquisitions;
+    private final Counter timeouts;
+    private final Timer contendedWait;
+
+    public SessionLocks(SessionConfig sessionConfig, MeterRegistry meterRegistry) {
+        this.sessionConfig = sessionConfig;
+        this.uncontendedAcquisitions = Counter.builder("session.lock.acquisitions")
+                .description("Session turns by whether they had to wait for an earlier turn")
+                .tag("contended", "false")
+                .register(meterRegistry);
+        this.contendedAcquisitions = Counter.builder("session.lock.acquisitions")
+                .description("Session turns by whether they had to wait for an earlier turn")
+                .tag("contended", "true")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("session.lock.timeouts")
+                .description("Session turns rejected after waiting too long for an earlier turn")
+                .register(meterRegistry);
+        this.contendedWait = Timer.builder("session.lock.wait")
+                .description("Time turns waited for an earlier turn of the same session")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("session.lock.waiting", waitingTurns, AtomicInteger::get)
+                .description("Turns currently waiting for an earlier turn of the same session")
+                .register(meterRegistry);
+        Gauge.builder("session.lock.held", locks, Map::size)
+                .description("Sessions with a turn running or waiting")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the turn once every earlier turn of the session has finished.
+     *
+     * @throws SessionBusyException when the earlier turns do not finish within the turn lock timeout
+     */
+    public <T> T runExclusive(String sessionId, Supplier<T> turn) {
+        SessionLock sessionLock = locks.compute(sessionId, (id, existing) -> {
+            SessionLock lock = existing == null ? new SessionLock() : existing;
+            lock.users++;
+            return lock;
+        });
+        try {
+            acquire(sessionId, sessionLock.lock);
+            try {
+                return turn.get();
+            } finally {
+                sessionLock.lock.unlock();
+            }
+        } finally {
+            locks.computeIfPresent(sessionId, (id, lock) -> --lock.users == 0 ? null : lock);
+        }
+    }
+
+    private void acquire(String sessionId, ReentrantLock lock) {
+        // tryLock() would barge past waiting turns; the timed variant honours the fair queue
+        if ((lock.isHeldByCurrentThread() || !lock.hasQueuedThreads()) && lock.tryLock()) {
+            uncontendedAcquisitions.increment();
+            return;
+        }
+
+        contendedAcquisitions.increment();
+        log.debug("Turn for session {} waits for an earlier turn", sessionId);
+        long waitStart = System.nanoTime();
+        waitingTurns.incrementAndGet();
+        try {
+            if (!lock.tryLock(sessionConfig.getTurnLockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.increment();
+                throw new SessionBusyException("Your previous message is still being processed, please try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SessionBusyException("Interrupted while waiting for the previous message to finish");
+        } finally {
+            waitingTurns.decrementAndGet();
+            contendedWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class SessionLock {
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        // Guarded by the map's per-key compute
+        private int users;
+    }
+}
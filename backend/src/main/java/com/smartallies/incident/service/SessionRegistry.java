@@ -0,0 +1,295 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.SessionConfig;
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.HRSession;
+import com.smartallies.incident.model.SamaritanSession;
+import com.smartallies.incident.model.SessionState;
+import com.smartallies.incident.model.WorkflowState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the per-session state of every chat service and bounds it.
+ *
+ * <p>Idle sessions expire on a hashed timer wheel: each session sits in the slot of its
+ * expiry deadline, and a tick only inspects the slot it reaches. Sessions touched since
+ * they were filed are moved to their new deadline's slot at that point, so touching a
+ * session is a single timestamp write. Beyond the idle TTL, the session count and the
+ * estimated memory are capped; over a cap, finished sessions go first, then abandoned
+ * ones, then sessions in progress. Active emergencies are never evicted by a cap, and outlive the
+ * idle TTL until they reach {@code session.emergency-max-age}.
+ */
+@Slf4j
+@Service
+public class SessionRegistry {
+
+    private static final int NEVER_EVICT = Integer.MAX_VALUE;
+    // Evict a little below a cap, so a full registry does not evict on every new session
+    private static final double CAP_LOW_WATER_MARK = 0.9;
+
+    private final SessionConfig sessionConfig;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final List<Set<String>> wheel;
+    private final long tickNanos;
+    private volatile int currentSlot;
+
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final Map<WorkflowState, AtomicInteger> sessionsByState = new EnumMap<>(WorkflowState.class);
+    private final Map<String, Counter> evictionCounters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    public SessionRegistry(SessionConfig sessionConfig, MeterRegistry meterRegistry) {
+        this.sessionConfig = sessionConfig;
+        this.meterRegistry = meterRegistry;
+        this.wheel = new ArrayList<>(sessionConfig.getWheelSlots());
+        for (int slot = 0; slot < sessionConfig.getWheelSlots(); slot++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.tickNanos = Math.max(1, sessionConfig.getIdleTtl().toNanos() / sessionConfig.getWheelSlots());
+
+        Gauge.builder("sessions.active", sessions, Map::size)
+                .description("Sessions currently held in memory")
+                .register(meterRegistry);
+        Gauge.builder("sessions.estimated.bytes", estimatedBytes, AtomicLong::get)
+                .description("Estimated heap held by all sessions, refreshed every wheel tick")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        for (WorkflowState state : WorkflowState.values()) {
+            AtomicInteger count = new AtomicInteger();
+            sessionsByState.put(state, count);
+            Gauge.builder("sessions.by.state", count, AtomicInteger::get)
+                    .description("Sessions per workflow state, refreshed every wheel tick")
+                    .tag("state", state.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void startTicker() {
+        ticker = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("session-wheel").daemon().factory());
+        ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void stopTicker() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    public SessionState getOrCreate(String sessionId) {
+        SessionState existing = find(sessionId);
+        if (existing != null) {
+            return existing;
+        }
+
+        SessionState created = sessions.computeIfAbsent(sessionId, id -> {
+            SessionState state = new SessionState(id, System.nanoTime());
+            file(id, sessionConfig.getIdleTtl().toNanos());
+            return state;
+        });
+        if (sessions.size() > sessionConfig.getMaxSessions()) {
+            enforceCountCap(sessionId);
+        }
+        return created;
+    }
+
+    /**
+     * @return the session, marked as just used, or null when it does not exist (anymore)
+     */
+    public SessionState find(String sessionId) {
+        SessionState state = sessions.get(sessionId);
+        if (state != null) {
+            state.setLastAccessNanos(System.nanoTime());
+        }
+        return state;
+    }
+
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Takes over a session handed over by another node or restored from a snapshot. A local session
+     * of the same id wins if it already got past its first message, since it has the newer state.
+     *
+     * @return whether the handed-over session was taken
+     */
+    public boolean adopt(SessionState handedOver) {
+        String sessionId = handedOver.getSessionId();
+        SessionState kept = sessions.compute(sessionId, (id, local) -> {
+            if (local != null && local.getWorkflowState() != null && local.getWorkflowState() != WorkflowState.INITIAL) {
+                return local;
+            }
+            return handedOver;
+        });
+        if (kept != handedOver) {
+            log.warn("Kept local session {} over the one handed over, it is already in state {}",
+                    sessionId, kept.getWorkflowState());
+            return false;
+        }
+        file(sessionId, sessionConfig.getIdleTtl().toNanos());
+        return true;
+    }
+
+    public Set<String> sessionIds() {
+        return Set.copyOf(sessions.keySet());
+    }
+
+    void tick() {
+        try {
+            int slot = (currentSlot + 1) % wheel.size();
+            currentSlot = slot;
+            expireSlot(wheel.get(slot));
+            refreshEstimates();
+            enforceMemoryCap();
+        } catch (Exception e) {
+            log.error("Session wheel tick failed", e);
+        }
+    }
+
+    private void expireSlot(Set<String> slot) {
+        long now = System.nanoTime();
+        long idleTtlNanos = sessionConfig.getIdleTtl().toNanos();
+        // Snapshot first: sessions re-filed a full revolution ahead land in this same slot
+        List<String> dueSessionIds = new ArrayList<>(slot);
+        slot.removeAll(dueSessionIds);
+        for (String sessionId : dueSessionIds) {
+            SessionState state = sessions.get(sessionId);
+            if (state == null) {
+                continue;
+            }
+
+            long remainingNanos = state.getLastAccessNanos() + idleTtlNanos - now;
+            if (remainingNanos > 0) {
+                file(sessionId, remainingNanos);
+            } else if (evictionRank(state) != NEVER_EVICT) {
+                evict(state, "idle");
+            } else if (ageMillis(state) >= sessionConfig.getEmergencyMaxAge().toMillis()) {
+                evict(state, "emergency-max-age");
+            } else {
+                file(sessionId, idleTtlNanos);
+            }
+        }
+    }
+
+    // From the wall-clock start of the conversation, which survives hand-overs and restarts
+    private static long ageMillis(SessionState state) {
+        ConversationContext context = state.getContext();
+        SamaritanSession samaritanSession = state.getSamaritanSession();
+        long startedAtMillis = context != null
+                ? context.getCreatedAtMillis()
+                : samaritanSession != null ? samaritanSession.getStartedAtMillis() : 0;
+        return System.currentTimeMillis() - startedAtMillis;
+    }
+
+    private void file(String sessionId, long delayNanos) {
+        int ticksAhead = (int) Math.min(wheel.size(), Math.max(1, (delayNanos + tickNanos - 1) / tickNanos));
+        wheel.get((currentSlot + ticksAhead) % wheel.size()).add(sessionId);
+    }
+
+    private void refreshEstimates() {
+        Map<WorkflowState, Integer> counts = new EnumMap<>(WorkflowState.class);
+        long bytes = 0;
+        for (SessionState state : sessions.values()) {
+            bytes += state.estimatedBytes();
+            WorkflowState workflowState = state.getWorkflowState();
+            if (workflowState != null) {
+                counts.merge(workflowState, 1, Integer::sum);
+            }
+        }
+        estimatedBytes.set(bytes);
+        sessionsByState.forEach((state, count) -> count.set(counts.getOrDefault(state, 0)));
+    }
+
+    private synchronized void enforceCountCap(String newSessionId) {
+        if (sessions.size() <= sessionConfig.getMaxSessions()) {
+            return;
+        }
+        int excess = sessions.size() - (int) (sessionConfig.getMaxSessions() * CAP_LOW_WATER_MARK);
+        for (SessionState state : evictionOrder()) {
+            if (excess <= 0) {
+                break;
+            }
+            if (!state.getSessionId().equals(newSessionId)) {
+                evict(state, "count-cap");
+                excess--;
+            }
+        }
+    }
+
+    private synchronized void enforceMemoryCap() {
+        long maxBytes = sessionConfig.getMaxMemory().toBytes();
+        if (estimatedBytes.get() <= maxBytes) {
+            return;
+        }
+        long targetBytes = (long) (maxBytes * CAP_LOW_WATER_MARK);
+        for (SessionState state : evictionOrder()) {
+            if (estimatedBytes.get() <= targetBytes) {
+                break;
+            }
+            estimatedBytes.addAndGet(-state.estimatedBytes());
+            evict(state, "memory-cap");
+        }
+    }
+
+    /**
+     * Evictable sessions, least valuable first and least recently used first within the same value.
+     */
+    private List<SessionState> evictionOrder() {
+        return sessions.values().stream()
+                .filter(state -> evictionRank(state) != NEVER_EVICT)
+                .sorted(Comparator.comparingInt(SessionRegistry::evictionRank)
+                        .thenComparingLong(SessionState::getLastAccessNanos))
+                .toList();
+    }
+
+    private static int evictionRank(SessionState state) {
+        if (state.isActiveEmergency()) {
+            return NEVER_EVICT;
+        }
+        WorkflowState workflowState = state.getWorkflowState();
+        if (workflowState == null) {
+            return 1;
+        }
+        return switch (workflowState) {
+            case COMPLETED, ALERT_SENT -> 0;
+            case INITIAL -> 1;
+            case HR_CONNECTED -> {
+                HRSession hrSession = state.getHrSession();
+                yield hrSession != null && hrSession.isActive() ? 3 : 2;
+            }
+            default -> 2;
+        };
+    }
+
+    private void evict(SessionState state, String reason) {
+        if (sessions.remove(state.getSessionId(), state)) {
+            evictionCounters.computeIfAbsent(reason, r -> Counter.builder("sessions.evictions")
+                    .description("Sessions removed by the registry, by reason")
+                    .tag("reason", r)
+                    .register(meterRegistry)).increment();
+            log.info("Evicted session {} in state {} ({})", state.getSessionId(), state.getWorkflowState(), reason);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.SessionConfig;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.model.SessionState;
+import com.smartallies.incident.util.SessionSnapshotCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carries live sessions across a restart. On graceful shutdown, once the web server stopped taking
+ * requests, every session is written to {@code session.snapshot-file}; on startup, before the web
+ * server starts, that file is restored into the registry and deleted, so a later crash cannot bring
+ * back sessions that moved on in the meantime.
+ *
+ * <p>In cluster mode sessions are handed to the other nodes instead, and this does nothing.
+ */
+@Slf4j
+@Service
+public class SessionSnapshotter implements SmartLifecycle {
+
+    // Below the web server's phases: starts before it accepts requests, stops after it drained them
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final SessionConfig sessionConfig;
+    private final SessionRegistry sessionRegistry;
+    private final boolean clustered;
+    private volatile boolean running;
+
+    public SessionSnapshotter(
+            SessionConfig sessionConfig,
+            SessionRegistry sessionRegistry,
+            ObjectProvider<ClusterMembership> clusterMembership) {
+        this.sessionConfig = sessionConfig;
+        this.sessionRegistry = sessionRegistry;
+        this.clustered = clusterMembership.getIfAvailable() != null;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Path file = snapshotFile();
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<SessionSnapshot> snapshots = SessionSnapshotCodec.read(file);
+            long now = System.nanoTime();
+            int restored = 0;
+            for (SessionSnapshot snapshot : snapshots) {
+                if (sessionRegistry.adopt(SessionState.fromSnapshot(snapshot, now))) {
+                    restored++;
+                }
+            }
+            log.info("Restored {} sessions from {} ({} bytes) in {} ms", restored, file, Files.size(file),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not restore sessions from {}, starting without them", file, e);
+        }
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            log.warn("Could not delete restored session snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Path file = snapshotFile();
+        if (file == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<SessionSnapshot> snapshots = new ArrayList<>();
+        for (String sessionId : sessionRegistry.sessionIds()) {
+            SessionState state = sessionRegistry.find(sessionId);
+            if (state != null) {
+                snapshots.add(state.toSnapshot());
+            }
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                SessionSnapshotCodec.write(snapshots, out);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.info("Wrote {} sessions to {} ({} bytes) in {} ms", snapshots.size(), file, Files.size(file),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write the session snapshot, {} sessions are lost", snapshots.size(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private Path snapshotFile() {
+        if (clustered || sessionConfig.getSnapshotFile().isBlank()) {
+            return null;
+        }
+        return Path.of(sessionConfig.getSnapshotFile());
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Trace spans for the steps of a chat turn, nested under the HTTP request span Spring MVC opens.
+ *
+ * <p>The current span lives on the calling thread, so work handed to an executor is wrapped with
+ * {@link #bind} to stay in the turn's trace, next to {@link LlmPriority#bind} for its lane.
+ */
+@Component
+@RequiredArgsConstructor
+public class TraceSpans {
+
+    private final Tracer tracer;
+
+    /**
+     * Runs the work in a new child span of the current one, marking the span failed when the work throws.
+     */
+    public <T> T inSpan(String name, Function<Span, T> work) {
+        Span span = tracer.nextSpan().name(name).start();
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return work.apply(span);
+        } catch (RuntimeException | Error e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Adds a tag to the current span, if there is one.
+     */
+    public void tagCurrent(String key, long value) {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.tag(key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Records a timestamped event on the current span, if there is one.
+     */
+    public void markCurrent(String event) {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.event(event);
+        }
+    }
+
+    /**
+     * Captures the current span for work handed to another thread, such as an executor task.
+     */
+    public <T> Supplier<T> bind(Supplier<T> work) {
+        Span parent = tracer.currentSpan();
+        if (parent == null) {
+            return work;
+        }
+        return () -> {
+            try (Tracer.SpanInScope scope = tracer.withSpan(parent)) {
+                return work.get();
+            }
+        };
+    }
+
+    public Runnable bind(Runnable work) {
+        Supplier<Void> bound = bind(() -> {
+            work.run();
+            return null;
+        });
+        return bound::get;
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartallies.incident.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring of cluster nodes. Every node is placed at several points on the
+ * ring, and a key belongs to the node at the first point at or after the key's hash. When a node
+ * joins or leaves, only the keys between its points and their predecessors change owner.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final List<String> nodes;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        this.nodes = List.copyOf(new TreeSet<>(nodes));
+        for (String node : this.nodes) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                points.put(hash(node + "#" + replica), node);
+            }
+        }
+    }
+
+    /**
+     * @return the node owning the key, or null when the ring is empty
+     */
+    public String ownerOf(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * @return the member nodes, sorted
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public ConsistentHashRing without(String node, int virtualNodes) {
+        return new ConsistentHashRing(nodes.stream().filter(member -> !member.equals(node)).toList(), virtualNodes);
+    }
+
+    // First eight bytes of the MD5: similar session ids and node names still land far apart
+    private static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xff);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartallies.incident.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Watches a JSON document arriving in chunks and forwards the decoded text of one
+ * string field (e.g. "message") to a sink as soon as its characters arrive,
+ * while the rest of the document is still being generated.
+ */
+public class JsonFieldStreamer implements Consumer<String> {
+
+    private enum State { OUTSIDE, IN_STRING, AFTER_KEY, AFTER_COLON, IN_VALUE, DONE }
+
+    private final String fieldName;
+    private final Consumer<String> sink;
+
+    private State state = State.OUTSIDE;
+    private final StringBuilder currentString = new StringBuilder();
+    private final StringBuilder pendingEscape = new StringBuilder();
+    private boolean escaping;
+
+    public JsonFieldStreamer(String fieldName, Consumer<String> sink) {
+        this.fieldName = fieldName;
+        this.sink = sink;
+    }
+
+    @Override
+    public void accept(String chunk) {
+        if (state == State.DONE || chunk == null) {
+            return;
+        }
+
+        StringBuilder decodedValue = new StringBuilder();
+        for (int i = 0; i < chunk.length() && state != State.DONE; i++) {
+            consume(chunk.charAt(i), decodedValue);
+        }
+
+        if (!decodedValue.isEmpty()) {
+            sink.accept(decodedValue.toString());
+        }
+    }
+
+    private void consume(char c, StringBuilder decodedValue) {
+        switch (state) {
+            case OUTSIDE -> {
+                if (c == '"') {
+                    currentString.setLength(0);
+                    state = State.IN_STRING;
+                }
+            }
+            case IN_STRING -> {
+                if (readStringChar(c, currentString)) {
+                    state = fieldName.contentEquals(currentString) ? State.AFTER_KEY : State.OUTSIDE;
+                }
+            }
+            case AFTER_KEY -> {
+                if (c == ':') {
+                    state = State.AFTER_COLON;
+                } else if (!Character.isWhitespace(c)) {
+                    state = State.OUTSIDE;
+                    consume(c, decodedValue);
+                }
+            }
+            case AFTER_COLON -> {
+                if (c == '"') {
+                    state = State.IN_VALUE;
+                } else if (!Character.isWhitespace(c)) {
+                    state = State.OUTSIDE;
+                }
+            }
+            case IN_VALUE -> {
+                if (readStringChar(c, decodedValue)) {
+                    state = State.DONE;
+                }
+            }
+            case DONE -> {
+            }
+        }
+    }
+
+    /**
+     * Appends one character of a JSON string body to the target, resolving escapes.
+     *
+     * @return true when the character was the closing quote of the string
+     */
+    private boolean readStringChar(char c, StringBuilder target) {
+        if (!escaping) {
+            if (c == '\\') {
+                escaping = true;
+                pendingEscape.setLength(0);
+                return false;
+            }
+            if (c == '"') {
+                return true;
+            }
+            target.append(c);
+            return false;
+        }
+
+        pendingEscape.append(c);
+        if (pendingEscape.charAt(0) == 'u') {
+            if (pendingEscape.length() == 5) {
+                target.append((char) Integer.parseInt(pendingEscape.substring(1), 16));
+                escaping = false;
+            }
+            return false;
+        }
+
+        target.append(switch (c) {
+            case 'n' -> '\n';
+            case 't' -> '\t';
+            case 'r' -> '\r';
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            default -> c;
+        });
+        escaping = false;
+        return false;
+    }
+}
@@ -49,9 +49,7 @@ public class PromptTemplates {
             Then respond with helpful guidance to collect any mandatory remaining information.
             Never pressure the user, but guide them clearly and compassionately.
             
-            Respond ONLY with valid JSON. CRITICAL: Ensure ALL commas between object properties are present.
-            
-            Format (check commas carefully):
+            Respond with JSON in this format:
             {
               "extractedFields": {
                 "what": "extracted value or null",
@@ -62,8 +60,6 @@ public class PromptTemplates {
               "message": "Your empathetic response asking for missing information",
               "allFieldsCollected": true
             }
-            
-            Remember: Each line in extractedFields needs a comma EXCEPT the last property "who".
             """;
 
     private static final String HUMAN_INCIDENT_COLLECTING_DETAILS_PROMPT = """
@@ -98,9 +94,7 @@ public class PromptTemplates {
             
             Extract information from BOTH the initial message AND the latest message to fill in missing fields.
             
-            CRITICAL: Respond with valid JSON. Ensure commas are between ALL properties.
-            
-            Format:
+            Respond with JSON in this format:
             {
               "extractedFields": {
                 "what": "extracted value or null",
@@ -128,9 +122,7 @@ public class PromptTemplates {
             Extract information from BOTH the initial message AND the latest message.
             Guide the user urgently but calmly to provide missing critical information.
             
-            CRITICAL: Respond with valid JSON. Check commas between properties.
-            
-            Format:
+            Respond with JSON in this format:
             {
               "extractedFields": {
                 "location": "extracted value or null",
@@ -190,4 +182,76 @@ public class PromptTemplates {
                 }
                 """, type, initialMessage, fields.toString());
     }
+
+    /**
+     * HR partner instructions. Deliberately free of conversation history so the prompt
+     * prefix is identical on every turn of a session.
+     */
+    public static String buildHRPartnerSystemPrompt(String partnerName, String initialMessage) {
+        return String.format("""
+                You are %s, a professional and empathetic HR partner. \
+                You are speaking with an anonymous employee about a workplace incident. \
+                The initial incident was: %s
+                
+                Your role:
+                - Listen actively and show empathy
+                - Ask clarifying questions about what happened
+                - Gather important details (timeline, people involved, impact)
+                - Offer support and next steps
+                - Keep responses concise (2-3 sentences)
+                - Maintain professional yet warm tone
+                - After gathering sufficient information (4-6 exchanges), naturally conclude by:
+                  * Thanking them for sharing
+                  * Indicating you've documented everything
+                  * Mentioning next steps (ticket creation, follow-up)
+                
+                IMPORTANT: Only provide YOUR response as the HR partner. \
+                Do NOT generate or simulate the user's response. \
+                Do NOT include 'User:' in your output.
+                """, partnerName, initialMessage);
+    }
+
+    /**
+     * Samaritan instructions. Deliberately free of conversation history so the prompt
+     * prefix is identical on every turn of a session.
+     */
+    public static String buildSamaritanSystemPrompt(String samaritanName, String emergencyLocation, String initialMessage) {
+        return String.format("""
+                You are %s, an emergency response Samaritan for the company. \
+                You are responding to an emergency alert from location: %s
+                Initial emergency report: %s
+                
+                Your role:
+                - Stay calm and professional
+                - Assess the situation quickly
+                - Ask critical questions: Who needs help? What's their condition? Are they conscious? Any injuries?
+                - Provide immediate guidance if safe to do so
+                - Keep responses brief and action-oriented (2-3 sentences)
+                - Reassure that help is arriving
+                - After gathering key information (name, condition, immediate danger status), conclude by:
+                  * Confirming emergency services are en route
+                  * Providing any last safety instructions
+                  * Documenting the incident
+                
+                IMPORTANT: Only provide YOUR response as the Samaritan. \
+                Do NOT generate or simulate the reporter's response. \
+                Do NOT include 'Reporter:' or 'User:' in your output.
+                """, samaritanName, emergencyLocation, initialMessage);
+    }
+
+    public static String buildConversationSummaryPrompt(String existingSummary, String transcript) {
+        return String.format("""
+                You are maintaining a running summary of a confidential support conversation.
+                
+                Summary so far:
+                %s
+                
+                New part of the conversation to fold into the summary:
+                %s
+                
+                Write the updated summary. Keep every fact that matters for the case: what happened, \
+                when and where, who was involved, the person's condition or impact, and anything already promised to them.
+                Use at most 150 words. Respond ONLY with the summary text.
+                """, existingSummary.isBlank() ? "(none yet)" : existingSummary, transcript);
+    }
 }
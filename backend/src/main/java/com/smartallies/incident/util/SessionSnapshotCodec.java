@@ -0,0 +1,334 @@
+package com.smartallies.incident.util;
+
+import com.smartallies.incident.model.ClassificationSource;
+import com.smartallies.incident.model.CollectedFields;
+import com.smartallies.incident.model.ContinuationState;
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.HRPartner;
+import com.smartallies.incident.model.HRSession;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.SamaritanPartner;
+import com.smartallies.incident.model.SamaritanSession;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.model.WorkflowState;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format for a set of sessions, written on shutdown and read back on startup.
+ *
+ * <p>Layout: magic, version, the constant names of every enum the sessions use, the session count,
+ * the sessions, then a CRC32 of everything before it. Strings are length-prefixed UTF-8 and enum
+ * values are one-byte indexes into the name tables of the header, so a file written before an enum
+ * gained or reordered constants still reads correctly. The file is memory-mapped for reading.
+ */
+public final class SessionSnapshotCodec {
+
+    private static final int MAGIC = 0x5341534E;
+    private static final int VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private static final List<Class<? extends Enum<?>>> ENUM_TYPES = List.of(
+            WorkflowState.class, IncidentType.class, ClassificationSource.class,
+            HRPartner.class, SamaritanPartner.class, ConversationTurn.Speaker.class);
+
+    private SessionSnapshotCodec() {
+    }
+
+    public static void write(Collection<SessionSnapshot> sessions, OutputStream target) throws IOException {
+        CRC32 crc = new CRC32();
+        DataOutputStream checked = new DataOutputStream(
+                new CheckedOutputStream(new BufferedOutputStream(target, 1 << 16), crc));
+        checked.writeInt(MAGIC);
+        checked.writeInt(VERSION);
+        for (Class<? extends Enum<?>> type : ENUM_TYPES) {
+            Enum<?>[] constants = type.getEnumConstants();
+            checked.writeByte(constants.length);
+            for (Enum<?> constant : constants) {
+                writeString(checked, constant.name());
+            }
+        }
+        checked.writeInt(sessions.size());
+        for (SessionSnapshot session : sessions) {
+            writeSession(checked, session);
+        }
+        checked.flush();
+        // The checksum itself is written past the checked stream
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+    }
+
+    public static List<SessionSnapshot> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Session snapshot is too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(mapped);
+        }
+    }
+
+    public static List<SessionSnapshot> read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 12) {
+            throw new IOException("Session snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(buffer.position(), buffer.remaining() - 4));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IOException("Session snapshot is corrupt, its checksum does not match");
+        }
+        ByteBuffer in = buffer.slice(buffer.position(), buffer.remaining() - 4);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a session snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported session snapshot version " + version);
+        }
+
+        Enum<?>[][] enumTables = new Enum<?>[ENUM_TYPES.size()][];
+        for (int table = 0; table < enumTables.length; table++) {
+            enumTables[table] = readEnumTable(in, ENUM_TYPES.get(table));
+        }
+        Reader reader = new Reader(in, enumTables);
+        int count = in.getInt();
+        List<SessionSnapshot> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sessions.add(reader.readSession());
+        }
+        return sessions;
+    }
+
+    private static void writeSession(DataOutputStream out, SessionSnapshot session) throws IOException {
+        writeString(out, session.sessionId());
+
+        ConversationContext context = session.context();
+        out.writeBoolean(context != null);
+        if (context != null) {
+            writeString(out, context.getSessionId());
+            writeEnum(out, context.getWorkflowState());
+            writeEnum(out, context.getIncidentType());
+            writeString(out, context.getInitialMessage());
+            writeString(out, context.getImageUrl());
+            out.writeBoolean(context.getClassificationConfidence() != null);
+            if (context.getClassificationConfidence() != null) {
+                out.writeDouble(context.getClassificationConfidence());
+            }
+            writeEnum(out, context.getClassificationSource());
+            out.writeBoolean(context.isHrDecisionMade());
+            out.writeLong(context.getCreatedAtMillis());
+            out.writeLong(context.getUpdatedAtMillis());
+            out.writeShort(context.getCollectedFields().size());
+            for (Map.Entry<String, String> field : context.getCollectedFields().entrySet()) {
+                writeString(out, field.getKey());
+                writeString(out, field.getValue());
+            }
+        }
+
+        HRSession hrSession = session.hrSession();
+        out.writeBoolean(hrSession != null);
+        if (hrSession != null) {
+            writeString(out, hrSession.getSessionId());
+            writeEnum(out, hrSession.getPartner());
+            out.writeBoolean(hrSession.isActive());
+            out.writeLong(hrSession.getStartedAtMillis());
+            out.writeLong(hrSession.getEndedAtMillis());
+            writeString(out, hrSession.getTicketId());
+        }
+        writeHistory(out, session.hrHistory());
+
+        SamaritanSession samaritanSession = session.samaritanSession();
+        out.writeBoolean(samaritanSession != null);
+        if (samaritanSession != null) {
+            writeString(out, samaritanSession.getSessionId());
+            writeEnum(out, samaritanSession.getPartner());
+            out.writeBoolean(samaritanSession.isActive());
+            out.writeLong(samaritanSession.getStartedAtMillis());
+            out.writeLong(samaritanSession.getEndedAtMillis());
+            writeString(out, samaritanSession.getTicketId());
+            writeString(out, samaritanSession.getEmergencyLocation());
+        }
+        writeHistory(out, session.samaritanHistory());
+
+        ContinuationState continuation = session.continuation();
+        out.writeBoolean(continuation != null);
+        if (continuation != null) {
+            out.writeInt(continuation.context().size());
+            for (int token : continuation.context()) {
+                out.writeInt(token);
+            }
+            out.writeInt(continuation.coveredTurns());
+            writeString(out, continuation.lastReply());
+        }
+    }
+
+    private static void writeHistory(DataOutputStream out, ConversationHistory.Snapshot history) throws IOException {
+        out.writeBoolean(history != null);
+        if (history != null) {
+            writeString(out, history.summary());
+            out.writeInt(history.summarizedTurnCount());
+            out.writeInt(history.turns().size());
+            for (ConversationTurn turn : history.turns()) {
+                writeEnum(out, turn.speaker());
+                writeString(out, turn.text());
+            }
+        }
+    }
+
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        out.writeByte(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Enum<?>[] readEnumTable(ByteBuffer in, Class<? extends Enum<?>> type) throws IOException {
+        Enum<?>[] table = new Enum<?>[Byte.toUnsignedInt(in.get())];
+        for (int i = 0; i < table.length; i++) {
+            String name = readString(in);
+            for (Enum<?> constant : type.getEnumConstants()) {
+                if (constant.name().equals(name)) {
+                    table[i] = constant;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value;
+        if (in.hasArray()) {
+            value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private record Reader(ByteBuffer in, Enum<?>[][] enumTables) {
+
+        SessionSnapshot readSession() throws IOException {
+            String sessionId = readString(in);
+
+            ConversationContext context = null;
+            if (in.get() != 0) {
+                context = ConversationContext.builder()
+                        .sessionId(readString(in))
+                        .workflowState(readEnum(WorkflowState.class))
+                        .incidentType(readEnum(IncidentType.class))
+                        .initialMessage(readString(in))
+                        .imageUrl(readString(in))
+                        .classificationConfidence(in.get() != 0 ? in.getDouble() : null)
+                        .classificationSource(readEnum(ClassificationSource.class))
+                        .hrDecisionMade(in.get() != 0)
+                        .createdAtMillis(in.getLong())
+                        .updatedAtMillis(in.getLong())
+                        .build();
+                CollectedFields fields = context.getCollectedFields();
+                int fieldCount = Short.toUnsignedInt(in.getShort());
+                for (int i = 0; i < fieldCount; i++) {
+                    fields.put(readString(in), readString(in));
+                }
+            }
+
+            HRSession hrSession = null;
+            if (in.get() != 0) {
+                hrSession = HRSession.builder()
+                        .sessionId(readString(in))
+                        .partner(readEnum(HRPartner.class))
+                        .isActive(in.get() != 0)
+                        .startedAtMillis(in.getLong())
+                        .endedAtMillis(in.getLong())
+                        .ticketId(readString(in))
+                        .build();
+            }
+            ConversationHistory.Snapshot hrHistory = readHistory();
+
+            SamaritanSession samaritanSession = null;
+            if (in.get() != 0) {
+                samaritanSession = SamaritanSession.builder()
+                        .sessionId(readString(in))
+                        .partner(readEnum(SamaritanPartner.class))
+                        .isActive(in.get() != 0)
+                        .startedAtMillis(in.getLong())
+                        .endedAtMillis(in.getLong())
+                        .ticketId(readString(in))
+                        .emergencyLocation(readString(in))
+                        .build();
+            }
+            ConversationHistory.Snapshot samaritanHistory = readHistory();
+
+            ContinuationState continuation = null;
+            if (in.get() != 0) {
+                int tokenCount = in.getInt();
+                List<Integer> tokens = new ArrayList<>(tokenCount);
+                for (int i = 0; i < tokenCount; i++) {
+                    tokens.add(in.getInt());
+                }
+                continuation = new ContinuationState(List.copyOf(tokens), in.getInt(), readString(in));
+            }
+
+            return new SessionSnapshot(sessionId, context, hrSession, hrHistory,
+                    samaritanSession, samaritanHistory, continuation);
+        }
+
+        private ConversationHistory.Snapshot readHistory() throws IOException {
+            if (in.get() == 0) {
+                return null;
+            }
+            String summary = readString(in);
+            int summarizedTurnCount = in.getInt();
+            int turnCount = in.getInt();
+            List<ConversationTurn> turns = new ArrayList<>(turnCount);
+            for (int i = 0; i < turnCount; i++) {
+                turns.add(new ConversationTurn(readEnum(ConversationTurn.Speaker.class), readString(in)));
+            }
+            return new ConversationHistory.Snapshot(summary, summarizedTurnCount, turns);
+        }
+
+        private <E extends Enum<E>> E readEnum(Class<E> type) throws IOException {
+            int index = Byte.toUnsignedInt(in.get());
+            if (index == 0) {
+                return null;
+            }
+            Enum<?> constant = enumTables[ENUM_TYPES.indexOf(type)][index - 1];
+            if (constant == null) {
+                throw new IOException("Session snapshot uses a " + type.getSimpleName() + " constant this version does not have");
+            }
+            return type.cast(constant);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.smartallies.incident.util;
+
+/**
+ * Cheap token count estimate for prompt budgeting (about four characters per token for
+ * English text with the models we run); errs on the high side for short strings.
+ */
+public final class TokenEstimator {
+
+    private static final int CHARACTERS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return (text.length() + CHARACTERS_PER_TOKEN - 1) / CHARACTERS_PER_TOKEN;
+    }
+}
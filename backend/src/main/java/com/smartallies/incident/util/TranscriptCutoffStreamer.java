@@ -0,0 +1,105 @@
+package com.smartallies.incident.util;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Forwards streamed partner replies to a sink until the model starts simulating
+ * the other side of the conversation (e.g. "User:"), mirroring the cut-off the
+ * HR and Samaritan services apply to the complete reply with {@link #cutOff}.
+ *
+ * <p>A marker can arrive split over several chunks, so text that could still become
+ * the start of one is held back until the next chunk or {@link #finish()} decides.
+ */
+public class TranscriptCutoffStreamer implements Consumer<String> {
+
+    private final List<String> stopMarkers;
+    private final Consumer<String> sink;
+    private final StringBuilder receivedText = new StringBuilder();
+    private int forwardedLength;
+    private boolean stopped;
+
+    public TranscriptCutoffStreamer(List<String> stopMarkers, Consumer<String> sink) {
+        this.stopMarkers = stopMarkers;
+        this.sink = sink;
+    }
+
+    /**
+     * @return the reply up to the first stop marker, trimmed, or the whole reply when it has none
+     */
+    public static String cutOff(String reply, List<String> stopMarkers) {
+        int cutoff = firstMarkerIndex(new StringBuilder(reply), stopMarkers, 0);
+        return cutoff == -1 ? reply : reply.substring(0, cutoff).trim();
+    }
+
+    @Override
+    public void accept(String chunk) {
+        if (stopped || chunk == null) {
+            return;
+        }
+
+        receivedText.append(chunk);
+
+        // Everything before forwardedLength was checked, and held-back text begins no later than a marker would
+        int markerIndex = firstMarkerIndex(receivedText, stopMarkers, forwardedLength);
+        if (markerIndex != -1) {
+            stopped = true;
+            forwardUpTo(markerIndex);
+        } else {
+            forwardUpTo(receivedText.length() - pendingMarkerLength());
+        }
+    }
+
+    /**
+     * Forwards the text held back for a marker that never completed; call once the reply ended.
+     */
+    public void finish() {
+        if (!stopped) {
+            stopped = true;
+            forwardUpTo(receivedText.length());
+        }
+    }
+
+    private void forwardUpTo(int end) {
+        if (end > forwardedLength) {
+            sink.accept(receivedText.substring(forwardedLength, end));
+            forwardedLength = end;
+        }
+    }
+
+    // Length of the longest unforwarded suffix that is the start of a marker
+    private int pendingMarkerLength() {
+        int unforwarded = receivedText.length() - forwardedLength;
+        int pending = 0;
+        for (String marker : stopMarkers) {
+            for (int length = Math.min(marker.length() - 1, unforwarded); length > pending; length--) {
+                if (endsWith(receivedText, marker, length)) {
+                    pending = length;
+                    break;
+                }
+            }
+        }
+        return pending;
+    }
+
+    private static boolean endsWith(CharSequence text, String marker, int prefixLength) {
+        int offset = text.length() - prefixLength;
+        for (int i = 0; i < prefixLength; i++) {
+            if (text.charAt(offset + i) != marker.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int firstMarkerIndex(StringBuilder text, List<String> stopMarkers, int from) {
+        int first = -1;
+        for (String marker : stopMarkers) {
+            int index = text.indexOf(marker, from);
+            if (index != -1 && (first == -1 || index < first)) {
+                first = index;
+            }
+        }
+        return first;
+    }
+}
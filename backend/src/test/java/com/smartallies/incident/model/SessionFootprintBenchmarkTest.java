@@ -0,0 +1,121 @@
+package com.smartallies.incident.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retained bytes per session, measured with JOL, and field-update throughput: the previous layout
+ * (a HashMap of collected fields, LocalDateTime timestamps, a partner id per HR session) versus
+ * {@link CollectedFields}, epoch-millis timestamps and shared {@link HRPartner} constants.
+ * Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class SessionFootprintBenchmarkTest {
+
+    private static final int SESSIONS = 20_000;
+    private static final int UPDATE_ROUNDS = 50;
+    private static final String[] FIELDS = {"what", "when", "where", "who", "summary"};
+
+    @Test
+    void compactLayoutRetainsLessPerSession() {
+        List<Object[]> before = new ArrayList<>(SESSIONS);
+        List<Object[]> after = new ArrayList<>(SESSIONS);
+        for (int session = 0; session < SESSIONS; session++) {
+            before.add(legacySession(session));
+            after.add(compactSession(session));
+        }
+
+        // Strings held by both layouts alike (field values, session ids) are counted on both sides
+        long bytesBefore = GraphLayout.parseInstance(before.toArray()).totalSize() / SESSIONS;
+        long bytesAfter = GraphLayout.parseInstance(after.toArray()).totalSize() / SESSIONS;
+
+        double updatesBefore = updatesPerSecond(before, true);
+        double updatesAfter = updatesPerSecond(after, false);
+
+        System.out.printf("sessions: %d, fields per session: %d%n", SESSIONS, FIELDS.length);
+        System.out.printf("bytes/session before: %d, after: %d (%.0f%% less)%n",
+                bytesBefore, bytesAfter, 100.0 * (bytesBefore - bytesAfter) / bytesBefore);
+        System.out.printf("field updates/s before: %.0f, after: %.0f%n", updatesBefore, updatesAfter);
+
+        assertThat(bytesAfter).isLessThan(bytesBefore);
+    }
+
+    private static Object[] legacySession(int session) {
+        LegacyContext context = new LegacyContext();
+        context.sessionId = "session-" + session;
+        for (String field : FIELDS) {
+            context.collectedFields.put(field, field + " of session " + session);
+        }
+        LegacyHRSession hrSession = new LegacyHRSession();
+        hrSession.sessionId = context.sessionId;
+        hrSession.hrPartnerName = HRPartner.SARAH_MITCHELL.displayName();
+        hrSession.hrPartnerImage = HRPartner.SARAH_MITCHELL.image();
+        hrSession.hrPartnerId = UUID.randomUUID().toString();
+        hrSession.startedAt = LocalDateTime.now();
+        return new Object[] {context, hrSession};
+    }
+
+    private static Object[] compactSession(int session) {
+        ConversationContext context = ConversationContext.builder().sessionId("session-" + session).build();
+        for (String field : FIELDS) {
+            context.updateField(field, field + " of session " + session);
+        }
+        HRSession hrSession = HRSession.builder()
+                .sessionId(context.getSessionId())
+                .partner(HRPartner.SARAH_MITCHELL)
+                .startedAtMillis(System.currentTimeMillis())
+                .build();
+        return new Object[] {context, hrSession};
+    }
+
+    private static double updatesPerSecond(List<Object[]> sessions, boolean legacy) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < UPDATE_ROUNDS; round++) {
+            for (Object[] session : sessions) {
+                for (String field : FIELDS) {
+                    if (legacy) {
+                        LegacyContext context = (LegacyContext) session[0];
+                        context.collectedFields.put(field, field);
+                        context.updatedAt = LocalDateTime.now();
+                        sink += context.collectedFields.get(field).length();
+                    } else {
+                        ConversationContext context = (ConversationContext) session[0];
+                        context.updateField(field, field);
+                        sink += context.getField(field).length();
+                    }
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(sink).isPositive();
+        return (double) UPDATE_ROUNDS * sessions.size() * FIELDS.length / elapsed * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static final class LegacyContext {
+        String sessionId;
+        Map<String, String> collectedFields = new HashMap<>();
+        LocalDateTime createdAt = LocalDateTime.now();
+        LocalDateTime updatedAt = LocalDateTime.now();
+    }
+
+    private static final class LegacyHRSession {
+        String sessionId;
+        String hrPartnerName;
+        String hrPartnerImage;
+        String hrPartnerId;
+        LocalDateTime startedAt;
+        LocalDateTime endedAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.config.ReportStoreConfig;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Submit throughput with group-commit fsync, and recovery time from snapshot plus log,
+ * for {@code benchmark.reports} reports (1M by default). Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class FileReportRepositoryBenchmarkTest {
+
+    private static final int REPORTS = Integer.getInteger("benchmark.reports", 1_000_000);
+    private static final int WRITERS = 512;
+
+    @TempDir
+    Path storeDirectory;
+
+    @Test
+    void submitThroughputAndRecoveryTime() throws Exception {
+        ReportStoreConfig config = mock(ReportStoreConfig.class);
+        when(config.getDirectory()).thenReturn(storeDirectory.toString());
+        when(config.getSnapshotEveryRecords()).thenReturn(REPORTS / 3);
+        when(config.getMaxCommitBatch()).thenReturn(1024);
+
+        FileReportRepository repository = new FileReportRepository(config, new SimpleMeterRegistry());
+        repository.open();
+
+        long submitStart = System.nanoTime();
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int first = writer * (REPORTS / WRITERS);
+                int last = writer == WRITERS - 1 ? REPORTS : first + REPORTS / WRITERS;
+                writers.execute(() -> {
+                    for (int i = first; i < last; i++) {
+                        repository.save(report(i));
+                    }
+                });
+            }
+        }
+        long submitNanos = System.nanoTime() - submitStart;
+        repository.close();
+
+        FileReportRepository recovered = new FileReportRepository(config, new SimpleMeterRegistry());
+        long recoveryStart = System.nanoTime();
+        recovered.open();
+        long recoveryNanos = System.nanoTime() - recoveryStart;
+        long recoveredCount = recovered.count();
+        recovered.close();
+
+        System.out.printf("reports: %d, writers: %d%n", REPORTS, WRITERS);
+        System.out.printf("submit: %d ms, %.0f reports/s%n",
+                TimeUnit.NANOSECONDS.toMillis(submitNanos), REPORTS / (submitNanos / 1e9));
+        System.out.printf("recovery: %d ms%n", TimeUnit.NANOSECONDS.toMillis(recoveryNanos));
+
+        assertThat(recoveredCount).isEqualTo(REPORTS);
+    }
+
+    private static IncidentReport report(int number) {
+        LocalDateTime now = LocalDateTime.now();
+        return IncidentReport.builder()
+                .reportId(UUID.randomUUID().toString())
+                .sessionId("session-" + number)
+                .incidentType(IncidentType.values()[number % IncidentType.values().length])
+                .status(ReportStatus.SUBMITTED)
+                .description("The coffee machine on floor " + (number % 12) + " has been leaking water since Monday.")
+                .details(Map.of("what", "leaking coffee machine", "where", "floor " + (number % 12)))
+                .location("floor " + (number % 12))
+                .submittedBy("Anonymous")
+                .isAnonymous(true)
+                .submittedAt(now)
+                .lastUpdated(now)
+                .build();
+    }
+}
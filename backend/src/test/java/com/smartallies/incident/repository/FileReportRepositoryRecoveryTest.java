@@ -0,0 +1,165 @@
+package com.smartallies.incident.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartallies.incident.config.ReportStoreConfig;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recovery from log segments damaged by a crash or by the disk: a torn last frame is cut off and the
+ * store keeps working, while damage with acknowledged reports after it stops the store untouched.
+ */
+class FileReportRepositoryRecoveryTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @TempDir
+    Path storeDirectory;
+
+    private ReportStoreConfig config;
+    private Path segment;
+
+    @BeforeEach
+    void setUp() {
+        config = mock(ReportStoreConfig.class);
+        when(config.getDirectory()).thenReturn(storeDirectory.toString());
+        when(config.getSnapshotEveryRecords()).thenReturn(1_000);
+        when(config.getMaxCommitBatch()).thenReturn(64);
+        segment = storeDirectory.resolve("log-000000000000.dat");
+    }
+
+    @Test
+    void keepsReportsBeforeTornTailAndTruncatesIt() throws Exception {
+        byte[] first = frame(report("r-1"));
+        byte[] second = frame(report("r-2"));
+        byte[] torn = Arrays.copyOf(frame(report("r-3")), 20);
+        Files.write(segment, concat(first, second, torn));
+
+        FileReportRepository repository = open();
+        assertThat(repository.findById("r-1")).isPresent();
+        assertThat(repository.findById("r-2")).isPresent();
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(Files.size(segment)).isEqualTo(first.length + second.length);
+
+        repository.save(report("r-4"));
+        repository.close();
+
+        FileReportRepository reopened = open();
+        assertThat(reopened.count()).isEqualTo(3);
+        assertThat(reopened.findById("r-4")).isPresent();
+        reopened.close();
+    }
+
+    @Test
+    void refusesToStartOnCorruptFrameInTheMiddleOfSegmentAndKeepsIt() throws Exception {
+        byte[] first = frame(report("r-1"));
+        byte[] corrupt = frame(report("r-2"));
+        corrupt[corrupt.length - 5] ^= 0x20;
+        byte[] third = frame(report("r-3"));
+        byte[] written = concat(first, corrupt, third);
+        Files.write(segment, written);
+
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupt");
+        assertThat(Files.readAllBytes(segment)).isEqualTo(written);
+        assertThat(Files.readAllBytes(storeDirectory.resolve("log-000000000000.dat.corrupt"))).isEqualTo(written);
+    }
+
+    @Test
+    void leavesFailedCommitAtTheEndOfAnOlderSegmentAlone() throws Exception {
+        byte[] first = frame(report("r-1"));
+        byte[] torn = Arrays.copyOf(frame(report("r-2")), 20);
+        Files.write(segment, concat(first, torn));
+        Files.write(storeDirectory.resolve("log-000000000001.dat"), frame(report("r-3")));
+
+        FileReportRepository repository = open();
+        assertThat(repository.findById("r-1")).isPresent();
+        assertThat(repository.findById("r-2")).isEmpty();
+        assertThat(repository.findById("r-3")).isPresent();
+        assertThat(Files.size(segment)).isEqualTo(first.length + torn.length);
+        repository.close();
+    }
+
+    @Test
+    void treatsLengthBeyondEndOfFileAsTornFrame() throws Exception {
+        byte[] first = frame(report("r-1"));
+        // A length of almost 2 GB in a file of a few hundred bytes must not be allocated
+        byte[] garbage = new byte[16];
+        garbage[0] = 0x7F;
+        garbage[1] = (byte) 0xFF;
+        Files.write(segment, concat(first, garbage));
+
+        FileReportRepository repository = open();
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(Files.size(segment)).isEqualTo(first.length);
+        repository.close();
+    }
+
+    private FileReportRepository open() throws IOException {
+        FileReportRepository repository = new FileReportRepository(config, new SimpleMeterRegistry());
+        repository.open();
+        return repository;
+    }
+
+    private byte[] frame(IncidentReport report) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(report);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            bytes.writeBytes(part);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static IncidentReport report(String id) {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 9, 0);
+        return IncidentReport.builder()
+                .reportId(id)
+                .sessionId("session-" + id)
+                .incidentType(IncidentType.FACILITY)
+                .status(ReportStatus.SUBMITTED)
+                .description("Broken window in meeting room " + id)
+                .location("Building A")
+                .submittedBy("Anonymous")
+                .isAnonymous(true)
+                .submittedAt(now)
+                .lastUpdated(now)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import com.smartallies.incident.model.ReportStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query latency of the report indexes at 100k and 1M reports spread over 30 days.
+ * Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class ReportIndexBenchmarkTest {
+
+    private static final int QUERIES = 5_000;
+    private static final int PAGE_SIZE = 50;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100_000, 1_000_000})
+    void queryLatency(int reportCount) {
+        LocalDateTime now = LocalDateTime.now();
+        ReportIndex index = new ReportIndex();
+        Random random = new Random(42);
+        for (int i = 0; i < reportCount; i++) {
+            index.put(report(random, now));
+        }
+
+        ReportQuery lastDayFacilityQueue = new ReportQuery(ReportStatus.SUBMITTED, IncidentType.FACILITY,
+                now.minusHours(24), null, null, null, PAGE_SIZE);
+        ReportQuery anonymousHuman = new ReportQuery(null, IncidentType.HUMAN, null, null, true, null, PAGE_SIZE);
+        ReportQuery newest = new ReportQuery(null, null, null, null, null, null, PAGE_SIZE);
+
+        long expected = index.values().stream()
+                .filter(report -> report.getStatus() == ReportStatus.SUBMITTED
+                        && report.getIncidentType() == IncidentType.FACILITY
+                        && !report.getSubmittedAt().isBefore(now.minusHours(24)))
+                .count();
+        assertThat(countAllPages(index, lastDayFacilityQueue)).isEqualTo(expected);
+
+        System.out.printf("reports: %d%n", reportCount);
+        measure("submitted facility, last 24 h", () -> index.query(lastDayFacilityQueue));
+        measure("anonymous human, any time", () -> index.query(anonymousHuman));
+        measure("newest, no filters", () -> index.query(newest));
+
+        ReportPage firstPage = index.query(lastDayFacilityQueue);
+        ReportQuery secondPage = new ReportQuery(ReportStatus.SUBMITTED, IncidentType.FACILITY,
+                now.minusHours(24), null, null, firstPage.nextCursor(), PAGE_SIZE);
+        measure("submitted facility, last 24 h, page 2", () -> index.query(secondPage));
+
+        IncidentReport moved = firstPage.reports().get(0);
+        moved.setStatus(ReportStatus.ACKNOWLEDGED);
+        index.put(moved);
+        assertThat(index.query(lastDayFacilityQueue).reports()).doesNotContain(moved);
+        assertThat(countAllPages(index, lastDayFacilityQueue)).isEqualTo(expected - 1);
+    }
+
+    private static long countAllPages(ReportIndex index, ReportQuery query) {
+        long count = 0;
+        String cursor = null;
+        do {
+            ReportPage page = index.query(new ReportQuery(query.status(), query.incidentType(),
+                    query.submittedFrom(), query.submittedTo(), query.anonymous(), cursor, 1_000));
+            for (IncidentReport report : page.reports()) {
+                assertThat(report.getStatus()).isEqualTo(query.status());
+                assertThat(report.getIncidentType()).isEqualTo(query.incidentType());
+            }
+            count += page.reports().size();
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return count;
+    }
+
+    private static void measure(String name, Supplier<ReportPage> query) {
+        for (int i = 0; i < QUERIES; i++) {
+            query.get();
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            query.get();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("  %-40s p50 %6d us, p99 %6d us%n", name,
+                TimeUnit.NANOSECONDS.toMicros(latencies[QUERIES / 2]),
+                TimeUnit.NANOSECONDS.toMicros(latencies[QUERIES * 99 / 100]));
+    }
+
+    private static IncidentReport report(Random random, LocalDateTime now) {
+        LocalDateTime submittedAt = now.minusSeconds(random.nextInt(30 * 24 * 3600));
+        boolean anonymous = random.nextBoolean();
+        return IncidentReport.builder()
+                .reportId(UUID.randomUUID().toString())
+                .sessionId(UUID.randomUUID().toString())
+                .incidentType(IncidentType.values()[random.nextInt(IncidentType.values().length)])
+                .status(ReportStatus.values()[random.nextInt(ReportStatus.values().length)])
+                .description("The coffee machine on floor 3 has been leaking water since Monday.")
+                .details(Map.of("what", "leaking coffee machine", "where", "floor 3"))
+                .submittedBy(anonymous ? "Anonymous" : "employee")
+                .isAnonymous(anonymous)
+                .submittedAt(submittedAt)
+                .lastUpdated(submittedAt)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.smartallies.incident.repository;
+
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportPage;
+import com.smartallies.incident.model.ReportQuery;
+import com.smartallies.incident.model.ReportStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 9, 0);
+    private static final IncidentType[] TYPES = IncidentType.values();
+    private static final ReportStatus[] STATUSES = {ReportStatus.SUBMITTED, ReportStatus.ACKNOWLEDGED};
+
+    private final ReportIndex index = new ReportIndex();
+    private final List<IncidentReport> stored = new ArrayList<>();
+
+    @Test
+    void pagesThroughAllReportsNewestFirst() {
+        fill(23);
+        // Same submission time as an existing report: the id breaks the tie
+        store(report("r-99", T0.plusMinutes(10), IncidentType.HUMAN, ReportStatus.SUBMITTED, false));
+
+        List<String> ids = idsOfAllPages(new ReportQuery(null, null, null, null, null, null, 5), 5);
+
+        assertThat(ids).containsExactlyElementsOf(expectedIds(report -> true));
+    }
+
+    @Test
+    void cursorKeepsTheFiltersOfTheFirstPage() {
+        fill(60);
+        LocalDateTime from = T0.plusMinutes(5);
+        LocalDateTime to = T0.plusMinutes(50);
+
+        List<String> ids = idsOfAllPages(
+                new ReportQuery(ReportStatus.SUBMITTED, IncidentType.FACILITY, from, to, false, null, 2), 2);
+
+        assertThat(ids)
+                .isNotEmpty()
+                .containsExactlyElementsOf(expectedIds(report -> report.getStatus() == ReportStatus.SUBMITTED
+                        && report.getIncidentType() == IncidentType.FACILITY
+                        && !report.isAnonymous()
+                        && !report.getSubmittedAt().isBefore(from)
+                        && !report.getSubmittedAt().isAfter(to)));
+    }
+
+    @Test
+    void statusChangeMovesReportToItsNewBucket() {
+        IncidentReport submitted = report("r-1", T0, IncidentType.FACILITY, ReportStatus.SUBMITTED, false);
+        index.put(submitted);
+
+        index.put(submitted.toBuilder().status(ReportStatus.CLOSED).build());
+
+        assertThat(idsOf(index.query(byStatus(ReportStatus.SUBMITTED)))).isEmpty();
+        assertThat(idsOf(index.query(byStatus(ReportStatus.CLOSED)))).containsExactly("r-1");
+        assertThat(idsOf(index.query(byStatus(null)))).containsExactly("r-1");
+        assertThat(index.get("r-1").getStatus()).isEqualTo(ReportStatus.CLOSED);
+    }
+
+    @Test
+    void statusChangeOfReportMutatedInPlaceStillLeavesItsOldBucket() {
+        IncidentReport report = report("r-1", T0, IncidentType.HUMAN, ReportStatus.SUBMITTED, true);
+        index.put(report);
+
+        report.setStatus(ReportStatus.INVESTIGATION);
+        index.put(report);
+
+        assertThat(idsOf(index.query(byStatus(ReportStatus.SUBMITTED)))).isEmpty();
+        assertThat(idsOf(index.query(byStatus(ReportStatus.INVESTIGATION)))).containsExactly("r-1");
+    }
+
+    @Test
+    void rejectsCursorItDidNotIssue() {
+        assertThatThrownBy(() -> index.query(new ReportQuery(null, null, null, null, null, "not-a-cursor", 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void fill(int count) {
+        for (int i = 0; i < count; i++) {
+            store(report("r-" + i, T0.plusMinutes(i), TYPES[i % TYPES.length], STATUSES[i / 3 % STATUSES.length], i % 4 == 0));
+        }
+    }
+
+    private void store(IncidentReport report) {
+        index.put(report);
+        stored.add(report);
+    }
+
+    private List<String> expectedIds(Predicate<IncidentReport> filter) {
+        return stored.stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(IncidentReport::getSubmittedAt, Comparator.reverseOrder())
+                        .thenComparing(IncidentReport::getReportId))
+                .map(IncidentReport::getReportId)
+                .toList();
+    }
+
+    private List<String> idsOfAllPages(ReportQuery first, int pageSize) {
+        List<String> ids = new ArrayList<>();
+        ReportQuery query = first;
+        while (true) {
+            ReportPage page = index.query(query);
+            assertThat(page.reports()).hasSizeLessThanOrEqualTo(pageSize);
+            ids.addAll(idsOf(page));
+            if (page.nextCursor() == null) {
+                return ids;
+            }
+            assertThat(page.reports()).hasSize(pageSize);
+            query = new ReportQuery(first.status(), first.incidentType(), first.submittedFrom(), first.submittedTo(),
+                    first.anonymous(), page.nextCursor(), pageSize);
+        }
+    }
+
+    private static ReportQuery byStatus(ReportStatus status) {
+        return new ReportQuery(status, null, null, null, null, null, 10);
+    }
+
+    private static List<String> idsOf(ReportPage page) {
+        return page.reports().stream().map(IncidentReport::getReportId).toList();
+    }
+
+    private static IncidentReport report(
+            String id, LocalDateTime submittedAt, IncidentType type, ReportStatus status, boolean anonymous) {
+        return IncidentReport.builder()
+                .reportId(id)
+                .incidentType(type)
+                .status(status)
+                .isAnonymous(anonymous)
+                .submittedAt(submittedAt)
+                .build();
+    }
+}
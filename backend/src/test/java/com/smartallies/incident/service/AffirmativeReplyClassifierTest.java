@@ -0,0 +1,77 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AffirmativeReplyClassifierTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AffirmativeReplyClassifier classifier = new AffirmativeReplyClassifier(meterRegistry);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Yes",
+            "yeah sure!",
+            "Yesss",
+            "Okay 👍",
+            "That’s fine",
+            "sounds good",
+            "go ahead please",
+            "no problem",
+            "No worries"
+    })
+    void classifiesAffirmativeReplies(String reply) {
+        assertThat(classifier.classify(reply)).contains(true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "No",
+            "nope.",
+            "not really",
+            "not okay",
+            "don't proceed",
+            "I don't agree",
+            "that's not right",
+            "no thanks",
+            "👎"
+    })
+    void classifiesNegativeReplies(String reply) {
+        assertThat(classifier.classify(reply)).contains(false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "hmm",
+            "maybe",
+            "yes I guess",
+            "not sure",
+            "yes but change the location",
+            "yes no",
+            "I would like to tell you more about what happened"
+    })
+    void leavesAmbiguousRepliesToTheLlm(String reply) {
+        assertThat(classifier.classify(reply)).isEmpty();
+    }
+
+    @Test
+    void cachesLocalVerdictsOnly() {
+        classifier.classify("Okay!");
+        classifier.classify("okay");
+        classifier.classify("maybe");
+        classifier.classify("maybe");
+
+        assertThat(classifications("local")).isEqualTo(1);
+        assertThat(classifications("cache")).isEqualTo(1);
+        assertThat(classifications("llm")).isEqualTo(2);
+    }
+
+    private double classifications(String source) {
+        return meterRegistry.counter("llm.affirmative.classifications", "source", source).count();
+    }
+}
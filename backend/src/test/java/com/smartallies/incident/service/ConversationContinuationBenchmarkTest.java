@@ -0,0 +1,131 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ConversationConfig;
+import com.smartallies.incident.config.LlmConfig;
+import com.smartallies.incident.config.SessionConfig;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.util.PromptTemplates;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prompt tokens per HR turn: the previous layout (whole history embedded in the system
+ * prompt every turn) versus session-affine continuation from the Ollama context.
+ * Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class ConversationContinuationBenchmarkTest {
+
+    private static final int TURNS = 12;
+
+    @Test
+    void continuationSendsOnlyTheNewTurn() {
+        FakeOllamaGenerateClient fakeOllama = new FakeOllamaGenerateClient();
+        LlmService llmService = mock(LlmService.class);
+        when(llmService.generateContinuation(any(), any()))
+                .thenAnswer(invocation -> fakeOllama.generate(invocation.getArgument(0), null));
+        LlmConfig llmConfig = mock(LlmConfig.class);
+        when(llmConfig.isSessionCacheEnabled()).thenReturn(true);
+        ConversationConfig conversationConfig = mock(ConversationConfig.class);
+        when(conversationConfig.getContextWindowTokens()).thenReturn(Integer.MAX_VALUE);
+
+        SessionConfig sessionConfig = mock(SessionConfig.class);
+        when(sessionConfig.getIdleTtl()).thenReturn(Duration.ofMinutes(30));
+        when(sessionConfig.getWheelSlots()).thenReturn(60);
+        when(sessionConfig.getMaxSessions()).thenReturn(100);
+        SessionRegistry sessionRegistry = new SessionRegistry(sessionConfig, new SimpleMeterRegistry());
+        sessionRegistry.getOrCreate("session-1");
+
+        ConversationContinuationService continuationService =
+                new ConversationContinuationService(sessionRegistry, llmService, llmConfig, conversationConfig);
+        String systemPrompt = PromptTemplates.buildHRPartnerSystemPrompt(
+                "Sarah Mitchell", "My manager keeps making comments about my appearance in meetings.");
+
+        List<String> history = new ArrayList<>();
+        List<ConversationTurn> turns = new ArrayList<>();
+        long totalBefore = 0;
+        long totalAfter = 0;
+
+        System.out.println("turn | before (full history) | after (continuation)");
+        for (int turn = 1; turn <= TURNS; turn++) {
+            String userMessage = "This is what happened next in turn " + turn
+                    + ", it was during the weekly team meeting and two colleagues were there.";
+            history.add("User: " + userMessage);
+
+            int before = countTokens(systemPrompt + "\nPrevious conversation:\n" + String.join("\n", history))
+                    + countTokens(userMessage);
+
+            String reply = continuationService.generateReply("session-1", systemPrompt, List.copyOf(turns), userMessage, null);
+            int after = fakeOllama.lastPromptEvalCount;
+
+            history.add("HR: " + reply);
+            turns.add(ConversationTurn.fromUser(userMessage));
+            turns.add(ConversationTurn.fromPartner(reply));
+
+            totalBefore += before;
+            totalAfter += after;
+            System.out.printf("%4d | %21d | %20d%n", turn, before, after);
+        }
+        System.out.printf("total| %21d | %20d%n", totalBefore, totalAfter);
+
+        assertThat(totalAfter).isLessThan(totalBefore / 2);
+    }
+
+    private static int countTokens(String text) {
+        return text.isBlank() ? 0 : text.trim().split("\\s+").length;
+    }
+
+    /**
+     * Word-level stand-in for Ollama /api/generate: the returned context holds the token ids of the
+     * whole conversation, and only tokens that are not already in the given context are evaluated.
+     */
+    private static class FakeOllamaGenerateClient implements OllamaGenerateClient {
+
+        private final Map<String, Integer> vocabulary = new HashMap<>();
+        private int replyCount;
+        private int lastPromptEvalCount;
+
+        @Override
+        public GenerateResult generate(GenerateCall call, Consumer<String> tokenSink) {
+            List<Integer> context = new ArrayList<>(call.context() == null ? List.of() : call.context());
+            List<Integer> promptTokens = new ArrayList<>();
+            if (call.context() == null && call.system() != null) {
+                promptTokens.addAll(tokenize(call.system()));
+            }
+            promptTokens.addAll(tokenize(call.prompt()));
+
+            replyCount++;
+            String reply = "Thank you for telling me about this, it sounds really difficult. Reply " + replyCount
+                    + ": could you tell me when this started and whether anyone else noticed it?";
+
+            context.addAll(promptTokens);
+            context.addAll(tokenize(reply));
+            lastPromptEvalCount = promptTokens.size();
+            return new GenerateResult(reply, context, promptTokens.size(), countTokens(reply));
+        }
+
+        private List<Integer> tokenize(String text) {
+            List<Integer> tokens = new ArrayList<>();
+            if (text.isBlank()) {
+                return tokens;
+            }
+            for (String word : text.trim().split("\\s+")) {
+                tokens.add(vocabulary.computeIfAbsent(word, w -> vocabulary.size()));
+            }
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartallies.incident.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmergencyTriageTest {
+
+    private final EmergencyTriage triage = new EmergencyTriage(new SimpleMeterRegistry());
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "My colleague just collapsed at her desk",
+            "Someone in the kitchen is choking!",
+            "A man on the stairs has collapsed and he is unresponsive",
+            "She's not responding, please help",
+            "My coworker is not breathing",
+            "There's a fire on the third floor",
+            "We heard a loud explosion in the lab",
+            "I smell gas near the boiler room",
+            "Someone has a knife in the lobby"
+    })
+    void triagesEmergencies(String message) {
+        assertThat(triage.isEmergency(message)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "The server is not responding since this morning",
+            "The ceiling in meeting room 4 collapsed overnight",
+            "The printer on floor 2 is unresponsive",
+            "My manager is not responding to my emails about the harassment",
+            "HR has been unresponsive to my complaints",
+            "The sink drain is choking on debris",
+            "The fire exit in the lobby is blocked by boxes",
+            "The fire extinguisher in the hallway is missing",
+            "There has been an explosion of spam in my inbox",
+            "The shelves in the storage room collapsed"
+    })
+    void leavesFacilityAndHumanReportsToTheModel(String message) {
+        assertThat(triage.isEmergency(message)).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.ReportEventsConfig;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.model.ReportStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Heap held per idle subscriber and the cost of publishing status changes while 100k report pages
+ * are open, one subscription each. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class ReportEventBroadcasterBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 100_000;
+    private static final int STATUS_CHANGES = 50_000;
+
+    @Test
+    void idleSubscribersAreCheapAndPublishingStaysFast() {
+        ReportEventsConfig config = mock(ReportEventsConfig.class);
+        when(config.getReplayBuffer()).thenReturn(10_000);
+        when(config.getSubscriptionTimeout()).thenReturn(Duration.ofMinutes(30));
+        when(config.getHeartbeatInterval()).thenReturn(Duration.ofSeconds(30));
+        when(config.getMaxPendingPerSubscriber()).thenReturn(256);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ReportEventBroadcaster broadcaster = new ReportEventBroadcaster(config, executor, meterRegistry);
+
+            long heapBefore = usedHeap();
+            List<SseEmitter> emitters = new ArrayList<>(SUBSCRIBERS);
+            for (int i = 0; i < SUBSCRIBERS; i++) {
+                emitters.add(broadcaster.subscribe("report-" + i, null));
+            }
+            long heapPerSubscriber = (usedHeap() - heapBefore) / SUBSCRIBERS;
+
+            IncidentReport report = IncidentReport.builder()
+                    .incidentType(IncidentType.FACILITY)
+                    .status(ReportStatus.ACKNOWLEDGED)
+                    .lastUpdated(LocalDateTime.now())
+                    .build();
+            long start = System.nanoTime();
+            for (int i = 0; i < STATUS_CHANGES; i++) {
+                report.setReportId("report-" + (i * 7919 % SUBSCRIBERS));
+                broadcaster.onReportStatusChanged(new ReportStatusChangedEvent(report, ReportStatus.SUBMITTED));
+            }
+            long publishNanos = System.nanoTime() - start;
+
+            System.out.printf("idle subscribers: %d, heap per subscriber: ~%d bytes%n", SUBSCRIBERS, heapPerSubscriber);
+            System.out.printf("%d status changes published in %d ms (%.1f µs each)%n", STATUS_CHANGES,
+                    TimeUnit.NANOSECONDS.toMillis(publishNanos), publishNanos / 1e3 / STATUS_CHANGES);
+
+            assertThat(meterRegistry.get("report.events.subscribers").gauge().value()).isEqualTo(SUBSCRIBERS);
+            assertThat(meterRegistry.get("report.events.published").counter().count()).isEqualTo(STATUS_CHANGES);
+            assertThat(emitters).hasSize(SUBSCRIBERS);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.dto.ReportImportResponse;
+import com.smartallies.incident.model.IncidentReport;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.ReportStatus;
+import com.smartallies.incident.repository.InMemoryReportRepository;
+import com.smartallies.incident.repository.ReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * NDJSON export of millions of reports to a file and import of that file into an empty store,
+ * with throughput and the heap the export leaves retained.
+ * Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class ReportTransferBenchmarkTest {
+
+    private static final ReportStatus[] STATUSES = ReportStatus.values();
+    private static final IncidentType[] TYPES = IncidentType.values();
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000_000, 2_000_000})
+    void exportsAndImportsMillionsOfReports(int reportCount) throws Exception {
+        Path file = directory.resolve("reports.ndjson");
+        long exportNanos;
+        long exported;
+        long exportHeapGrowth;
+        {
+            ReportRepository source = new InMemoryReportRepository();
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+            for (int i = 0; i < reportCount; i++) {
+                source.save(report(i, start.plusSeconds(i)));
+            }
+            ReportTransferService transfer = new ReportTransferService(source, new SimpleMeterRegistry());
+
+            long heapBefore = usedHeapAfterGc();
+            long exportStart = System.nanoTime();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+                exported = transfer.exportReports(null, null, null, null, out);
+            }
+            exportNanos = System.nanoTime() - exportStart;
+            exportHeapGrowth = usedHeapAfterGc() - heapBefore;
+        }
+
+        ReportRepository target = new InMemoryReportRepository();
+        ReportTransferService transfer = new ReportTransferService(target, new SimpleMeterRegistry());
+        long importStart = System.nanoTime();
+        ReportImportResponse imported;
+        try (InputStream in = Files.newInputStream(file)) {
+            imported = transfer.importReports(in);
+        }
+        long importNanos = System.nanoTime() - importStart;
+
+        long size = Files.size(file);
+        System.out.printf("reports: %d, NDJSON: %.0f MB%n", reportCount, size / 1e6);
+        System.out.printf("export: %d ms (%.0f reports/s, %.0f MB/s), retained heap growth: %d KB%n",
+                TimeUnit.NANOSECONDS.toMillis(exportNanos), exported / (exportNanos / 1e9),
+                size / 1e6 / (exportNanos / 1e9), exportHeapGrowth / 1024);
+        System.out.printf("import: %d ms (%.0f reports/s)%n",
+                TimeUnit.NANOSECONDS.toMillis(importNanos), imported.getImported() / (importNanos / 1e9));
+
+        assertThat(exported).isEqualTo(reportCount);
+        assertThat(imported.getImported()).isEqualTo(reportCount);
+        assertThat(imported.getRejected()).isZero();
+        assertThat(target.count()).isEqualTo(reportCount);
+        assertThat(target.findById("report-42")).get()
+                .satisfies(report -> assertThat(report.getDetails()).containsEntry("where", "Floor 42"));
+    }
+
+    private static IncidentReport report(int i, LocalDateTime submittedAt) {
+        return IncidentReport.builder()
+                .reportId("report-" + i)
+                .sessionId("session-" + i)
+                .incidentType(TYPES[i % TYPES.length])
+                .status(STATUSES[i % STATUSES.length])
+                .description("Water leaking from the ceiling next to the elevators")
+                .details(Map.of("what", "Leak", "where", "Floor " + i))
+                .location("Floor " + i)
+                .submittedBy("Anonymous")
+                .isAnonymous(true)
+                .submittedAt(submittedAt)
+                .lastUpdated(submittedAt)
+                .build();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
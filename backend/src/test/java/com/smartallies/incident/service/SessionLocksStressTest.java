@@ -0,0 +1,111 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.config.SessionConfig;
+import com.smartallies.incident.model.ConversationContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Many sessions, each hit by a burst of concurrent turns that read-modify-write its context.
+ * Turns of one session must never overlap nor lose an update, while different sessions must
+ * overlap freely. A small run is part of the default suite; the full one runs with
+ * {@code mvn test -Pbenchmarks}.
+ */
+class SessionLocksStressTest {
+
+    @Test
+    void serializesTurnsPerSession() throws Exception {
+        stress(20, 50, false);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void serializesTurnsPerSessionAndRunsSessionsInParallel() throws Exception {
+        stress(500, 200, true);
+    }
+
+    private static void stress(int sessions, int turnsPerSession, boolean printReport) throws Exception {
+        SessionConfig config = mock(SessionConfig.class);
+        when(config.getTurnLockTimeout()).thenReturn(Duration.ofMinutes(1));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SessionLocks sessionLocks = new SessionLocks(config, meterRegistry);
+
+        List<ConversationContext> contexts = new ArrayList<>();
+        List<AtomicInteger> turnsInFlight = new ArrayList<>();
+        for (int session = 0; session < sessions; session++) {
+            contexts.add(ConversationContext.builder().sessionId("session-" + session).build());
+            turnsInFlight.add(new AtomicInteger());
+        }
+        AtomicInteger sessionsInFlight = new AtomicInteger();
+        AtomicInteger maxSessionsInFlight = new AtomicInteger();
+        ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        long runStart;
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int turn = 0; turn < turnsPerSession; turn++) {
+                for (int session = 0; session < sessions; session++) {
+                    ConversationContext context = contexts.get(session);
+                    AtomicInteger inFlight = turnsInFlight.get(session);
+                    requests.execute(() -> {
+                        awaitQuietly(start);
+                        sessionLocks.runExclusive(context.getSessionId(), () -> {
+                            if (inFlight.incrementAndGet() != 1) {
+                                violations.add(context.getSessionId());
+                            }
+                            maxSessionsInFlight.accumulateAndGet(sessionsInFlight.incrementAndGet(), Math::max);
+                            String count = context.getField("count");
+                            Thread.yield();
+                            context.updateField("count", String.valueOf(count == null ? 1 : Integer.parseInt(count) + 1));
+                            sessionsInFlight.decrementAndGet();
+                            inFlight.decrementAndGet();
+                            return null;
+                        });
+                    });
+                }
+            }
+            runStart = System.nanoTime();
+            start.countDown();
+        }
+        long runNanos = System.nanoTime() - runStart;
+
+        if (printReport) {
+            System.out.printf("sessions: %d, turns per session: %d%n", sessions, turnsPerSession);
+            System.out.printf("total: %d ms, %.0f turns/s, max sessions in flight: %d%n",
+                    TimeUnit.NANOSECONDS.toMillis(runNanos), sessions * turnsPerSession / (runNanos / 1e9),
+                    maxSessionsInFlight.get());
+            System.out.printf("contended acquisitions: %.0f, wait: %s%n",
+                    meterRegistry.get("session.lock.acquisitions").tag("contended", "true").counter().count(),
+                    meterRegistry.get("session.lock.wait").timer().takeSnapshot());
+        }
+
+        assertThat(violations).isEmpty();
+        assertThat(contexts).allSatisfy(context ->
+                assertThat(context.getField("count")).isEqualTo(String.valueOf(turnsPerSession)));
+        assertThat(maxSessionsInFlight.get()).isGreaterThan(1);
+        assertThat(meterRegistry.get("session.lock.held").gauge().value()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
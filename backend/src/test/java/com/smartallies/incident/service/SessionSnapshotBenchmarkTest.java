@@ -0,0 +1,111 @@
+package com.smartallies.incident.service;
+
+import com.smartallies.incident.model.ContinuationState;
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.HRPartner;
+import com.smartallies.incident.model.HRSession;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.model.WorkflowState;
+import com.smartallies.incident.util.SessionSnapshotCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size of a shutdown snapshot of 100k sessions, a third of them partway through an HR chat,
+ * and the time to write it and to map and decode it again. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+class SessionSnapshotBenchmarkTest {
+
+    private static final int SESSIONS = 100_000;
+    private static final int HR_TURNS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresOneHundredThousandSessions() throws Exception {
+        List<SessionSnapshot> sessions = IntStream.range(0, SESSIONS).mapToObj(this::session).toList();
+        Path file = directory.resolve("sessions.snapshot");
+
+        long writeStart = System.nanoTime();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            SessionSnapshotCodec.write(sessions, out);
+        }
+        long writeNanos = System.nanoTime() - writeStart;
+
+        List<SessionSnapshot> restored = null;
+        long bestRestoreNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long restoreStart = System.nanoTime();
+            restored = SessionSnapshotCodec.read(file);
+            bestRestoreNanos = Math.min(bestRestoreNanos, System.nanoTime() - restoreStart);
+        }
+
+        long size = Files.size(file);
+        System.out.printf("sessions: %d, snapshot: %.1f MB (%d bytes/session)%n",
+                SESSIONS, size / 1e6, size / SESSIONS);
+        System.out.printf("write: %d ms, restore (best of 5): %d ms%n",
+                TimeUnit.NANOSECONDS.toMillis(writeNanos), TimeUnit.NANOSECONDS.toMillis(bestRestoreNanos));
+
+        assertThat(restored).hasSize(SESSIONS);
+        for (int i = 0; i < SESSIONS; i += 997) {
+            SessionSnapshot expected = sessions.get(i);
+            SessionSnapshot actual = restored.get(i);
+            assertThat(actual.sessionId()).isEqualTo(expected.sessionId());
+            assertThat(actual.context().getWorkflowState()).isEqualTo(expected.context().getWorkflowState());
+            assertThat(actual.context().getCollectedFields()).isEqualTo(expected.context().getCollectedFields());
+            assertThat(actual.hrSession()).isEqualTo(expected.hrSession());
+            assertThat(actual.hrHistory()).isEqualTo(expected.hrHistory());
+            assertThat(actual.continuation()).isEqualTo(expected.continuation());
+        }
+    }
+
+    private SessionSnapshot session(int i) {
+        String sessionId = "session-" + i;
+        ConversationContext context = ConversationContext.builder()
+                .sessionId(sessionId)
+                .workflowState(i % 3 == 0 ? WorkflowState.HR_CONNECTED : WorkflowState.COLLECTING_DETAILS)
+                .incidentType(IncidentType.HUMAN)
+                .initialMessage("My manager keeps making comments about my appearance in meetings (" + i + ")")
+                .classificationConfidence(0.93)
+                .build();
+        context.updateField("what", "Repeated comments about appearance");
+        context.updateField("when", "Team meetings over the last month");
+        context.updateField("where", "Meeting room 4B");
+        if (i % 3 != 0) {
+            return new SessionSnapshot(sessionId, context, null, null, null, null, null);
+        }
+
+        HRSession hrSession = HRSession.builder()
+                .sessionId(sessionId)
+                .partner(HRPartner.values()[i % HRPartner.values().length])
+                .isActive(true)
+                .startedAtMillis(System.currentTimeMillis())
+                .build();
+        List<ConversationTurn> turns = new ArrayList<>();
+        for (int turn = 0; turn < HR_TURNS; turn++) {
+            turns.add(turn % 2 == 0
+                    ? ConversationTurn.fromUser("It happened again today, in front of the whole team, turn " + turn)
+                    : ConversationTurn.fromPartner("I'm sorry you had to go through that. Can you tell me more about turn " + turn + "?"));
+        }
+        ContinuationState continuation = new ContinuationState(
+                IntStream.range(0, 256).boxed().toList(), HR_TURNS, turns.get(HR_TURNS - 1).text());
+        return new SessionSnapshot(sessionId, context, hrSession,
+                new ConversationHistory.Snapshot("", 0, turns), null, null, continuation);
+    }
+}
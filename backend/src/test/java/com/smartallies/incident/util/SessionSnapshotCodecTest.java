@@ -0,0 +1,171 @@
+package com.smartallies.incident.util;
+
+import com.smartallies.incident.model.ClassificationSource;
+import com.smartallies.incident.model.ContinuationState;
+import com.smartallies.incident.model.ConversationContext;
+import com.smartallies.incident.model.ConversationHistory;
+import com.smartallies.incident.model.ConversationTurn;
+import com.smartallies.incident.model.HRPartner;
+import com.smartallies.incident.model.HRSession;
+import com.smartallies.incident.model.IncidentType;
+import com.smartallies.incident.model.SamaritanPartner;
+import com.smartallies.incident.model.SamaritanSession;
+import com.smartallies.incident.model.SessionSnapshot;
+import com.smartallies.incident.model.WorkflowState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SessionSnapshotCodecTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsSessionWithEveryPartSet() throws IOException {
+        SessionSnapshot session = fullSession("session-1");
+
+        assertThat(SessionSnapshotCodec.read(ByteBuffer.wrap(encode(List.of(session))))).containsExactly(session);
+    }
+
+    @Test
+    void roundTripsSessionWithEveryPartNull() throws IOException {
+        SessionSnapshot bare = new SessionSnapshot("session-1", null, null, null, null, null, null);
+        SessionSnapshot emptyContext = new SessionSnapshot("session-2",
+                ConversationContext.builder().createdAtMillis(1L).updatedAtMillis(2L).build(),
+                HRSession.builder().build(),
+                new ConversationHistory.Snapshot(null, 0, List.of()),
+                SamaritanSession.builder().build(),
+                null,
+                new ContinuationState(List.of(), 0, null));
+
+        assertThat(SessionSnapshotCodec.read(ByteBuffer.wrap(encode(List.of(bare, emptyContext)))))
+                .containsExactly(bare, emptyContext);
+    }
+
+    @Test
+    void roundTripsThroughMappedFile() throws IOException {
+        List<SessionSnapshot> sessions = List.of(fullSession("session-1"), fullSession("session-2"));
+        Path file = directory.resolve("sessions.bin");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            SessionSnapshotCodec.write(sessions, out);
+        }
+
+        assertThat(SessionSnapshotCodec.read(file)).isEqualTo(sessions);
+    }
+
+    @Test
+    void rejectsFlippedByte() throws IOException {
+        byte[] bytes = encode(List.of(fullSession("session-1")));
+        bytes[bytes.length / 2] ^= 0x01;
+
+        assertThatThrownBy(() -> SessionSnapshotCodec.read(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+    }
+
+    @Test
+    void rejectsSessionUsingEnumConstantThisVersionDoesNotHave() throws IOException {
+        // As if written by a version whose IncidentType.HUMAN was called HUMAX
+        byte[] bytes = withRenamedConstant(encode(List.of(fullSession("session-1"))), "HUMAN", "HUMAX");
+
+        assertThatThrownBy(() -> SessionSnapshotCodec.read(ByteBuffer.wrap(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("IncidentType");
+    }
+
+    @Test
+    void readsSessionsNotUsingAnUnknownEnumConstant() throws IOException {
+        SessionSnapshot session = fullSession("session-1");
+        byte[] bytes = withRenamedConstant(encode(List.of(session)), "FACILITY", "FACILITX");
+
+        assertThat(SessionSnapshotCodec.read(ByteBuffer.wrap(bytes))).containsExactly(session);
+    }
+
+    private static SessionSnapshot fullSession(String sessionId) {
+        ConversationContext context = ConversationContext.builder()
+                .sessionId(sessionId)
+                .workflowState(WorkflowState.COLLECTING_DETAILS)
+                .incidentType(IncidentType.HUMAN)
+                .initialMessage("My manager keeps shouting at me")
+                .imageUrl("/api/blobs/abc")
+                .classificationConfidence(0.92)
+                .classificationSource(ClassificationSource.LLM)
+                .hrDecisionMade(true)
+                .createdAtMillis(1_700_000_000_000L)
+                .updatedAtMillis(1_700_000_060_000L)
+                .build();
+        context.getCollectedFields().put("where", "Office 3, second floor");
+        context.getCollectedFields().put("custom_note", "überstunden – ok");
+
+        List<ConversationTurn> turns = List.of(
+                new ConversationTurn(ConversationTurn.Speaker.USER, "It happened again today"),
+                new ConversationTurn(ConversationTurn.Speaker.PARTNER, "I'm sorry to hear that."));
+        return new SessionSnapshot(
+                sessionId,
+                context,
+                HRSession.builder()
+                        .sessionId(sessionId)
+                        .partner(HRPartner.EMILY_RODRIGUEZ)
+                        .isActive(true)
+                        .startedAtMillis(1_700_000_010_000L)
+                        .endedAtMillis(0L)
+                        .ticketId("ticket-1")
+                        .build(),
+                new ConversationHistory.Snapshot("Earlier: the user described two incidents", 4, turns),
+                SamaritanSession.builder()
+                        .sessionId(sessionId)
+                        .partner(SamaritanPartner.ANNA_WILLIAMS)
+                        .isActive(false)
+                        .startedAtMillis(1_700_000_020_000L)
+                        .endedAtMillis(1_700_000_030_000L)
+                        .ticketId("ticket-2")
+                        .emergencyLocation("Lobby")
+                        .build(),
+                new ConversationHistory.Snapshot(null, 0, turns),
+                new ContinuationState(List.of(1, 2, 3, Integer.MAX_VALUE), 6, "I'm sorry to hear that."));
+    }
+
+    private static byte[] encode(List<SessionSnapshot> sessions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SessionSnapshotCodec.write(sessions, out);
+        return out.toByteArray();
+    }
+
+    // Renames the constant in the header's name table and fixes up the checksum, which covers it
+    private static byte[] withRenamedConstant(byte[] bytes, String name, String renamed) {
+        byte[] from = name.getBytes(StandardCharsets.UTF_8);
+        int at = indexOf(bytes, from);
+        System.arraycopy(renamed.getBytes(StandardCharsets.UTF_8), 0, bytes, at, from.length);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+        return bytes;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        outer:
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (bytes[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("Not found");
+    }
+}
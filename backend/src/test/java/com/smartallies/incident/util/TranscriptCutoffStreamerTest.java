@@ -0,0 +1,80 @@
+package com.smartallies.incident.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TranscriptCutoffStreamerTest {
+
+    private static final List<String> MARKERS = List.of("User:", "\nUser");
+
+    private final List<String> forwarded = new ArrayList<>();
+    private final TranscriptCutoffStreamer streamer = new TranscriptCutoffStreamer(MARKERS, forwarded::add);
+
+    @Test
+    void forwardsRepliesWithoutMarkerCompletely() {
+        streamer.accept("I hear you. ");
+        streamer.accept("Take your time.");
+        streamer.finish();
+
+        assertThat(String.join("", forwarded)).isEqualTo("I hear you. Take your time.");
+    }
+
+    @Test
+    void stopsAtMarkerSplitOverChunks() {
+        streamer.accept("That sounds hard.\nUs");
+        streamer.accept("er: thanks");
+        streamer.accept(" for listening");
+        streamer.finish();
+
+        assertThat(String.join("", forwarded)).isEqualTo("That sounds hard.");
+    }
+
+    @Test
+    void stopsAtMarkerSplitIntoSingleCharacters() {
+        for (char c : "Okay. User: bye".toCharArray()) {
+            streamer.accept(String.valueOf(c));
+        }
+        streamer.finish();
+
+        assertThat(String.join("", forwarded)).isEqualTo("Okay. ");
+    }
+
+    @Test
+    void forwardsNothingWhenReplyStartsWithMarker() {
+        streamer.accept("Us");
+        streamer.accept("er: I was the one who");
+        streamer.finish();
+
+        assertThat(forwarded).isEmpty();
+    }
+
+    @Test
+    void flushesHeldBackTextThatNeverBecameMarker() {
+        streamer.accept("Ask the Use");
+        assertThat(String.join("", forwarded)).isEqualTo("Ask the ");
+
+        streamer.accept("d equipment desk");
+        streamer.finish();
+
+        assertThat(String.join("", forwarded)).isEqualTo("Ask the Used equipment desk");
+    }
+
+    @Test
+    void flushesPartialMarkerLeftAtTheEnd() {
+        streamer.accept("Thank you, Use");
+        streamer.finish();
+
+        assertThat(String.join("", forwarded)).isEqualTo("Thank you, Use");
+    }
+
+    @Test
+    void cutsCompleteReplyAtFirstMarker() {
+        assertThat(TranscriptCutoffStreamer.cutOff("Noted.\nUser said more User: text", MARKERS)).isEqualTo("Noted.");
+        assertThat(TranscriptCutoffStreamer.cutOff("User: I was there", MARKERS)).isEmpty();
+        assertThat(TranscriptCutoffStreamer.cutOff("No marker here", MARKERS)).isEqualTo("No marker here");
+    }
+}
@@ -0,0 +1,41 @@
+#!/bin/bash
+
+# Starts a local cluster of N backend nodes on consecutive ports (default: 3 nodes from 8080).
+# Every node gets its own data directory under ./data/node-<port>. Stop all nodes with Ctrl+C.
+
+NODES=${1:-3}
+FIRST_PORT=${2:-8080}
+
+echo "🔨 Building application..."
+mvn -q clean package -DskipTests || { echo "❌ Build failed."; exit 1; }
+JAR=$(ls target/incident-backend-*.jar | grep -v original | head -n 1)
+
+MEMBERS=""
+for ((i = 0; i < NODES; i++)); do
+    MEMBERS+="${MEMBERS:+,}http://localhost:$((FIRST_PORT + i))"
+done
+
+# Nodes only accept sessions pushed with the shared secret
+SECRET=${CLUSTER_SECRET:-$(head -c 16 /dev/urandom | od -An -tx1 | tr -d ' \n')}
+
+PIDS=()
+trap 'echo "🛑 Stopping nodes..."; kill "${PIDS[@]}" 2>/dev/null; wait' INT TERM
+
+for ((i = 0; i < NODES; i++)); do
+    PORT=$((FIRST_PORT + i))
+    mkdir -p "data/node-$PORT"
+    echo "🚀 Starting node http://localhost:$PORT"
+    java -jar "$JAR" \
+        --server.port="$PORT" \
+        --cluster.enabled=true \
+        --cluster.self="http://localhost:$PORT" \
+        --cluster.nodes="$MEMBERS" \
+        --cluster.shared-secret="$SECRET" \
+        --reports.store.directory="data/node-$PORT/reports" \
+        --blobs.directory="data/node-$PORT/blobs" \
+        > "data/node-$PORT/node.log" 2>&1 &
+    PIDS+=($!)
+done
+
+echo "✅ $NODES nodes running: $MEMBERS (logs in data/node-<port>/node.log)"
+wait
@@ -2,6 +2,7 @@ import { useState, useRef } from 'react';
 import { Send, Paperclip, Camera } from 'lucide-react';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
+import { apiService } from '@/services/api.service';
 
 interface MessageInputProps {
   onSendMessage: (message: string, options?: { imageUrl?: string; imagePreview?: string }) => void;
@@ -21,7 +22,17 @@ export function MessageInput({ onSendMessage, isLoading }: MessageInputProps) {
 
     const content = message.trim() || 'Image attached.';
 
+    let imageUrl: string | undefined;
+    if (selectedImage) {
+      try {
+        imageUrl = await apiService.uploadImage(selectedImage);
+      } catch (error) {
+        console.error('Image upload failed:', error);
+      }
+    }
+
     onSendMessage(content, { 
+      imageUrl,
       imagePreview: imagePreview || undefined 
     });
     
@@ -14,14 +14,26 @@ export function ReportPage() {
   const [error, setError] = useState<string | null>(null);
 
   useEffect(() => {
-    if (reportId) {
-      loadReport(reportId);
+    if (!reportId) {
+      return;
     }
+    loadReport(reportId);
+    return apiService.subscribeToReport(
+      reportId,
+      (event) => setReport((current) => current && {
+        ...current,
+        status: event.status,
+        lastUpdated: event.lastUpdated,
+      }),
+      () => loadReport(reportId, false),
+    );
   }, [reportId]);
 
-  const loadReport = async (id: string) => {
+  const loadReport = async (id: string, showLoading = true) => {
     try {
-      setLoading(true);
+      if (showLoading) {
+        setLoading(true);
+      }
       const data = await apiService.getReport(id);
       setReport(data);
     } catch (err) {
@@ -1,6 +1,6 @@
 import { APP_CONFIG } from '@/config/constants';
 import type { ChatRequest, ChatResponse } from '@/types/incident.types';
-import type { IncidentReport, SubmitReportRequest } from '@/types/report.types';
+import type { IncidentReport, ReportEvent, SubmitReportRequest } from '@/types/report.types';
 import type { ConnectHRRequest, ConnectHRResponse, HRChatRequest, HRChatResponse } from '@/types/hr.types';
 import type { ConnectSamaritanRequest, ConnectSamaritanResponse, SamaritanChatRequest, SamaritanChatResponse } from '@/types/samaritan.types';
 import type { FacilityDetailsRequest, FacilityDetailsResponse } from '@/types/facility.types';
@@ -67,6 +67,18 @@ class ApiService {
     return response.json();
   }
 
+  subscribeToReport(
+    reportId: string,
+    onStatus: (event: ReportEvent) => void,
+    onResync: () => void,
+  ): () => void {
+    // EventSource reconnects by itself and resumes from the last event id it saw
+    const source = new EventSource(`${this.baseUrl}/reports/events?reportId=${encodeURIComponent(reportId)}`);
+    source.addEventListener('status', (event) => onStatus(JSON.parse((event as MessageEvent).data)));
+    source.addEventListener('resync', () => onResync());
+    return () => source.close();
+  }
+
   async connectToHR(request: ConnectHRRequest): Promise<ConnectHRResponse> {
     const response = await fetch(`${this.baseUrl}/hr/connect`, {
       method: 'POST',
@@ -19,6 +19,14 @@ export interface IncidentReport {
   lastUpdated: string;
 }
 
+export interface ReportEvent {
+  reportId: string;
+  incidentType: IncidentReport['incidentType'];
+  status: ReportStatus;
+  previousStatus?: ReportStatus;
+  lastUpdated: string;
+}
+
 export interface SubmitReportRequest {
   sessionId: string;
   submittedBy?: string;